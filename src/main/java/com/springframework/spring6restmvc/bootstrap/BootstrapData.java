@@ -12,18 +12,21 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ResourceUtils;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
 @Component
 @RequiredArgsConstructor
+@Profile("!inmemory")
 public class BootstrapData implements CommandLineRunner {
     private final BeerRepository beerRepository;
     private final CustomerRepository customerRepository;
@@ -62,11 +65,35 @@ public class BootstrapData implements CommandLineRunner {
                         .price(BigDecimal.TEN)
                         .upc(beerCSVRecord.getRow().toString())
                         .quantityOnHand(beerCSVRecord.getCount())
+                        .abv(toAbvPercent(beerCSVRecord.getAbv()))
+                        .ibu(toIbu(beerCSVRecord.getIbu()))
+                        .breweryId(beerCSVRecord.getBreweryId())
+                        .ounces(beerCSVRecord.getOunces() != null
+                                ? new BigDecimal(beerCSVRecord.getOunces().toString()).setScale(1, RoundingMode.HALF_UP)
+                                : null)
+                        .city(StringUtils.abbreviate(beerCSVRecord.getCity(), 50))
+                        .state(beerCSVRecord.getState())
                         .build());
             });
         }
     }
 
+    // the csv has abv as a fraction (0.0279999999999999) and "NA" for unknown values
+    static BigDecimal toAbvPercent(String abv) {
+        if (isMissing(abv)) {
+            return null;
+        }
+        return new BigDecimal(abv).movePointRight(2).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    static Integer toIbu(String ibu) {
+        return isMissing(ibu) ? null : Integer.valueOf(ibu);
+    }
+
+    private static boolean isMissing(String value) {
+        return StringUtils.isBlank(value) || "NA".equals(value);
+    }
+
     private void loadCustomerData() {
         if (customerRepository.count() == 0) {
             Customer customer1 = Customer.builder()
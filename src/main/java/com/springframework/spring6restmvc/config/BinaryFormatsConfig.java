@@ -0,0 +1,30 @@
+package com.springframework.spring6restmvc.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/** Binary alternatives to JSON for service-to-service callers.
+ * Accept / Content-Type application/cbor or application/x-jackson-smile select these converters
+ * through normal content negotiation, JSON stays the default.
+ * Spring MVC would register both formats on its own once the jars are on the classpath, but with a plain
+ * ObjectMapper; building them from Boot's Jackson2ObjectMapperBuilder keeps every spring.jackson.* setting
+ * (date format, inclusion, modules) identical to the JSON output. Boot replaces its defaults with these beans.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,25 @@
+package com.springframework.spring6restmvc.controllers;
+
+import com.springframework.spring6restmvc.events.BeerChangeFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static com.springframework.spring6restmvc.controllers.BeerController.BEER_PATH;
+
+@RequiredArgsConstructor
+@RestController
+public class BeerChangeController {
+    public static final String BEER_CHANGES_PATH = BEER_PATH + "/changes";
+
+    private final BeerChangeFeed beerChangeFeed;
+
+    // EventSource clients send Last-Event-ID on reconnect and continue where they left off
+    @GetMapping(value = BEER_CHANGES_PATH, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBeerChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return beerChangeFeed.subscribe(lastEventId);
+    }
+}
@@ -1,17 +1,27 @@
 package com.springframework.spring6restmvc.controllers;
 
+import com.springframework.spring6restmvc.model.BatchGetRequest;
+import com.springframework.spring6restmvc.model.BatchGetResult;
 import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerField;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
 import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.model.CompactPage;
+import com.springframework.spring6restmvc.model.DeltaPage;
 import com.springframework.spring6restmvc.services.BeerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Slf4j
@@ -20,11 +30,14 @@ import java.util.UUID;
 public class BeerController {
     public static final String BEER_PATH = "/api/v1/beer";
     public static final String BEER_PATH_ID = BEER_PATH + "/{beerId}";
+    public static final String BEER_FACETS_PATH = BEER_PATH + "/facets";
+    public static final String BEER_BATCH_GET_PATH = BEER_PATH + "/batch-get";
 
     private final BeerService beerService;
 
     @PatchMapping(BEER_PATH_ID)
-    public ResponseEntity updateBeerPatchById(@PathVariable("beerId") UUID beerId, @RequestBody BeerDTO beer){
+    public ResponseEntity updateBeerPatchById(@PathVariable("beerId") UUID beerId,
+                                              @Validated(BeerDTO.Patch.class) @RequestBody BeerDTO beer){
         beerService.patchBeerById(beerId, beer);
         return new ResponseEntity(HttpStatus.NO_CONTENT);
     }
@@ -54,13 +67,55 @@ public class BeerController {
         return new ResponseEntity(headers, HttpStatus.CREATED);
     }
 
+    // GET /api/v1/beer?beerStyle=IPA&minPrice=5&maxQuantityOnHand=100&sortBy=updateDate - every parameter of
+    // BeerSearchCriteria is an optional filter, unknown sortBy values are rejected
     @GetMapping(BEER_PATH)
-    public Page<BeerDTO> listBeers(@RequestParam(required = false) String beerName,
-                                   @RequestParam(required = false) BeerStyle beerStyle,
+    public Page<BeerDTO> listBeers(BeerSearchCriteria criteria,
                                    @RequestParam(required = false) Boolean showInventory,
                                    @RequestParam(required = false) Integer pageNumber,
                                    @RequestParam(required = false) Integer pageSize) {
-        return beerService.getAllBears(beerName, beerStyle, showInventory, pageNumber, pageSize);
+        return beerService.getAllBears(criteria, showInventory, pageNumber, pageSize);
+    }
+
+    // GET /api/v1/beer?fields=id,beerName,price - only the listed columns are selected and serialized,
+    // and the response uses the compact page envelope
+    @GetMapping(value = BEER_PATH, params = {"fields", "!modifiedSince"})
+    public CompactPage<Map<String, Object>> listBeerFields(BeerSearchCriteria criteria,
+                                                           @RequestParam Set<BeerField> fields,
+                                                           @RequestParam(required = false) Boolean showInventory,
+                                                           @RequestParam(required = false) Integer pageNumber,
+                                                           @RequestParam(required = false) Integer pageSize) {
+        return CompactPage.of(beerService.getAllBeerFields(criteria, fields, showInventory, pageNumber, pageSize));
+    }
+
+    // GET /api/v1/beer?envelope=compact - full rows without the pageable and sort metadata of a serialized Page
+    @GetMapping(value = BEER_PATH, params = {"envelope=compact", "!fields", "!modifiedSince"})
+    public CompactPage<BeerDTO> listBeersCompact(BeerSearchCriteria criteria,
+                                                 @RequestParam(required = false) Boolean showInventory,
+                                                 @RequestParam(required = false) Integer pageNumber,
+                                                 @RequestParam(required = false) Integer pageSize) {
+        return CompactPage.of(beerService.getAllBears(criteria, showInventory, pageNumber, pageSize));
+    }
+
+    // GET /api/v1/beer?modifiedSince=2025-10-01T00:00:00&afterId=... - incremental sync, see DeltaPage
+    @GetMapping(value = BEER_PATH, params = "modifiedSince")
+    public DeltaPage<BeerDTO> listBeerChanges(@RequestParam
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime modifiedSince,
+                                              @RequestParam(required = false) UUID afterId,
+                                              @RequestParam(required = false) Integer limit) {
+        return beerService.getBeerChanges(modifiedSince, afterId, limit);
+    }
+
+    // GET /api/v1/beer/facets?beerName=IPA - number of beers per style, e.g. {"LAGER": 39, "IPA": 310, ...}
+    @GetMapping(BEER_FACETS_PATH)
+    public Map<BeerStyle, Long> getStyleFacets(@RequestParam(required = false) String beerName) {
+        return beerService.getStyleCounts(beerName);
+    }
+
+    // POST /api/v1/beer/batch-get {"ids": [...]} - up to BatchGetRequest.MAX_IDS beers in one round trip
+    @PostMapping(BEER_BATCH_GET_PATH)
+    public BatchGetResult<BeerDTO> getBeersByIds(@Validated @RequestBody BatchGetRequest request) {
+        return beerService.getBeersByIds(request.getIds());
     }
 
     @GetMapping(BEER_PATH_ID)
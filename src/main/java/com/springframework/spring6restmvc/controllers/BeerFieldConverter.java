@@ -0,0 +1,18 @@
+package com.springframework.spring6restmvc.controllers;
+
+import com.springframework.spring6restmvc.model.BeerField;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/** Binds fields=id,beerName,price to BeerField constants by their property name.
+ * An unknown name fails the conversion, which Spring MVC answers with 400 (Bad Request).
+ */
+@Component
+public class BeerFieldConverter implements Converter<String, BeerField> {
+
+    @Override
+    public BeerField convert(String source) {
+        return BeerField.fromProperty(source.trim())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown beer field: " + source));
+    }
+}
@@ -0,0 +1,31 @@
+package com.springframework.spring6restmvc.controllers;
+
+import com.springframework.spring6restmvc.model.InventoryUpdateRequest;
+import com.springframework.spring6restmvc.model.InventoryUpdateResult;
+import com.springframework.spring6restmvc.services.BeerInventoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static com.springframework.spring6restmvc.controllers.BeerController.BEER_PATH;
+
+@RequiredArgsConstructor
+@RestController
+@Profile("!inmemory")
+public class BeerInventoryController {
+    public static final String BEER_INVENTORY_PATH = BEER_PATH + "/inventory";
+
+    private final BeerInventoryService beerInventoryService;
+
+    // PATCH /api/v1/beer/inventory {"updates": [{"id": ..., "quantityOnHand": 12}, {"upc": ..., "quantityOnHand": 0}]}
+    // answers with one result per update, in the same order
+    @PatchMapping(BEER_INVENTORY_PATH)
+    public List<InventoryUpdateResult> updateInventory(@Validated @RequestBody InventoryUpdateRequest request) {
+        return beerInventoryService.updateInventory(request.getUpdates());
+    }
+}
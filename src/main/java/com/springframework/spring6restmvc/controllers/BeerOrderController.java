@@ -0,0 +1,71 @@
+package com.springframework.spring6restmvc.controllers;
+
+import com.springframework.spring6restmvc.model.BeerOrderCreateDTO;
+import com.springframework.spring6restmvc.model.BeerOrderDTO;
+import com.springframework.spring6restmvc.model.BeerOrderPage;
+import com.springframework.spring6restmvc.model.Expansion;
+import com.springframework.spring6restmvc.services.BeerOrderService;
+import com.springframework.spring6restmvc.services.OrderGraphService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@RestController
+@Profile("!inmemory")
+public class BeerOrderController {
+    public static final String BEER_ORDER_PATH = "/api/v1/order";
+    public static final String BEER_ORDER_PATH_ID = BEER_ORDER_PATH + "/{beerOrderId}";
+    public static final String BEER_ORDER_ALLOCATION_PATH = BEER_ORDER_PATH_ID + "/allocation";
+    public static final String CUSTOMER_ORDERS_PATH = CustomerController.CUSTOMER_PATH_ID + "/orders";
+
+    private final BeerOrderService beerOrderService;
+    private final OrderGraphService orderGraphService;
+
+    @PostMapping(BEER_ORDER_PATH)
+    public ResponseEntity createOrder(@Validated @RequestBody BeerOrderCreateDTO order) {
+        BeerOrderDTO savedOrder = beerOrderService.createOrder(order);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Location", BEER_ORDER_PATH + "/" + savedOrder.getId().toString());
+        return new ResponseEntity(headers, HttpStatus.CREATED);
+    }
+
+    // POST /api/v1/order/{beerOrderId}/allocation - allocates what the stock allows, the order shows the result
+    @PostMapping(BEER_ORDER_ALLOCATION_PATH)
+    public BeerOrderDTO allocateOrder(@PathVariable("beerOrderId") UUID beerOrderId) {
+        return beerOrderService.allocateOrder(beerOrderId).orElseThrow(NotFoundException::new);
+    }
+
+    @GetMapping(BEER_ORDER_PATH_ID)
+    public BeerOrderDTO getOrderById(@PathVariable("beerOrderId") UUID beerOrderId) {
+        return beerOrderService.getOrderById(beerOrderId).orElseThrow(NotFoundException::new);
+    }
+
+    // GET /api/v1/order/{beerOrderId}?expand=beers,categories - with the beers of the lines embedded
+    @GetMapping(value = BEER_ORDER_PATH_ID, params = "expand")
+    public BeerOrderDTO getOrderById(@PathVariable("beerOrderId") UUID beerOrderId,
+                                     @RequestParam Set<Expansion> expand) {
+        return orderGraphService.getOrder(beerOrderId, expand).orElseThrow(NotFoundException::new);
+    }
+
+    // GET /api/v1/customer/{customerId}/orders?before=...&beforeId=... - order history, see BeerOrderPage
+    @GetMapping(CUSTOMER_ORDERS_PATH)
+    public BeerOrderPage getCustomerOrders(@PathVariable("customerId") UUID customerId,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+                                           @RequestParam(required = false) UUID beforeId,
+                                           @RequestParam(required = false) Integer limit) {
+        return beerOrderService.getCustomerOrders(customerId, before, beforeId, limit)
+                .orElseThrow(NotFoundException::new);
+    }
+}
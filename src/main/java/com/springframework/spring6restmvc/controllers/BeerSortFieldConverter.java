@@ -0,0 +1,18 @@
+package com.springframework.spring6restmvc.controllers;
+
+import com.springframework.spring6restmvc.model.BeerSortField;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/** Binds sortBy=updateDate to BeerSortField constants by their property name.
+ * Properties that are not offered for sorting fail the conversion and are answered with 400 (Bad Request).
+ */
+@Component
+public class BeerSortFieldConverter implements Converter<String, BeerSortField> {
+
+    @Override
+    public BeerSortField convert(String source) {
+        return BeerSortField.fromProperty(source.trim())
+                .orElseThrow(() -> new IllegalArgumentException("Beers can't be sorted by: " + source));
+    }
+}
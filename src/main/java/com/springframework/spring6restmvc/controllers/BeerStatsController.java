@@ -0,0 +1,25 @@
+package com.springframework.spring6restmvc.controllers;
+
+import com.springframework.spring6restmvc.model.BeerStats;
+import com.springframework.spring6restmvc.stats.BeerStatsSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static com.springframework.spring6restmvc.controllers.BeerController.BEER_PATH;
+
+@RequiredArgsConstructor
+@RestController
+@Profile("!inmemory")
+public class BeerStatsController {
+    public static final String BEER_STATS_PATH = BEER_PATH + "/stats";
+
+    private final BeerStatsSnapshot beerStatsSnapshot;
+
+    // served from the in-memory snapshot, see BeerStatsSnapshot for how fresh it is
+    @GetMapping(BEER_STATS_PATH)
+    public BeerStats getBeerStats() {
+        return beerStatsSnapshot.getStats();
+    }
+}
@@ -1,6 +1,9 @@
 package com.springframework.spring6restmvc.controllers;
 
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.TransactionSystemException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -42,6 +45,17 @@ public class CustomErrorController {
         return responseEntity.build();
     }
 
+    /** A write that still lost an optimistic lock race after WriteRetry gave up, or that ran without it.
+     * Answered with 409 (Conflict) and a Retry-After of a second, by when the competing writes have usually
+     * gone through, instead of a 500 that clients retry at once.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    ResponseEntity handleWriteConflict(OptimisticLockingFailureException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     ResponseEntity handleBindErrors(MethodArgumentNotValidException exception) {
         List errorList = exception.getFieldErrors().stream()
@@ -1,14 +1,24 @@
 package com.springframework.spring6restmvc.controllers;
 
+import com.springframework.spring6restmvc.model.BatchGetRequest;
+import com.springframework.spring6restmvc.model.BatchGetResult;
 import com.springframework.spring6restmvc.model.CustomerDTO;
+import com.springframework.spring6restmvc.model.DeltaPage;
+import com.springframework.spring6restmvc.model.Expansion;
 import com.springframework.spring6restmvc.services.CustomerService;
+import com.springframework.spring6restmvc.services.OrderGraphService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @RequiredArgsConstructor
@@ -16,8 +26,11 @@ import java.util.UUID;
 public class CustomerController {
     public static final String CUSTOMER_PATH = "/api/v1/customer";
     public static final String CUSTOMER_PATH_ID = CUSTOMER_PATH + "/{customerId}";
+    public static final String CUSTOMER_BATCH_GET_PATH = CUSTOMER_PATH + "/batch-get";
 
     private final CustomerService customerService;
+    // there are no orders with the inmemory profile
+    private final ObjectProvider<OrderGraphService> orderGraphService;
 
     @PatchMapping(CUSTOMER_PATH_ID)
     public ResponseEntity patchCustomerById(@PathVariable("customerId") UUID customerId, @RequestBody CustomerDTO customer) {
@@ -55,8 +68,32 @@ public class CustomerController {
         return customerService.getAllCustomers();
     }
 
+    @GetMapping(value = CUSTOMER_PATH, params = "modifiedSince")
+    public DeltaPage<CustomerDTO> listCustomerChanges(@RequestParam
+                                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime modifiedSince,
+                                                      @RequestParam(required = false) UUID afterId,
+                                                      @RequestParam(required = false) Integer limit) {
+        return customerService.getCustomerChanges(modifiedSince, afterId, limit);
+    }
+
+    // POST /api/v1/customer/batch-get {"ids": [...]} - up to BatchGetRequest.MAX_IDS customers in one round trip
+    @PostMapping(CUSTOMER_BATCH_GET_PATH)
+    public BatchGetResult<CustomerDTO> getCustomersByIds(@Validated @RequestBody BatchGetRequest request) {
+        return customerService.getCustomersByIds(request.getIds());
+    }
+
     @GetMapping(CUSTOMER_PATH_ID)
     public CustomerDTO getCustomerById(@PathVariable("customerId") UUID id) {
         return customerService.getCustomerById(id).orElseThrow(NotFoundException::new);
     }
+
+    // GET /api/v1/customer/{customerId}?expand=orders,beers,categories - with the newest orders embedded
+    @GetMapping(value = CUSTOMER_PATH_ID, params = "expand")
+    public CustomerDTO getCustomerById(@PathVariable("customerId") UUID id, @RequestParam Set<Expansion> expand) {
+        OrderGraphService graphService = orderGraphService.getIfAvailable();
+        if (graphService == null) {
+            return getCustomerById(id);
+        }
+        return graphService.getCustomer(id, expand).orElseThrow(NotFoundException::new);
+    }
 }
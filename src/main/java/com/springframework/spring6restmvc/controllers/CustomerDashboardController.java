@@ -0,0 +1,28 @@
+package com.springframework.spring6restmvc.controllers;
+
+import com.springframework.spring6restmvc.model.CustomerDashboard;
+import com.springframework.spring6restmvc.services.CustomerDashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+import static com.springframework.spring6restmvc.controllers.CustomerController.CUSTOMER_PATH_ID;
+
+@RequiredArgsConstructor
+@RestController
+@Profile("!inmemory")
+public class CustomerDashboardController {
+    public static final String CUSTOMER_DASHBOARD_PATH = CUSTOMER_PATH_ID + "/dashboard";
+
+    private final CustomerDashboardService customerDashboardService;
+
+    // GET /api/v1/customer/{customerId}/dashboard - the whole customer page, see CustomerDashboard
+    @GetMapping(CUSTOMER_DASHBOARD_PATH)
+    public CustomerDashboard getDashboard(@PathVariable("customerId") UUID customerId) {
+        return customerDashboardService.getDashboard(customerId).orElseThrow(NotFoundException::new);
+    }
+}
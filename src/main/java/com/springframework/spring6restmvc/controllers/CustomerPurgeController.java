@@ -0,0 +1,43 @@
+package com.springframework.spring6restmvc.controllers;
+
+import com.springframework.spring6restmvc.model.CustomerPurgeStatus;
+import com.springframework.spring6restmvc.services.CustomerPurgeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+import static com.springframework.spring6restmvc.controllers.CustomerController.CUSTOMER_PATH;
+import static com.springframework.spring6restmvc.controllers.CustomerController.CUSTOMER_PATH_ID;
+
+@RequiredArgsConstructor
+@RestController
+@Profile("!inmemory")
+public class CustomerPurgeController {
+    public static final String CUSTOMER_PURGE_PATH = CUSTOMER_PATH_ID + "/purge";
+
+    private final CustomerPurgeService customerPurgeService;
+
+    // POST /api/v1/customer/{customerId}/purge - deletes the customer and all of its orders in the background,
+    // answers 202 with the progress, which GET on the Location follows
+    @PostMapping(CUSTOMER_PURGE_PATH)
+    public ResponseEntity<CustomerPurgeStatus> startPurge(@PathVariable("customerId") UUID customerId) {
+        CustomerPurgeStatus status = customerPurgeService.startPurge(customerId).orElseThrow(NotFoundException::new);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Location", CUSTOMER_PATH + "/" + customerId + "/purge");
+        return new ResponseEntity<>(status, headers, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping(CUSTOMER_PURGE_PATH)
+    public CustomerPurgeStatus getPurge(@PathVariable("customerId") UUID customerId) {
+        return customerPurgeService.getPurge(customerId).orElseThrow(NotFoundException::new);
+    }
+}
@@ -0,0 +1,16 @@
+package com.springframework.spring6restmvc.controllers;
+
+import com.springframework.spring6restmvc.model.Expansion;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/** Binds expand=beers,categories to Expansion constants; an unknown name is answered with 400 (Bad Request). */
+@Component
+public class ExpansionConverter implements Converter<String, Expansion> {
+
+    @Override
+    public Expansion convert(String source) {
+        return Expansion.fromProperty(source.trim())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown expansion: " + source));
+    }
+}
@@ -0,0 +1,12 @@
+package com.springframework.spring6restmvc.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid Report Range")
+public class InvalidReportRangeException extends RuntimeException {
+
+    public InvalidReportRangeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,43 @@
+package com.springframework.spring6restmvc.controllers;
+
+import com.springframework.spring6restmvc.model.StyleSalesDay;
+import com.springframework.spring6restmvc.stats.SalesByStyleSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static com.springframework.spring6restmvc.controllers.BeerOrderController.BEER_ORDER_PATH;
+
+@RequiredArgsConstructor
+@RestController
+@Profile("!inmemory")
+public class SalesReportController {
+    public static final String SALES_BY_STYLE_PATH = BEER_ORDER_PATH + "/sales-by-style";
+
+    static final int DEFAULT_DAYS = 30;
+    static final int MAX_DAYS = 366;
+
+    private final SalesByStyleSummary salesByStyleSummary;
+
+    // GET /api/v1/order/sales-by-style?from=2025-10-01&to=2025-10-31 - both days included, the last
+    // DEFAULT_DAYS up to today by default; read from the summary table, at most one row per style and day
+    @GetMapping(SALES_BY_STYLE_PATH)
+    public List<StyleSalesDay> getSalesByStyle(@RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : last.minusDays(DEFAULT_DAYS - 1);
+        if (first.isAfter(last) || ChronoUnit.DAYS.between(first, last) >= MAX_DAYS) {
+            throw new InvalidReportRangeException("Report range must cover 1 to " + MAX_DAYS + " days");
+        }
+        return salesByStyleSummary.getSales(first, last);
+    }
+}
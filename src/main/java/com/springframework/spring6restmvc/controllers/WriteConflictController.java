@@ -0,0 +1,25 @@
+package com.springframework.spring6restmvc.controllers;
+
+import com.springframework.spring6restmvc.model.WriteConflictStats;
+import com.springframework.spring6restmvc.services.WriteRetry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RequiredArgsConstructor
+@RestController
+@Profile("!inmemory")
+public class WriteConflictController {
+    public static final String WRITE_CONFLICTS_PATH = "/api/v1/write-conflicts";
+
+    private final WriteRetry writeRetry;
+
+    // GET /api/v1/write-conflicts - e.g. {"beer": {"writes": 120, "conflicts": 9, "retries": 9, "exhausted": 0}}
+    @GetMapping(WRITE_CONFLICTS_PATH)
+    public Map<String, WriteConflictStats> getWriteConflicts() {
+        return writeRetry.getStats();
+    }
+}
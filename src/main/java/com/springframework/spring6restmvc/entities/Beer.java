@@ -25,6 +25,19 @@ import java.util.UUID;
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
+// listings always sort by beer_name, so the style and name indexes also deliver the rows in page order
+@Table(indexes = {
+        @Index(name = "beer_style_name_idx", columnList = "beer_style, beer_name, id"),
+        @Index(name = "beer_name_idx", columnList = "beer_name, id"),
+        @Index(name = "beer_update_date_id_idx", columnList = "update_date, id"),
+        // range and equality filters of the listing, see BeerFilter
+        @Index(name = "beer_abv_idx", columnList = "abv, id"),
+        @Index(name = "beer_ibu_idx", columnList = "ibu, id"),
+        @Index(name = "beer_brewery_idx", columnList = "brewery_id, id"),
+        @Index(name = "beer_state_city_idx", columnList = "state, city, id"),
+        // bulk inventory updates by upc, see BeerInventoryRepository
+        @Index(name = "beer_upc_idx", columnList = "upc")
+})
 public class Beer {
 
     @Id
@@ -58,6 +71,27 @@ public class Beer {
     @NotNull
     private BigDecimal price;
 
+    // alcohol by volume in percent, e.g. 6.50
+    @Column(precision = 4, scale = 2)
+    private BigDecimal abv;
+
+    // international bitterness units
+    private Integer ibu;
+
+    private Integer breweryId;
+
+    @Column(precision = 4, scale = 1)
+    private BigDecimal ounces;
+
+    @Size(max = 50)
+    @Column(length = 50)
+    private String city;
+
+    // two letter US state code
+    @Size(max = 2)
+    @Column(length = 2)
+    private String state;
+
     @CreationTimestamp
     private LocalDateTime createdDate;
 
@@ -74,7 +108,8 @@ public class Beer {
     @ManyToMany
     @JoinTable(name = "beer_category",
             joinColumns = @JoinColumn(name = "beer_id"),
-            inverseJoinColumns = @JoinColumn(name = "category_id"))
+            inverseJoinColumns = @JoinColumn(name = "category_id"),
+            indexes = @Index(name = "beer_category_category_idx", columnList = "category_id, beer_id"))
     private Set<Category> categories = new HashSet<>();
 
     public void addCategory(Category category) {
@@ -1,8 +1,11 @@
 package com.springframework.spring6restmvc.entities;
 
 import jakarta.persistence.*;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.persistence.CascadeType;
 import lombok.*;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.*;
 import org.hibernate.type.SqlTypes;
 
@@ -15,6 +18,10 @@ import java.util.UUID;
 @Entity
 @NoArgsConstructor
 @Builder
+@Table(indexes = {
+        @Index(name = "beer_order_customer_created_idx", columnList = "customer_id, created_date, id"),
+        @Index(name = "beer_order_created_idx", columnList = "created_date")
+})
 public class BeerOrder {
 
     public BeerOrder(UUID id, Long version, Timestamp createdDate, Timestamp lastModifiedDate, String customerRef, Customer customer, Set<BeerOrderLine> beerOrderLines, BeerOrderShipment beerOrderShipment) {
@@ -54,12 +61,16 @@ public class BeerOrder {
     @ManyToOne
     private Customer customer;
 
+    // The inverse side is only kept in step when it is already loaded: initializing it would read every
+    // order of the customer just to place a new one.
     public void setCustomer(Customer customer) {
         this.customer = customer;
-        customer.getBeerOrders().add(this);
+        if (customer != null && Hibernate.isInitialized(customer.getBeerOrders())) {
+            customer.getBeerOrders().add(this);
+        }
     }
 
-    @OneToMany(mappedBy = "beerOrder")
+    @OneToMany(mappedBy = "beerOrder", cascade = CascadeType.PERSIST) // lines are saved with their order
     private Set<BeerOrderLine> beerOrderLines;
 
     @OneToOne(cascade = CascadeType.PERSIST) // When we save BeerOrder, we also will save BeerOrderShipment (cascade = PERSIST)
@@ -67,7 +78,9 @@ public class BeerOrder {
 
     public void setBeerOrderShipment(BeerOrderShipment beerOrderShipment) {
         this.beerOrderShipment = beerOrderShipment;
-        beerOrderShipment.setBeerOrder(this);
+        if (beerOrderShipment != null) {
+            beerOrderShipment.setBeerOrder(this);
+        }
     }
 
 }
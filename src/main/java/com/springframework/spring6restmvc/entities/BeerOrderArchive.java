@@ -0,0 +1,39 @@
+package com.springframework.spring6restmvc.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// An archived order: the BeerOrderDTO it was read as, serialized by OrderArchive
+@Getter
+@Setter
+@Builder
+@Entity
+@Table(indexes = @Index(name = "beer_order_archive_customer_idx", columnList = "customer_id"))
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerOrderArchive {
+
+    // the id of the order, so that it can be looked up by the same id
+    @Id
+    @JdbcTypeCode(SqlTypes.CHAR)
+    @Column(length = 36, columnDefinition = "varchar(36)", updatable = false, nullable = false)
+    private UUID id;
+
+    @JdbcTypeCode(SqlTypes.CHAR)
+    @Column(length = 36, columnDefinition = "varchar(36)")
+    private UUID customerId;
+
+    private LocalDateTime createdDate;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedDate;
+
+    @Lob
+    @Column(nullable = false)
+    private String document;
+}
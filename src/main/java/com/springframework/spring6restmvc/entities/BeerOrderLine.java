@@ -1,6 +1,8 @@
 package com.springframework.spring6restmvc.entities;
 
 import jakarta.persistence.*;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.*;
 import org.hibernate.annotations.*;
 import org.hibernate.type.SqlTypes;
@@ -14,6 +16,10 @@ import java.util.UUID;
 @AllArgsConstructor
 @Entity
 @Builder
+@Table(indexes = {
+        @Index(name = "beer_order_line_order_idx", columnList = "beer_order_id"),
+        @Index(name = "beer_order_line_beer_idx", columnList = "beer_id")
+})
 public class BeerOrderLine {
 
     @Id
@@ -43,6 +49,9 @@ public class BeerOrderLine {
     @ManyToOne
     private Beer beer;
 
+    @Builder.Default
     private Integer orderQuantity = 0;
+
+    @Builder.Default
     private Integer quantityAllocated = 0;
 }
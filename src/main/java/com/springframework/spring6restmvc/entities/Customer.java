@@ -2,7 +2,9 @@ package com.springframework.spring6restmvc.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.type.SqlTypes;
 
@@ -17,6 +19,7 @@ import java.util.UUID;
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(indexes = @Index(name = "customer_update_date_id_idx", columnList = "update_date, id"))
 public class Customer {
 
     @Id
@@ -32,7 +35,11 @@ public class Customer {
 
     @Version
     private Integer version; // Locking strategy that is used by hibernate
+
+    @CreationTimestamp
     private LocalDateTime createdDate;
+
+    @UpdateTimestamp
     private LocalDateTime updateDate;
 
     @Builder.Default // to ensure that the field will be initialized with an empty set when lombok calls the builder
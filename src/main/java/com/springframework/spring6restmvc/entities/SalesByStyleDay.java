@@ -0,0 +1,27 @@
+package com.springframework.spring6restmvc.entities;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One row of the sales summary. It is written and read with plain SQL by SalesByStyleRepository and only
+// mapped so that the table is generated and validated together with the others.
+@Getter
+@Setter
+@Builder
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalesByStyleDay {
+
+    @EmbeddedId
+    private SalesByStyleDayId id;
+
+    private long unitsOrdered;
+
+    private long lineCount;
+}
@@ -0,0 +1,24 @@
+package com.springframework.spring6restmvc.entities;
+
+import com.springframework.spring6restmvc.model.BeerStyle;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesByStyleDayId implements Serializable {
+
+    private LocalDate salesDate;
+
+    @JdbcTypeCode(SqlTypes.SMALLINT) // same representation as beer.beer_style
+    private BeerStyle beerStyle;
+}
@@ -0,0 +1,42 @@
+package com.springframework.spring6restmvc.entities;
+
+import com.springframework.spring6restmvc.model.TombstoneType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UuidGenerator;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Marks a deleted beer or customer so that delta sync clients learn about the removal
+@Getter
+@Setter
+@Builder
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(indexes = @Index(name = "tombstone_type_deleted_idx", columnList = "entity_type, deleted_date, entity_id"))
+public class Tombstone {
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @UuidGenerator
+    @JdbcTypeCode(SqlTypes.CHAR)
+    @Column(length = 36, columnDefinition = "varchar(36)", updatable = false, nullable = false)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR) // plain varchar instead of the native MySQL enum type
+    @Column(length = 20, nullable = false)
+    private TombstoneType entityType;
+
+    @JdbcTypeCode(SqlTypes.CHAR)
+    @Column(length = 36, columnDefinition = "varchar(36)", nullable = false)
+    private UUID entityId;
+
+    @CreationTimestamp
+    private LocalDateTime deletedDate;
+}
@@ -0,0 +1,17 @@
+package com.springframework.spring6restmvc.events;
+
+import com.springframework.spring6restmvc.model.BeerDTO;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.UUID;
+
+/** One element of the change feed; sequence is also the SSE event id. */
+@Value
+@Builder
+public class BeerChangeEntry {
+    long sequence;
+    BeerChangeType type;
+    UUID beerId;
+    BeerDTO beer;
+}
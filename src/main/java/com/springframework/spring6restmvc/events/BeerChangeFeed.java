@@ -0,0 +1,178 @@
+package com.springframework.spring6restmvc.events;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/** Server-sent change feed for the beer catalog.
+ * Every change is appended to a bounded ring buffer and numbered; the number is the SSE event id,
+ * so a reconnecting client resumes with Last-Event-ID. Writers only take the short buffer lock and wake
+ * the subscribers up, sending happens on one virtual thread per subscriber, so a slow client never
+ * holds up a write. A subscriber that was away reads everything after its cursor at once and only gets
+ * the latest entry per beer; one that fell out of the buffer receives a "reset" event and has to resync.
+ * So does one that resumes with an id the feed has not reached, which is what an id from before a restart
+ * looks like once the numbering has started again at 1.
+ */
+@Slf4j
+@Component
+public class BeerChangeFeed {
+
+    public static final String RESET_EVENT = "reset";
+
+    private final BeerChangeEntry[] ring;
+    private long nextSequence = 1; // guarded by ring
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final long emitterTimeoutMillis;
+    private final long heartbeatMillis;
+
+    public BeerChangeFeed(@Value("${beer.changes.buffer-size:1024}") int bufferSize,
+                          @Value("${beer.changes.emitter-timeout:PT30M}") Duration emitterTimeout,
+                          @Value("${beer.changes.heartbeat:PT15S}") Duration heartbeat) {
+        this.ring = new BeerChangeEntry[bufferSize];
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.heartbeatMillis = heartbeat.toMillis();
+    }
+
+    // Runs after the writing transaction committed; BeerServiceJPA writes outside of a
+    // surrounding transaction are delivered straight away (fallbackExecution).
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        synchronized (ring) {
+            long sequence = nextSequence++;
+            ring[(int) (sequence % ring.length)] = BeerChangeEntry.builder()
+                    .sequence(sequence)
+                    .type(event.getType())
+                    .beerId(event.getBeerId())
+                    .beer(event.getBeer())
+                    .build();
+        }
+        subscribers.forEach(Subscriber::signal);
+    }
+
+    /** Opens a stream starting after lastEventId, or at the current end of the feed when it is null. */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        long cursor;
+        synchronized (ring) {
+            cursor = lastEventId != null ? lastEventId : nextSequence - 1;
+        }
+        Subscriber subscriber = new Subscriber(emitter, cursor);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        subscribers.add(subscriber);
+        Thread.ofVirtual().name("beer-changes-subscriber").start(subscriber);
+        return emitter;
+    }
+
+    Batch readAfter(long cursor) {
+        List<BeerChangeEntry> entries = new ArrayList<>();
+        boolean missed;
+        long lastSequence;
+        synchronized (ring) {
+            long oldest = Math.max(1, nextSequence - ring.length);
+            boolean ahead = cursor >= nextSequence;
+            missed = ahead || cursor + 1 < oldest;
+            // a cursor ahead of the feed cannot be matched to any entry, the client starts over at the end
+            long from = ahead ? nextSequence : Math.max(oldest, cursor + 1);
+            for (long sequence = from; sequence < nextSequence; sequence++) {
+                entries.add(ring[(int) (sequence % ring.length)]);
+            }
+            lastSequence = nextSequence - 1;
+        }
+        return new Batch(coalesce(entries), lastSequence, missed);
+    }
+
+    // keeps the latest entry per beer, in the order of those latest entries
+    private static List<BeerChangeEntry> coalesce(List<BeerChangeEntry> entries) {
+        Map<UUID, BeerChangeEntry> latest = new LinkedHashMap<>();
+        for (BeerChangeEntry entry : entries) {
+            latest.remove(entry.getBeerId());
+            latest.put(entry.getBeerId(), entry);
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    @PreDestroy
+    void completeAll() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    record Batch(List<BeerChangeEntry> entries, long lastSequence, boolean missed) {
+    }
+
+    private final class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+        private final Semaphore wakeUp = new Semaphore(0);
+        private volatile boolean closed;
+        private long cursor;
+
+        Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        void signal() {
+            wakeUp.release();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            wakeUp.release();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    Batch batch = readAfter(cursor);
+                    if (batch.missed()) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(batch.lastSequence()))
+                                .name(RESET_EVENT)
+                                .data("resync"));
+                    }
+                    for (BeerChangeEntry entry : batch.entries()) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(entry.getSequence()))
+                                .name(entry.getType().name())
+                                .data(entry, MediaType.APPLICATION_JSON));
+                    }
+                    cursor = batch.lastSequence();
+
+                    if (batch.entries().isEmpty() && !batch.missed()) {
+                        if (!wakeUp.tryAcquire(heartbeatMillis, TimeUnit.MILLISECONDS)) {
+                            emitter.send(SseEmitter.event().comment("heartbeat"));
+                        }
+                        wakeUp.drainPermits();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Beer change subscriber disconnected: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+    }
+}
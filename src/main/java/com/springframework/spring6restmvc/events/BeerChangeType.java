@@ -0,0 +1,5 @@
+package com.springframework.spring6restmvc.events;
+
+public enum BeerChangeType {
+    CREATED, UPDATED, PATCHED, DELETED
+}
@@ -0,0 +1,21 @@
+package com.springframework.spring6restmvc.events;
+
+import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.UUID;
+
+/** Published by BeerServiceJPA for every successful write.
+ * beer holds the state after the change; for DELETED it is the state that was removed.
+ * previousBeerStyle is the style before the change, null for CREATED.
+ */
+@Value
+@Builder
+public class BeerChangedEvent {
+    BeerChangeType type;
+    UUID beerId;
+    BeerDTO beer;
+    BeerStyle previousBeerStyle;
+}
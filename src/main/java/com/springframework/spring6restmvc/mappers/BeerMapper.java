@@ -2,12 +2,20 @@ package com.springframework.spring6restmvc.mappers;
 
 import com.springframework.spring6restmvc.entities.Beer;
 import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.CategoryDTO;
+import com.springframework.spring6restmvc.repositories.BeerCategoryRow;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper
 public interface BeerMapper {
 
+    @Mapping(target = "categories", ignore = true)
     Beer beerDtoToBeer(BeerDTO dto);
 
+    // categories are lazy, they are only read for expand=categories
+    @Mapping(target = "categories", ignore = true)
     BeerDTO beerToBeerDto(Beer beer);
+
+    CategoryDTO beerCategoryRowToCategoryDto(BeerCategoryRow row);
 }
@@ -0,0 +1,36 @@
+package com.springframework.spring6restmvc.mappers;
+
+import com.springframework.spring6restmvc.entities.BeerOrder;
+import com.springframework.spring6restmvc.entities.BeerOrderLine;
+import com.springframework.spring6restmvc.model.BeerOrderDTO;
+import com.springframework.spring6restmvc.model.BeerOrderLineDTO;
+import com.springframework.spring6restmvc.repositories.BeerOrderLineRow;
+import com.springframework.spring6restmvc.repositories.BeerOrderRow;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@Mapper
+public interface BeerOrderMapper {
+
+    @Mapping(target = "customerId", source = "customer.id")
+    @Mapping(target = "trackingNumber", source = "beerOrderShipment.trackingNumber")
+    BeerOrderDTO beerOrderToBeerOrderDto(BeerOrder beerOrder);
+
+    @Mapping(target = "beerId", source = "beer.id")
+    @Mapping(target = "beerName", source = "beer.beerName")
+    @Mapping(target = "beer", ignore = true)
+    BeerOrderLineDTO beerOrderLineToBeerOrderLineDto(BeerOrderLine beerOrderLine);
+
+    @Mapping(target = "beerOrderLines", ignore = true)
+    BeerOrderDTO beerOrderRowToBeerOrderDto(BeerOrderRow row);
+
+    @Mapping(target = "beer", ignore = true)
+    BeerOrderLineDTO beerOrderLineRowToBeerOrderLineDto(BeerOrderLineRow row);
+
+    default LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
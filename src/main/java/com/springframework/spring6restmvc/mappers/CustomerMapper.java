@@ -3,11 +3,15 @@ package com.springframework.spring6restmvc.mappers;
 import com.springframework.spring6restmvc.entities.Customer;
 import com.springframework.spring6restmvc.model.CustomerDTO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper
 public interface CustomerMapper {
 
+    @Mapping(target = "beerOrders", ignore = true)
     Customer customerDtoToCustomer(CustomerDTO dto);
 
+    // the orders are unbounded, expand=orders reads the newest ones instead
+    @Mapping(target = "beerOrders", ignore = true)
     CustomerDTO customerToCustomerDto(Customer customer);
 }
@@ -0,0 +1,43 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/** Answer to a batch get.
+ * found maps every requested id that exists to its row, in request order; notFound lists the ids that
+ * don't exist, so a missing row is never confused with one that was not asked for.
+ */
+@Data
+@Builder
+public class BatchGetResult<T> {
+    private Map<UUID, T> found;
+    private List<UUID> notFound;
+
+    public static <T> BatchGetResult<T> of(Collection<UUID> ids, Collection<T> rows, Function<T, UUID> idOf) {
+        Map<UUID, T> byId = new LinkedHashMap<>();
+        rows.forEach(row -> byId.put(idOf.apply(row), row));
+
+        Map<UUID, T> found = new LinkedHashMap<>();
+        List<UUID> notFound = new ArrayList<>();
+        for (UUID id : ids) {
+            T row = byId.get(id);
+            if (row != null) {
+                found.put(id, row);
+            } else if (!notFound.contains(id)) {
+                notFound.add(id);
+            }
+        }
+        return BatchGetResult.<T>builder()
+                .found(found)
+                .notFound(notFound)
+                .build();
+    }
+}
@@ -1,15 +1,20 @@
 package com.springframework.spring6restmvc.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import jakarta.validation.groups.Default;
 import lombok.Builder;
 import lombok.Data;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
-@Builder
+@Builder(toBuilder = true)
 @Data
 public class BeerDTO {
     private UUID id;
@@ -29,6 +34,26 @@ public class BeerDTO {
 
     @NotNull
     private BigDecimal price;
+    private BigDecimal abv;
+    private Integer ibu;
+    private Integer breweryId;
+    private BigDecimal ounces;
+
+    @Size(max = 50, groups = {Default.class, Patch.class})
+    private String city;
+
+    // two letter US state code, stored in upper case
+    @Pattern(regexp = "[A-Za-z]{2}", groups = {Default.class, Patch.class})
+    private String state;
+
     private LocalDateTime createdDate;
     private LocalDateTime updateDate;
+
+    // only read, and only filled in by expand=categories
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<CategoryDTO> categories;
+
+    // the constraints a PATCH is checked against: it sends only the fields it changes
+    public interface Patch {
+    }
 }
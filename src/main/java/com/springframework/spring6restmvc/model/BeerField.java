@@ -0,0 +1,48 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+
+/** Fields of BeerDTO that a client can ask for with the fields= parameter.
+ * The property name is used both in the request and as the JSON key,
+ * the accessor lets non-database implementations project a BeerDTO in the same way.
+ */
+@Getter
+public enum BeerField {
+    ID("id", BeerDTO::getId),
+    VERSION("version", BeerDTO::getVersion),
+    BEER_NAME("beerName", BeerDTO::getBeerName),
+    BEER_STYLE("beerStyle", BeerDTO::getBeerStyle),
+    UPC("upc", BeerDTO::getUpc),
+    QUANTITY_ON_HAND("quantityOnHand", BeerDTO::getQuantityOnHand),
+    PRICE("price", BeerDTO::getPrice),
+    ABV("abv", BeerDTO::getAbv),
+    IBU("ibu", BeerDTO::getIbu),
+    BREWERY_ID("breweryId", BeerDTO::getBreweryId),
+    OUNCES("ounces", BeerDTO::getOunces),
+    CITY("city", BeerDTO::getCity),
+    STATE("state", BeerDTO::getState),
+    CREATED_DATE("createdDate", BeerDTO::getCreatedDate),
+    UPDATE_DATE("updateDate", BeerDTO::getUpdateDate);
+
+    private final String property;
+    private final Function<BeerDTO, Object> accessor;
+
+    BeerField(String property, Function<BeerDTO, Object> accessor) {
+        this.property = property;
+        this.accessor = accessor;
+    }
+
+    public Object read(BeerDTO beer) {
+        return accessor.apply(beer);
+    }
+
+    public static Optional<BeerField> fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equals(property))
+                .findFirst();
+    }
+}
@@ -0,0 +1,31 @@
+package com.springframework.spring6restmvc.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerOrderCreateDTO {
+
+    public static final int MAX_LINES = 500;
+
+    @NotNull
+    private UUID customerId;
+
+    private String customerRef;
+
+    @NotEmpty
+    @Size(max = MAX_LINES)
+    private List<@Valid BeerOrderLineCreateDTO> beerOrderLines;
+}
@@ -0,0 +1,25 @@
+package com.springframework.spring6restmvc.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerOrderLineDTO {
+    private UUID id;
+    private UUID beerId;
+    private String beerName;
+    private Integer orderQuantity;
+    private Integer quantityAllocated;
+
+    // only filled in by expand=beers
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BeerDTO beer;
+}
@@ -0,0 +1,21 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/** One page of a customer's order history, newest orders first.
+ * The next page starts after the last order of this one: the client sends nextBefore/nextBeforeId back as
+ * before/beforeId while hasMore is true. New orders don't shift the pages the way offsets would.
+ */
+@Data
+@Builder
+public class BeerOrderPage {
+    private List<BeerOrderDTO> orders;
+    private LocalDateTime nextBefore;
+    private UUID nextBeforeId;
+    private boolean hasMore;
+}
@@ -0,0 +1,36 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/** Filters of a beer listing, bound from the query parameters of the same name.
+ * Every filter that is set has to match; the ranges are inclusive and may be open on either side.
+ * abv is in percent, state is the two letter code and city has to match exactly.
+ * sortBy defaults to beerName.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerSearchCriteria {
+    private String beerName;
+    private BeerStyle beerStyle;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer minQuantityOnHand;
+    private Integer maxQuantityOnHand;
+    private BigDecimal minAbv;
+    private BigDecimal maxAbv;
+    private Integer minIbu;
+    private Integer maxIbu;
+    private Integer breweryId;
+    private String city;
+    private String state;
+    private UUID categoryId;
+    private BeerSortField sortBy;
+}
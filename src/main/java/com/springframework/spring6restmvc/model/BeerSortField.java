@@ -0,0 +1,28 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/** Properties a beer listing can be sorted by with the sortBy= parameter.
+ * Only columns that lead an index are offered, so the database can return a page in index order
+ * instead of sorting every matching row first. Rows with the same value are ordered by id.
+ */
+@Getter
+public enum BeerSortField {
+    BEER_NAME("beerName"),
+    UPDATE_DATE("updateDate");
+
+    private final String property;
+
+    BeerSortField(String property) {
+        this.property = property;
+    }
+
+    public static Optional<BeerSortField> fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equals(property))
+                .findFirst();
+    }
+}
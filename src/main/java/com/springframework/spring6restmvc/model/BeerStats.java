@@ -0,0 +1,16 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Catalog statistics as of refreshedAt; styles holds one entry per style that has beers, in BeerStyle order. */
+@Data
+@Builder
+public class BeerStats {
+    private LocalDateTime refreshedAt;
+    private BeerStyleStats total;
+    private List<BeerStyleStats> styles;
+}
@@ -0,0 +1,19 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/** Aggregates over a group of beers; beerStyle is null for the group of all beers.
+ * averageAbv only takes the beers with a known abv into account and is null when there are none.
+ */
+@Data
+@Builder
+public class BeerStyleStats {
+    private BeerStyle beerStyle;
+    private long count;
+    private BigDecimal averagePrice;
+    private long totalQuantityOnHand;
+    private BigDecimal averageAbv;
+}
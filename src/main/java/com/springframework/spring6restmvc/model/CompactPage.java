@@ -0,0 +1,33 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/** Lean page envelope for list endpoints.
+ * Serializing a Spring Page directly also writes the pageable and sort objects and a handful of
+ * derived flags (first, last, empty, numberOfElements) on every response; clients only need these values.
+ * pageNumber is 1-based, the same as the pageNumber request parameter; exact is false when totalElements
+ * is an estimate, see CountedPage.
+ */
+@Data
+@Builder
+public class CompactPage<T> {
+    private List<T> content;
+    private int pageNumber;
+    private int pageSize;
+    private long totalElements;
+    private boolean exact;
+
+    public static <T> CompactPage<T> of(Page<T> page) {
+        return CompactPage.<T>builder()
+                .content(page.getContent())
+                .pageNumber(page.getNumber() + 1)
+                .pageSize(page.getSize())
+                .totalElements(page.getTotalElements())
+                .exact(!(page instanceof CountedPage<?> counted) || counted.isExact())
+                .build();
+    }
+}
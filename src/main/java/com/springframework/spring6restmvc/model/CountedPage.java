@@ -0,0 +1,32 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.EqualsAndHashCode;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/** A Page that tells whether its total was counted.
+ * exact is false when totalElements is an estimate, which large unfiltered or style-only listings use
+ * instead of counting the whole table on every request.
+ */
+@EqualsAndHashCode(callSuper = true)
+public class CountedPage<T> extends PageImpl<T> {
+
+    private final boolean exact;
+
+    public CountedPage(List<T> content, Pageable pageable, long total, boolean exact) {
+        super(content, pageable, total);
+        this.exact = exact;
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    @Override
+    public <U> CountedPage<U> map(Function<? super T, ? extends U> converter) {
+        return new CountedPage<>(getConvertedContent(converter), getPageable(), getTotalElements(), exact);
+    }
+}
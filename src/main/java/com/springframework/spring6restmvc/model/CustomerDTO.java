@@ -1,9 +1,11 @@
 package com.springframework.spring6restmvc.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -14,4 +16,8 @@ public class CustomerDTO {
     private Integer version;
     private LocalDateTime createdDate;
     private LocalDateTime updateDate;
+
+    // only read, and only filled in by expand=orders
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<BeerOrderDTO> beerOrders;
 }
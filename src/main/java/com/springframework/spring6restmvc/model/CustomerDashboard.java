@@ -0,0 +1,20 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/** Everything the customer page shows, read in one request.
+ * The sections are read independently; one that fails or exceeds its time budget is left null and its
+ * name is listed in unavailable, so the client can render the rest and fetch that section on its own.
+ */
+@Data
+@Builder
+public class CustomerDashboard {
+    private CustomerDTO customer;
+    private List<BeerOrderDTO> recentOrders;
+    private List<OpenShipmentDTO> openShipments;
+    private CustomerOrderTotals totals;
+    private List<String> unavailable;
+}
@@ -0,0 +1,15 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/** Lifetime totals over all orders of a customer; the quantities add up the order lines. */
+@Data
+@Builder
+@AllArgsConstructor
+public class CustomerOrderTotals {
+    private long orderCount;
+    private long orderedQuantity;
+    private long allocatedQuantity;
+}
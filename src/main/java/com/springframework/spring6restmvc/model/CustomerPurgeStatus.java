@@ -0,0 +1,23 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** Progress of a customer purge; totalOrders is the number of orders the customer had when it started. */
+@Data
+@Builder
+public class CustomerPurgeStatus {
+    private UUID customerId;
+    private PurgeState state;
+    private long totalOrders;
+    private long ordersDeleted;
+    private long linesDeleted;
+    private long shipmentsDeleted;
+    private long archivedOrdersDeleted;
+    private LocalDateTime startedDate;
+    private LocalDateTime finishedDate;
+    private String error;
+}
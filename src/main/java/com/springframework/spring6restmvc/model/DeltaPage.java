@@ -0,0 +1,23 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/** One step of an incremental sync.
+ * changed holds rows created or modified after the watermark, deleted the ids removed after it, both in
+ * (updateDate, id) order. The client stores nextModifiedSince/nextAfterId and sends them back as
+ * modifiedSince/afterId; while hasMore is true it can request the next step straight away.
+ */
+@Data
+@Builder
+public class DeltaPage<T> {
+    private List<T> changed;
+    private List<UUID> deleted;
+    private LocalDateTime nextModifiedSince;
+    private UUID nextAfterId;
+    private boolean hasMore;
+}
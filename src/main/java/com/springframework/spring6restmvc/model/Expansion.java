@@ -0,0 +1,29 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/** Related data that a client can have embedded with the expand= parameter of the order and customer reads.
+ * orders embeds a customer's newest orders with their lines, beers the full beer of every order line and
+ * categories the categories of those beers; each one implies the ones before it.
+ */
+@Getter
+public enum Expansion {
+    ORDERS("orders"),
+    BEERS("beers"),
+    CATEGORIES("categories");
+
+    private final String property;
+
+    Expansion(String property) {
+        this.property = property;
+    }
+
+    public static Optional<Expansion> fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(expansion -> expansion.property.equals(property))
+                .findFirst();
+    }
+}
@@ -0,0 +1,19 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// new stock level of one beer, identified either by id or by upc
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryUpdate {
+    private UUID id;
+    private String upc;
+    private Integer quantityOnHand;
+}
@@ -0,0 +1,24 @@
+package com.springframework.spring6restmvc.model;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// single rows are checked one by one and reported in InventoryUpdateResult, so they carry no constraints here
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryUpdateRequest {
+
+    public static final int MAX_UPDATES = 10_000;
+
+    @NotEmpty
+    @Size(max = MAX_UPDATES)
+    private List<InventoryUpdate> updates;
+}
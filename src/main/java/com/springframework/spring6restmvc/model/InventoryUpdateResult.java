@@ -0,0 +1,16 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+// outcome of one InventoryUpdate; a upc can match several beers, updatedRows tells how many
+@Data
+@Builder
+public class InventoryUpdateResult {
+    private UUID id;
+    private String upc;
+    private InventoryUpdateStatus status;
+    private int updatedRows;
+}
@@ -0,0 +1,10 @@
+package com.springframework.spring6restmvc.model;
+
+public enum InventoryUpdateStatus {
+    UPDATED,
+    NOT_FOUND,
+    // neither or both of id and upc given, or a missing or negative quantity
+    INVALID,
+    // the chunk the row belonged to was rolled back
+    FAILED
+}
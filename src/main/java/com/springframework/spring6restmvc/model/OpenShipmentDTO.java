@@ -0,0 +1,19 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** A shipment that has no tracking number yet, with the order it belongs to. */
+@Data
+@Builder
+@AllArgsConstructor
+public class OpenShipmentDTO {
+    private UUID id;
+    private UUID beerOrderId;
+    private String customerRef;
+    private LocalDateTime createdDate;
+}
@@ -0,0 +1,8 @@
+package com.springframework.spring6restmvc.model;
+
+public enum PurgeState {
+    RUNNING,
+    COMPLETED,
+    // stopped by an error or a shutdown; what was deleted stays deleted and a new purge carries on
+    FAILED
+}
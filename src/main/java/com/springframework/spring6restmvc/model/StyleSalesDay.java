@@ -0,0 +1,16 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/** Units ordered of one beer style on one day, and the number of order lines they came from. */
+@Data
+@Builder
+public class StyleSalesDay {
+    private LocalDate salesDate;
+    private BeerStyle beerStyle;
+    private long unitsOrdered;
+    private long lineCount;
+}
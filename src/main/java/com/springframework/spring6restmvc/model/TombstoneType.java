@@ -0,0 +1,5 @@
+package com.springframework.spring6restmvc.model;
+
+public enum TombstoneType {
+    BEER, CUSTOMER
+}
@@ -0,0 +1,14 @@
+package com.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+// counted since the application started; conflicts = retries + exhausted
+@Data
+@Builder
+public class WriteConflictStats {
+    private long writes;
+    private long conflicts;
+    private long retries;
+    private long exhausted;
+}
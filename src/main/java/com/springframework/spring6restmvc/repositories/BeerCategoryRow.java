@@ -0,0 +1,12 @@
+package com.springframework.spring6restmvc.repositories;
+
+import java.util.UUID;
+
+/** A category of a beer, see CategoryRepository.findByBeerIdIn. */
+public interface BeerCategoryRow {
+    UUID getBeerId();
+
+    UUID getId();
+
+    String getDescription();
+}
@@ -0,0 +1,87 @@
+package com.springframework.spring6restmvc.repositories;
+
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/** The filters of a beer search.
+ * Each one is a Specification over a named parameter rather than over the requested value, so the query for
+ * a combination of filters can be built once and then bound to new values, see BeerSearchRepositoryImpl.
+ */
+enum BeerFilter {
+    BEER_NAME("beerName", criteria -> StringUtils.hasText(criteria.getBeerName())
+            ? "%" + criteria.getBeerName().toUpperCase(Locale.ROOT) + "%" : null,
+            (root, query, cb) -> cb.like(cb.upper(root.get("beerName")), cb.parameter(String.class, "beerName"))),
+    // declared as Integer: Hibernate 6 takes a parameter of a non-basic type such as an enum for a possibly
+    // multi-valued one and never caches such a plan; the BeerStyle value is still bound with the column's type
+    BEER_STYLE("beerStyle", BeerSearchCriteria::getBeerStyle,
+            (root, query, cb) -> cb.equal(root.get("beerStyle"), cb.parameter(Integer.class, "beerStyle"))),
+    MIN_PRICE("minPrice", BeerSearchCriteria::getMinPrice,
+            (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"),
+                    cb.parameter(BigDecimal.class, "minPrice"))),
+    MAX_PRICE("maxPrice", BeerSearchCriteria::getMaxPrice,
+            (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"),
+                    cb.parameter(BigDecimal.class, "maxPrice"))),
+    MIN_QUANTITY_ON_HAND("minQuantityOnHand", BeerSearchCriteria::getMinQuantityOnHand,
+            (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("quantityOnHand"),
+                    cb.parameter(Integer.class, "minQuantityOnHand"))),
+    MAX_QUANTITY_ON_HAND("maxQuantityOnHand", BeerSearchCriteria::getMaxQuantityOnHand,
+            (root, query, cb) -> cb.lessThanOrEqualTo(root.get("quantityOnHand"),
+                    cb.parameter(Integer.class, "maxQuantityOnHand"))),
+    MIN_ABV("minAbv", BeerSearchCriteria::getMinAbv,
+            (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("abv"), cb.parameter(BigDecimal.class, "minAbv"))),
+    MAX_ABV("maxAbv", BeerSearchCriteria::getMaxAbv,
+            (root, query, cb) -> cb.lessThanOrEqualTo(root.get("abv"), cb.parameter(BigDecimal.class, "maxAbv"))),
+    MIN_IBU("minIbu", BeerSearchCriteria::getMinIbu,
+            (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("ibu"), cb.parameter(Integer.class, "minIbu"))),
+    MAX_IBU("maxIbu", BeerSearchCriteria::getMaxIbu,
+            (root, query, cb) -> cb.lessThanOrEqualTo(root.get("ibu"), cb.parameter(Integer.class, "maxIbu"))),
+    BREWERY_ID("breweryId", BeerSearchCriteria::getBreweryId,
+            (root, query, cb) -> cb.equal(root.get("breweryId"), cb.parameter(Integer.class, "breweryId"))),
+    STATE("state", criteria -> StringUtils.hasText(criteria.getState())
+            ? criteria.getState().trim().toUpperCase(Locale.ROOT) : null,
+            (root, query, cb) -> cb.equal(root.get("state"), cb.parameter(String.class, "state"))),
+    CITY("city", criteria -> StringUtils.hasText(criteria.getCity()) ? criteria.getCity().trim() : null,
+            (root, query, cb) -> cb.equal(root.get("city"), cb.parameter(String.class, "city"))),
+    // a beer is in a category at most once, so the join can't duplicate rows; it is served by beer_category_category_idx
+    CATEGORY("categoryId", BeerSearchCriteria::getCategoryId,
+            (root, query, cb) -> cb.equal(root.join("categories").get("id"), cb.parameter(UUID.class, "categoryId")));
+
+    private final String parameter;
+    private final Function<BeerSearchCriteria, Object> value;
+    private final Specification<Beer> specification;
+
+    BeerFilter(String parameter, Function<BeerSearchCriteria, Object> value, Specification<Beer> specification) {
+        this.parameter = parameter;
+        this.value = value;
+        this.specification = specification;
+    }
+
+    String getParameter() {
+        return parameter;
+    }
+
+    Specification<Beer> getSpecification() {
+        return specification;
+    }
+
+    // the filters that are set in the criteria, with the values to bind to their parameters
+    static Map<BeerFilter, Object> bindings(BeerSearchCriteria criteria) {
+        Map<BeerFilter, Object> bindings = new EnumMap<>(BeerFilter.class);
+        for (BeerFilter filter : values()) {
+            Object filterValue = filter.value.apply(criteria);
+            if (filterValue != null) {
+                bindings.put(filter, filterValue);
+            }
+        }
+        return bindings;
+    }
+}
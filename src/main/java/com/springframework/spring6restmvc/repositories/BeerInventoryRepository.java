@@ -0,0 +1,60 @@
+package com.springframework.spring6restmvc.repositories;
+
+import com.springframework.spring6restmvc.model.InventoryUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/** Quantity changes written with plain SQL: updates sent as JDBC batches, one prepared statement for the
+ * whole list, and stock reservations as single conditional UPDATEs.
+ * They bypass Hibernate, so they maintain version and update_date themselves: a concurrent JPA write of the
+ * same beer still fails its optimistic lock, and delta sync still sees the change.
+ */
+@Repository
+@RequiredArgsConstructor
+@Profile("!inmemory")
+public class BeerInventoryRepository {
+
+    private static final String UPDATE_BY_ID = "update beer set quantity_on_hand = ?, update_date = ?, " +
+            "version = version + 1 where id = ?";
+    // served by beer_upc_idx
+    private static final String UPDATE_BY_UPC = "update beer set quantity_on_hand = ?, update_date = ?, " +
+            "version = version + 1 where upc = ?";
+    // checks and takes the stock in one statement, the row lock it holds until commit serializes reservations
+    private static final String RESERVE = "update beer set quantity_on_hand = quantity_on_hand - ?, " +
+            "update_date = ?, version = version + 1 where id = ? and quantity_on_hand >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Number of rows changed per update, in order, or Statement.SUCCESS_NO_INFO when the driver can't tell. */
+    public int[] updateQuantitiesById(List<InventoryUpdate> updates) {
+        return batch(UPDATE_BY_ID, updates, true);
+    }
+
+    public int[] updateQuantitiesByUpc(List<InventoryUpdate> updates) {
+        return batch(UPDATE_BY_UPC, updates, false);
+    }
+
+    /** Takes quantity from the stock of the beer, false when it has less than that on hand. */
+    public boolean reserve(UUID beerId, int quantity) {
+        return jdbcTemplate.update(RESERVE, quantity, Timestamp.valueOf(LocalDateTime.now()), beerId.toString(),
+                quantity) == 1;
+    }
+
+    private int[] batch(String sql, List<InventoryUpdate> updates, boolean byId) {
+        if (updates.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.batchUpdate(sql, updates.stream()
+                .map(update -> new Object[]{update.getQuantityOnHand(), now,
+                        byId ? update.getId().toString() : update.getUpc()})
+                .toList());
+    }
+}
@@ -0,0 +1,23 @@
+package com.springframework.spring6restmvc.repositories;
+
+import com.springframework.spring6restmvc.entities.BeerOrderArchive;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface BeerOrderArchiveRepository extends JpaRepository<BeerOrderArchive, UUID> {
+
+    // served by beer_order_archive_customer_idx
+    @Query("select a.id from BeerOrderArchive a where a.customerId = :customerId")
+    List<UUID> findIdsByCustomerId(@Param("customerId") UUID customerId, Limit limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from BeerOrderArchive a where a.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<UUID> ids);
+}
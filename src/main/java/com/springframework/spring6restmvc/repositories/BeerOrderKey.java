@@ -0,0 +1,11 @@
+package com.springframework.spring6restmvc.repositories;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/** Position of an order in a customer's order history, see BeerOrderRepository.findOrderKeys. */
+public interface BeerOrderKey {
+    UUID getId();
+
+    Timestamp getCreatedDate();
+}
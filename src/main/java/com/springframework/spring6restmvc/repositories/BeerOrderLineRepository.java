@@ -0,0 +1,24 @@
+package com.springframework.spring6restmvc.repositories;
+
+import com.springframework.spring6restmvc.entities.BeerOrderLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface BeerOrderLineRepository extends JpaRepository<BeerOrderLine, UUID> {
+
+    // the lines of many orders at once, as rows: loading the entities would read their eager beers one by one
+    @Query("select l.id as id, l.beerOrder.id as beerOrderId, b.id as beerId, b.beerName as beerName, " +
+            "l.orderQuantity as orderQuantity, l.quantityAllocated as quantityAllocated " +
+            "from BeerOrderLine l left join l.beer b where l.beerOrder.id in :orderIds")
+    List<BeerOrderLineRow> findRowsByBeerOrderIdIn(@Param("orderIds") Collection<UUID> orderIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from BeerOrderLine l where l.beerOrder.id in :orderIds")
+    int deleteByBeerOrderIdIn(@Param("orderIds") Collection<UUID> orderIds);
+}
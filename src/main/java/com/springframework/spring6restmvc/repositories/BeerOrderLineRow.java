@@ -0,0 +1,18 @@
+package com.springframework.spring6restmvc.repositories;
+
+import java.util.UUID;
+
+/** An order line with the name of its beer, see BeerOrderLineRepository.findRowsByBeerOrderIdIn. */
+public interface BeerOrderLineRow {
+    UUID getId();
+
+    UUID getBeerOrderId();
+
+    UUID getBeerId();
+
+    String getBeerName();
+
+    Integer getOrderQuantity();
+
+    Integer getQuantityAllocated();
+}
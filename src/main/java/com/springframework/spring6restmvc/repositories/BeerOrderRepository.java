@@ -1,9 +1,84 @@
 package com.springframework.spring6restmvc.repositories;
 
 import com.springframework.spring6restmvc.entities.BeerOrder;
+import com.springframework.spring6restmvc.model.CustomerOrderTotals;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface BeerOrderRepository extends JpaRepository<BeerOrder, UUID> {
+
+    // the order with its lines, their beers, the customer and the shipment in one join query
+    @EntityGraph(attributePaths = {"beerOrderLines", "beerOrderLines.beer", "customer", "beerOrderShipment"})
+    Optional<BeerOrder> findWithLinesById(UUID id);
+
+    // locks the order row alone, without the rows the graph of findWithLinesById would join
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from BeerOrder o where o.id = :id")
+    Optional<BeerOrder> lockById(@Param("id") UUID id);
+
+    // same graph for a page of orders found by findOrderKeys; the rows come back in no particular order
+    @EntityGraph(attributePaths = {"beerOrderLines", "beerOrderLines.beer", "customer", "beerOrderShipment"})
+    List<BeerOrder> findWithLinesByIdIn(Collection<UUID> ids);
+
+    // newest orders of a customer first, read from the beer_order_customer_created_idx index alone
+    @Query("select o.id as id, o.createdDate as createdDate from BeerOrder o where o.customer.id = :customerId " +
+            "order by o.createdDate desc, o.id desc")
+    List<BeerOrderKey> findOrderKeys(@Param("customerId") UUID customerId, Limit limit);
+
+    // the orders after (createdDate, id) in the order of findOrderKeys
+    @Query("select o.id as id, o.createdDate as createdDate from BeerOrder o where o.customer.id = :customerId " +
+            "and (o.createdDate < :before or (o.createdDate = :before and o.id < :beforeId)) " +
+            "order by o.createdDate desc, o.id desc")
+    List<BeerOrderKey> findOrderKeysBefore(@Param("customerId") UUID customerId, @Param("before") Timestamp before,
+                                           @Param("beforeId") UUID beforeId, Limit limit);
+
+    long countByCustomerId(UUID customerId);
+
+    // one aggregate over the customer's orders and their lines
+    @Query("select new com.springframework.spring6restmvc.model.CustomerOrderTotals(count(distinct o.id), " +
+            "coalesce(sum(l.orderQuantity), 0), coalesce(sum(l.quantityAllocated), 0)) " +
+            "from BeerOrder o left join o.beerOrderLines l where o.customer.id = :customerId")
+    CustomerOrderTotals getTotalsByCustomerId(@Param("customerId") UUID customerId);
+
+    // shipped orders created before the cutoff, oldest first from (after, afterId) on, see OrderArchive
+    @Query("select o.id as id, o.createdDate as createdDate from BeerOrder o join o.beerOrderShipment s " +
+            "where s.trackingNumber is not null and o.createdDate < :cutoff " +
+            "and (o.createdDate > :after or (o.createdDate = :after and o.id > :afterId)) " +
+            "order by o.createdDate, o.id")
+    List<BeerOrderKey> findArchivable(@Param("cutoff") Timestamp cutoff, @Param("after") Timestamp after,
+                                      @Param("afterId") UUID afterId, Limit limit);
+
+    // order and shipment reference each other, so the orders let go of their shipments before either is deleted
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update BeerOrder o set o.beerOrderShipment = null where o.id in :ids")
+    int detachShipments(@Param("ids") Collection<UUID> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from BeerOrder o where o.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // orders without their lines as rows, for the batched reads of expand=
+    @Query("select o.id as id, o.version as version, o.customerRef as customerRef, o.customer.id as customerId, " +
+            "s.trackingNumber as trackingNumber, o.createdDate as createdDate, " +
+            "o.lastModifiedDate as lastModifiedDate from BeerOrder o left join o.beerOrderShipment s " +
+            "where o.id in :ids")
+    List<BeerOrderRow> findRowsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("select o.id as id, o.version as version, o.customerRef as customerRef, o.customer.id as customerId, " +
+            "s.trackingNumber as trackingNumber, o.createdDate as createdDate, " +
+            "o.lastModifiedDate as lastModifiedDate from BeerOrder o left join o.beerOrderShipment s " +
+            "where o.customer.id = :customerId order by o.createdDate desc, o.id desc")
+    List<BeerOrderRow> findRowsByCustomerId(@Param("customerId") UUID customerId, Limit limit);
 }
@@ -0,0 +1,21 @@
+package com.springframework.spring6restmvc.repositories;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/** The columns of an order without its lines, see BeerOrderRepository.findRowsByIdIn. */
+public interface BeerOrderRow {
+    UUID getId();
+
+    Long getVersion();
+
+    String getCustomerRef();
+
+    UUID getCustomerId();
+
+    String getTrackingNumber();
+
+    Timestamp getCreatedDate();
+
+    Timestamp getLastModifiedDate();
+}
@@ -0,0 +1,26 @@
+package com.springframework.spring6restmvc.repositories;
+
+import com.springframework.spring6restmvc.entities.BeerOrderShipment;
+import com.springframework.spring6restmvc.model.OpenShipmentDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface BeerOrderShipmentRepository extends JpaRepository<BeerOrderShipment, UUID> {
+
+    // newest untracked shipments of a customer, straight into DTOs: no order graphs are loaded
+    @Query("select new com.springframework.spring6restmvc.model.OpenShipmentDTO(s.id, o.id, o.customerRef, " +
+            "cast(s.createdDate as LocalDateTime)) from BeerOrderShipment s join s.beerOrder o " +
+            "where o.customer.id = :customerId and s.trackingNumber is null order by s.createdDate desc, s.id desc")
+    List<OpenShipmentDTO> findOpenByCustomerId(@Param("customerId") UUID customerId, Limit limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from BeerOrderShipment s where s.beerOrder.id in :orderIds")
+    int deleteByBeerOrderIdIn(@Param("orderIds") Collection<UUID> orderIds);
+}
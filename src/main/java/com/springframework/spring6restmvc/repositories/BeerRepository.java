@@ -1,18 +1,37 @@
 package com.springframework.spring6restmvc.repositories;
 
 import com.springframework.spring6restmvc.entities.Beer;
-import com.springframework.spring6restmvc.model.BeerStyle;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface BeerRepository extends JpaRepository<Beer, UUID> {
+public interface BeerRepository extends JpaRepository<Beer, UUID>, BeerSearchRepository {
 
-    Page<Beer> findAllByBeerNameIsLikeIgnoreCase(String beerName, Pageable pageable);
+    // served by beer_upc_idx
+    List<Beer> findAllByUpcIn(Collection<String> upcs);
 
-    Page<Beer> findAllByBeerStyle(BeerStyle beerStyle, Pageable pageable);
+    // (updateDate, id) watermark for delta sync, served by the beer_update_date_id_idx index
+    @Query("select b from Beer b where b.updateDate > :since " +
+            "or (b.updateDate = :since and b.id > :afterId) order by b.updateDate, b.id")
+    List<Beer> findModifiedAfter(@Param("since") LocalDateTime since, @Param("afterId") UUID afterId, Limit limit);
 
-    Page<Beer> findAllByBeerNameIsLikeIgnoreCaseAndBeerStyle(String beerName, BeerStyle beerStyle, Pageable pageable);
+    // only the columns of the statistics snapshot, read without loading Beer entities; needs a transaction
+    @Query("select b.id as id, b.beerStyle as beerStyle, b.price as price, b.quantityOnHand as quantityOnHand, " +
+            "b.abv as abv from Beer b")
+    Stream<BeerStatsRow> streamStatsRows();
+
+    // one GROUP BY instead of a count per style; the name filter is read from beer_style_name_idx
+    @Query("select b.beerStyle as beerStyle, count(b) as count from Beer b group by b.beerStyle")
+    List<BeerStyleCount> countByBeerStyle();
+
+    @Query("select b.beerStyle as beerStyle, count(b) as count from Beer b " +
+            "where upper(b.beerName) like :beerName group by b.beerStyle")
+    List<BeerStyleCount> countByBeerStyleAndBeerNameLike(@Param("beerName") String beerName);
 }
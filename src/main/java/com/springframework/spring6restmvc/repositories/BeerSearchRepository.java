@@ -0,0 +1,24 @@
+package com.springframework.spring6restmvc.repositories;
+
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.model.BeerField;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+// Beer listings filtered by any combination of the criteria, instead of one derived query per combination
+public interface BeerSearchRepository {
+
+    Page<Beer> search(BeerSearchCriteria criteria, Pageable pageable);
+
+    // The rows of one page without a total, for callers that work the total out themselves
+    List<Beer> findPage(BeerSearchCriteria criteria, Pageable pageable);
+
+    // Same rows as findPage, but only the given fields are selected; every tuple element is aliased by its property
+    List<Tuple> findFieldsPage(BeerSearchCriteria criteria, List<BeerField> fields, Pageable pageable);
+
+    long countMatching(BeerSearchCriteria criteria);
+}
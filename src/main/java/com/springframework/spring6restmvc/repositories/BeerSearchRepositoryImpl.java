@@ -0,0 +1,147 @@
+package com.springframework.spring6restmvc.repositories;
+
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.model.BeerField;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/** Composes the BeerFilter specifications into criteria queries and caches one query per shape.
+ * A shape is the set of filters in use plus the sort (and the selected fields for findFieldsPage); the values
+ * are bound as parameters on every call. Hibernate 6 only reuses the compiled plan of a criteria query for
+ * the very same CriteriaQuery instance, so keeping the instance per shape is what lets repeated searches skip
+ * the SQM to SQL translation. Field selections are chosen by clients, so the caches stop growing at
+ * MAX_CACHED_SHAPES and further shapes are built per call.
+ */
+@RequiredArgsConstructor
+class BeerSearchRepositoryImpl implements BeerSearchRepository {
+
+    static final int MAX_CACHED_SHAPES = 512;
+
+    private final EntityManager entityManager;
+
+    private final Map<Shape, CriteriaQuery<Beer>> searchQueries = new ConcurrentHashMap<>();
+    private final Map<Shape, CriteriaQuery<Tuple>> fieldQueries = new ConcurrentHashMap<>();
+    private final Map<Shape, CriteriaQuery<Long>> countQueries = new ConcurrentHashMap<>();
+
+    @Override
+    public Page<Beer> search(BeerSearchCriteria criteria, Pageable pageable) {
+        // the count query is skipped when the first page is already incomplete
+        return PageableExecutionUtils.getPage(findPage(criteria, pageable), pageable, () -> countMatching(criteria));
+    }
+
+    @Override
+    public List<Beer> findPage(BeerSearchCriteria criteria, Pageable pageable) {
+        Map<BeerFilter, Object> bindings = BeerFilter.bindings(criteria);
+        Shape shape = new Shape(Set.copyOf(bindings.keySet()), pageable.getSort(), List.of());
+
+        return createQuery(searchQueries, shape, this::buildSearch, bindings)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    @Override
+    public List<Tuple> findFieldsPage(BeerSearchCriteria criteria, List<BeerField> fields, Pageable pageable) {
+        Map<BeerFilter, Object> bindings = BeerFilter.bindings(criteria);
+        Shape shape = new Shape(Set.copyOf(bindings.keySet()), pageable.getSort(), List.copyOf(fields));
+
+        return createQuery(fieldQueries, shape, this::buildFieldSearch, bindings)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    @Override
+    public long countMatching(BeerSearchCriteria criteria) {
+        Map<BeerFilter, Object> bindings = BeerFilter.bindings(criteria);
+        Shape shape = new Shape(Set.copyOf(bindings.keySet()), Sort.unsorted(), List.of());
+        return createQuery(countQueries, shape, this::buildCount, bindings).getSingleResult();
+    }
+
+    private <T> TypedQuery<T> createQuery(Map<Shape, CriteriaQuery<T>> cache, Shape shape,
+                                          Function<Shape, CriteriaQuery<T>> builder, Map<BeerFilter, Object> bindings) {
+        CriteriaQuery<T> criteriaQuery = cache.get(shape);
+        boolean cached = true;
+        if (criteriaQuery == null) {
+            if (cache.size() < MAX_CACHED_SHAPES) {
+                criteriaQuery = cache.computeIfAbsent(shape, builder);
+            } else {
+                criteriaQuery = builder.apply(shape);
+                cached = false;
+            }
+        }
+
+        TypedQuery<T> query = entityManager.createQuery(criteriaQuery);
+        if (cached) {
+            // a one-off query would only push cached plans out of Hibernate's plan cache
+            query.setHint(HibernateHints.HINT_QUERY_PLAN_CACHEABLE, true);
+        }
+        bindings.forEach((filter, value) -> query.setParameter(filter.getParameter(), value));
+        return query;
+    }
+
+    private CriteriaQuery<Beer> buildSearch(Shape shape) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Beer> query = cb.createQuery(Beer.class);
+        Root<Beer> root = query.from(Beer.class);
+        applyFilters(shape.filters(), root, query, cb);
+        return query.select(root)
+                .orderBy(QueryUtils.toOrders(shape.sort(), root, cb));
+    }
+
+    private CriteriaQuery<Tuple> buildFieldSearch(Shape shape) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Beer> root = query.from(Beer.class);
+        applyFilters(shape.filters(), root, query, cb);
+        return query.multiselect(shape.fields().stream()
+                        .<Selection<?>>map(field -> root.get(field.getProperty()).alias(field.getProperty()))
+                        .toList())
+                .orderBy(QueryUtils.toOrders(shape.sort(), root, cb));
+    }
+
+    private CriteriaQuery<Long> buildCount(Shape shape) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Beer> root = query.from(Beer.class);
+        applyFilters(shape.filters(), root, query, cb);
+        return query.select(cb.count(root));
+    }
+
+    // filters are applied in declaration order, so one shape always produces the same SQL
+    private static void applyFilters(Set<BeerFilter> filters, Root<Beer> root, CriteriaQuery<?> query,
+                                     CriteriaBuilder cb) {
+        Predicate predicate = Specification.allOf(filters.stream()
+                        .sorted()
+                        .map(BeerFilter::getSpecification)
+                        .toList())
+                .toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+
+    private record Shape(Set<BeerFilter> filters, Sort sort, List<BeerField> fields) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.springframework.spring6restmvc.repositories;
+
+import com.springframework.spring6restmvc.model.BeerStyle;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/** Projection of the beer columns that the statistics snapshot aggregates. */
+public interface BeerStatsRow {
+    UUID getId();
+
+    BeerStyle getBeerStyle();
+
+    BigDecimal getPrice();
+
+    Integer getQuantityOnHand();
+
+    BigDecimal getAbv();
+}
@@ -0,0 +1,10 @@
+package com.springframework.spring6restmvc.repositories;
+
+import com.springframework.spring6restmvc.model.BeerStyle;
+
+/** Number of beers of one style, see BeerRepository.countByBeerStyle. */
+public interface BeerStyleCount {
+    BeerStyle getBeerStyle();
+
+    long getCount();
+}
@@ -2,8 +2,17 @@ package com.springframework.spring6restmvc.repositories;
 
 import com.springframework.spring6restmvc.entities.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface CategoryRepository extends JpaRepository<Category, UUID> {
+
+    // the categories of many beers at once, through the beer_category primary key
+    @Query("select b.id as beerId, c.id as id, c.description as description " +
+            "from Beer b join b.categories c where b.id in :beerIds")
+    List<BeerCategoryRow> findByBeerIdIn(@Param("beerIds") Collection<UUID> beerIds);
 }
@@ -1,9 +1,19 @@
 package com.springframework.spring6restmvc.repositories;
 
 import com.springframework.spring6restmvc.entities.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public interface CustomerRepository extends JpaRepository<Customer, UUID> {
+
+    // (updateDate, id) watermark for delta sync, served by the customer_update_date_id_idx index
+    @Query("select c from Customer c where c.updateDate > :since " +
+            "or (c.updateDate = :since and c.id > :afterId) order by c.updateDate, c.id")
+    List<Customer> findModifiedAfter(@Param("since") LocalDateTime since, @Param("afterId") UUID afterId, Limit limit);
 }
@@ -0,0 +1,124 @@
+package com.springframework.spring6restmvc.repositories;
+
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.model.StyleSalesDay;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/** The sales_by_style_day summary, written with plain SQL inside the caller's transaction.
+ * add is an upsert. On MySQL it is a single INSERT ... ON DUPLICATE KEY UPDATE: an UPDATE of a missing row
+ * followed by an INSERT would take a gap lock under REPEATABLE READ, and two orders doing that for the same
+ * new row deadlock on each other's gap locks when they insert. Other databases (H2 in the tests) get an
+ * UPDATE, and an INSERT when the row does not exist yet; losing the race for that INSERT leaves the row to
+ * the UPDATE again.
+ */
+@Repository
+@RequiredArgsConstructor
+@Profile("!inmemory")
+public class SalesByStyleRepository {
+
+    private static final String ADD = "update sales_by_style_day set units_ordered = units_ordered + ?, " +
+            "line_count = line_count + ? where sales_date = ? and beer_style = ?";
+    private static final String INSERT = "insert into sales_by_style_day " +
+            "(sales_date, beer_style, units_ordered, line_count) values (?, ?, ?, ?)";
+    private static final String MYSQL_UPSERT = INSERT + " as added on duplicate key update " +
+            "units_ordered = sales_by_style_day.units_ordered + added.units_ordered, " +
+            "line_count = sales_by_style_day.line_count + added.line_count";
+    private static final String DELETE_DAYS = "delete from sales_by_style_day where sales_date >= ? " +
+            "and sales_date < ?";
+    // served by beer_order_created_idx
+    private static final String AGGREGATE_DAYS = "insert into sales_by_style_day " +
+            "(sales_date, beer_style, units_ordered, line_count) " +
+            "select cast(o.created_date as date), b.beer_style, coalesce(sum(l.order_quantity), 0), count(*) " +
+            "from beer_order_line l join beer_order o on o.id = l.beer_order_id join beer b on b.id = l.beer_id " +
+            "where o.created_date >= ? and o.created_date < ? " +
+            "group by cast(o.created_date as date), b.beer_style";
+    // the totals of the given orders, in the order add locks summary rows
+    private static final String ORDER_TOTALS = "select cast(o.created_date as date) as sales_date, b.beer_style, " +
+            "coalesce(sum(l.order_quantity), 0) as units_ordered, count(*) as line_count " +
+            "from beer_order_line l join beer_order o on o.id = l.beer_order_id join beer b on b.id = l.beer_id " +
+            "where o.id in (%s) group by cast(o.created_date as date), b.beer_style order by 1, 2";
+    private static final String SUBTRACT = "update sales_by_style_day set units_ordered = units_ordered - ?, " +
+            "line_count = line_count - ? where sales_date = ? and beer_style = ?";
+    // the reconciliation does not write rows without lines either
+    private static final String DELETE_EMPTY = "delete from sales_by_style_day where sales_date = ? " +
+            "and beer_style = ? and line_count <= 0";
+    // a range scan of the primary key
+    private static final String FIND_DAYS = "select sales_date, beer_style, units_ordered, line_count " +
+            "from sales_by_style_day where sales_date >= ? and sales_date <= ? order by sales_date, beer_style";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean mySql;
+
+    public void add(LocalDate day, BeerStyle beerStyle, long units, long lines) {
+        Object[] key = {Date.valueOf(day), beerStyle.ordinal()};
+        if (isMySql()) {
+            jdbcTemplate.update(MYSQL_UPSERT, key[0], key[1], units, lines);
+            return;
+        }
+        if (update(key, units, lines)) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT, key[0], key[1], units, lines);
+        } catch (DuplicateKeyException e) {
+            update(key, units, lines);
+        }
+    }
+
+    /** Takes the lines of the given orders back out of the summary, before the orders are deleted. */
+    public void subtractOrders(Collection<UUID> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        String query = ORDER_TOTALS.formatted(String.join(", ", Collections.nCopies(orderIds.size(), "?")));
+        List<Object[]> totals = jdbcTemplate.query(query, (rs, rowNum) -> new Object[]{rs.getDate("sales_date"),
+                rs.getInt("beer_style"), rs.getLong("units_ordered"), rs.getLong("line_count")},
+                orderIds.stream().map(UUID::toString).toArray());
+        for (Object[] total : totals) {
+            jdbcTemplate.update(SUBTRACT, total[2], total[3], total[0], total[1]);
+            jdbcTemplate.update(DELETE_EMPTY, total[0], total[1]);
+        }
+    }
+
+    /** Recomputes the days in [from, to) from the order lines, returns the number of rows written. */
+    public int replaceDays(LocalDate from, LocalDate to) {
+        jdbcTemplate.update(DELETE_DAYS, Date.valueOf(from), Date.valueOf(to));
+        return jdbcTemplate.update(AGGREGATE_DAYS, Timestamp.valueOf(from.atStartOfDay()),
+                Timestamp.valueOf(to.atStartOfDay()));
+    }
+
+    public List<StyleSalesDay> findDays(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(FIND_DAYS, (rs, rowNum) -> StyleSalesDay.builder()
+                .salesDate(rs.getDate("sales_date").toLocalDate())
+                .beerStyle(BeerStyle.values()[rs.getInt("beer_style")])
+                .unitsOrdered(rs.getLong("units_ordered"))
+                .lineCount(rs.getLong("line_count"))
+                .build(), Date.valueOf(from), Date.valueOf(to));
+    }
+
+    private boolean update(Object[] key, long units, long lines) {
+        return jdbcTemplate.update(ADD, units, lines, key[0], key[1]) > 0;
+    }
+
+    private boolean isMySql() {
+        if (mySql == null) {
+            mySql = "MySQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName()));
+        }
+        return mySql;
+    }
+}
@@ -0,0 +1,53 @@
+package com.springframework.spring6restmvc.repositories;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/** Row counts the database keeps in its own table statistics.
+ * They are read from information_schema without touching the table, but are only estimates: InnoDB samples
+ * a few pages for TABLE_ROWS and can be off by tens of percent.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+@Profile("!inmemory")
+public class TableStatistics {
+
+    private static final String MYSQL_ROW_COUNT = "select table_rows from information_schema.tables " +
+            "where table_schema = database() and upper(table_name) = upper(?)";
+    private static final String H2_ROW_COUNT = "select row_count_estimate from information_schema.tables " +
+            "where table_schema = schema() and upper(table_name) = upper(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile String rowCountQuery;
+
+    /** The estimated number of rows of the table, null when the database does not provide one. */
+    public Long estimateRowCount(String table) {
+        try {
+            String query = rowCountQuery();
+            return query != null ? jdbcTemplate.queryForObject(query, Long.class, table) : null;
+        } catch (DataAccessException e) {
+            log.debug("No row count estimate for {}: {}", table, e.getMessage());
+            return null;
+        }
+    }
+
+    private String rowCountQuery() {
+        if (rowCountQuery == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            rowCountQuery = switch (product != null ? product : "") {
+                case "MySQL" -> MYSQL_ROW_COUNT;
+                case "H2" -> H2_ROW_COUNT;
+                default -> "";
+            };
+        }
+        return rowCountQuery.isEmpty() ? null : rowCountQuery;
+    }
+}
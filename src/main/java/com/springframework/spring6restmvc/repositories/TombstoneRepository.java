@@ -0,0 +1,22 @@
+package com.springframework.spring6restmvc.repositories;
+
+import com.springframework.spring6restmvc.entities.Tombstone;
+import com.springframework.spring6restmvc.model.TombstoneType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface TombstoneRepository extends JpaRepository<Tombstone, UUID> {
+
+    @Query("select t from Tombstone t where t.entityType = :entityType and (t.deletedDate > :since " +
+            "or (t.deletedDate = :since and t.entityId > :afterId)) order by t.deletedDate, t.entityId")
+    List<Tombstone> findDeletedAfter(@Param("entityType") TombstoneType entityType,
+                                     @Param("since") LocalDateTime since,
+                                     @Param("afterId") UUID afterId,
+                                     Limit limit);
+}
@@ -0,0 +1,49 @@
+package com.springframework.spring6restmvc.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/** Collects the keys one level of a nested read asks for and resolves all of them with one batch call.
+ * load only registers where a value goes; dispatch runs the batch call for the distinct keys that are not
+ * resolved yet and hands the values out. Values are kept for the life of the loader, which is one read, so a
+ * key that is asked for again (the same beer on many lines) is neither queried nor built twice. A key the
+ * batch call does not return resolves to null.
+ */
+class BatchLoader<K, V> {
+
+    private final Function<Collection<K>, Map<K, V>> batch;
+    private final Map<K, V> resolved = new HashMap<>();
+    private final Map<K, List<Consumer<V>>> pending = new LinkedHashMap<>();
+
+    BatchLoader(Function<Collection<K>, Map<K, V>> batch) {
+        this.batch = batch;
+    }
+
+    void load(K key, Consumer<V> target) {
+        if (resolved.containsKey(key)) {
+            target.accept(resolved.get(key));
+        } else {
+            pending.computeIfAbsent(key, k -> new ArrayList<>()).add(target);
+        }
+    }
+
+    void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<K, List<Consumer<V>>> requested = new LinkedHashMap<>(pending);
+        pending.clear();
+        Map<K, V> values = batch.apply(requested.keySet());
+        requested.forEach((key, targets) -> {
+            V value = values.get(key);
+            resolved.put(key, value);
+            targets.forEach(target -> target.accept(value));
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.InventoryUpdate;
+import com.springframework.spring6restmvc.model.InventoryUpdateResult;
+
+import java.util.List;
+
+public interface BeerInventoryService {
+
+    // Sets quantityOnHand for every update and reports the outcome of each one, in request order
+    List<InventoryUpdateResult> updateInventory(List<InventoryUpdate> updates);
+}
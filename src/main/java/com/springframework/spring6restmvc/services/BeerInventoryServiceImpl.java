@@ -0,0 +1,167 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.events.BeerChangeType;
+import com.springframework.spring6restmvc.events.BeerChangedEvent;
+import com.springframework.spring6restmvc.mappers.BeerMapper;
+import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.InventoryUpdate;
+import com.springframework.spring6restmvc.model.InventoryUpdateResult;
+import com.springframework.spring6restmvc.model.InventoryUpdateStatus;
+import com.springframework.spring6restmvc.repositories.BeerInventoryRepository;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/** Bulk stock level synchronisation.
+ * The updates are applied in chunks of beer.inventory.chunk-size, each in its own transaction with one JDBC
+ * batch for the rows given by id and one for those given by upc, so a failing chunk only rolls back its own
+ * rows. Each batch is sent sorted, by id and by upc, whatever order the client listed the rows in. The changed beers are then read back with one IN query per kind and published as PATCHED, which
+ * keeps the facets, statistics, totals and the change feed in step.
+ */
+@Slf4j
+@Service
+@Profile("!inmemory")
+public class BeerInventoryServiceImpl implements BeerInventoryService {
+
+    private final BeerInventoryRepository beerInventoryRepository;
+    private final BeerRepository beerRepository;
+    private final BeerMapper beerMapper;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public BeerInventoryServiceImpl(BeerInventoryRepository beerInventoryRepository, BeerRepository beerRepository,
+                                    BeerMapper beerMapper, EntityManager entityManager,
+                                    ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${beer.inventory.chunk-size:500}") int chunkSize) {
+        this.beerInventoryRepository = beerInventoryRepository;
+        this.beerRepository = beerRepository;
+        this.beerMapper = beerMapper;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public List<InventoryUpdateResult> updateInventory(List<InventoryUpdate> updates) {
+        InventoryUpdateResult[] results = new InventoryUpdateResult[updates.size()];
+        for (int from = 0; from < updates.size(); from += chunkSize) {
+            List<InventoryUpdate> chunk = updates.subList(from, Math.min(from + chunkSize, updates.size()));
+            int offset = from;
+            try {
+                transactionTemplate.executeWithoutResult(status -> updateChunk(chunk, results, offset));
+            } catch (DataAccessException | TransactionException e) {
+                log.warn("Inventory chunk at {} rolled back: {}", offset, e.getMessage());
+                for (int i = 0; i < chunk.size(); i++) {
+                    InventoryUpdateResult result = results[offset + i];
+                    if (result == null || result.getStatus() != InventoryUpdateStatus.INVALID) {
+                        results[offset + i] = result(chunk.get(i), InventoryUpdateStatus.FAILED, 0);
+                    }
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void updateChunk(List<InventoryUpdate> chunk, InventoryUpdateResult[] results, int offset) {
+        List<Integer> byId = new ArrayList<>();
+        List<Integer> byUpc = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            InventoryUpdate update = chunk.get(i);
+            boolean hasUpc = StringUtils.hasText(update.getUpc());
+            if (update.getQuantityOnHand() == null || update.getQuantityOnHand() < 0
+                    || (update.getId() != null) == hasUpc) {
+                results[offset + i] = result(update, InventoryUpdateStatus.INVALID, 0);
+            } else if (update.getId() != null) {
+                byId.add(i);
+            } else {
+                byUpc.add(i);
+            }
+        }
+
+        // rows are locked in the order they are updated: by id as allocateOrder does, so that two pushes, or a push
+        // and an allocation, listing the same beers in another order wait for each other instead of deadlocking
+        byId.sort(Comparator.comparing(i -> chunk.get(i).getId()));
+        byUpc.sort(Comparator.comparing(i -> chunk.get(i).getUpc()));
+
+        Set<UUID> changedIds = new HashSet<>();
+        Set<String> changedUpcs = new HashSet<>();
+        int[] idCounts = beerInventoryRepository.updateQuantitiesById(byId.stream().map(chunk::get).toList());
+        for (int j = 0; j < byId.size(); j++) {
+            InventoryUpdate update = chunk.get(byId.get(j));
+            if (record(update, idCounts[j], results, offset + byId.get(j))) {
+                changedIds.add(update.getId());
+            }
+        }
+        int[] upcCounts = beerInventoryRepository.updateQuantitiesByUpc(byUpc.stream().map(chunk::get).toList());
+        for (int j = 0; j < byUpc.size(); j++) {
+            InventoryUpdate update = chunk.get(byUpc.get(j));
+            if (record(update, upcCounts[j], results, offset + byUpc.get(j))) {
+                changedUpcs.add(update.getUpc());
+            }
+        }
+
+        // the batches bypassed the persistence context, so whatever it holds has the old quantities
+        entityManager.clear();
+        Map<UUID, Beer> changed = new LinkedHashMap<>();
+        if (!changedIds.isEmpty()) {
+            beerRepository.findAllById(changedIds).forEach(beer -> changed.put(beer.getId(), beer));
+        }
+        if (!changedUpcs.isEmpty()) {
+            beerRepository.findAllByUpcIn(changedUpcs).forEach(beer -> changed.put(beer.getId(), beer));
+        }
+        // published inside the chunk transaction, so the listeners only see chunks that committed
+        changed.values().forEach(this::publish);
+    }
+
+    private static boolean record(InventoryUpdate update, int count, InventoryUpdateResult[] results, int index) {
+        // SUCCESS_NO_INFO: the driver ran the statement but can't tell the row count
+        boolean updated = count > 0 || count == Statement.SUCCESS_NO_INFO;
+        results[index] = result(update, updated ? InventoryUpdateStatus.UPDATED : InventoryUpdateStatus.NOT_FOUND,
+                Math.max(count, 0));
+        return updated;
+    }
+
+    private void publish(Beer beer) {
+        BeerDTO dto = beerMapper.beerToBeerDto(beer);
+        eventPublisher.publishEvent(BeerChangedEvent.builder()
+                .type(BeerChangeType.PATCHED)
+                .beerId(dto.getId())
+                .beer(dto)
+                .previousBeerStyle(dto.getBeerStyle())
+                .build());
+    }
+
+    private static InventoryUpdateResult result(InventoryUpdate update, InventoryUpdateStatus status, int rows) {
+        return InventoryUpdateResult.builder()
+                .id(update.getId())
+                .upc(update.getUpc())
+                .status(status)
+                .updatedRows(rows)
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.BeerOrderCreateDTO;
+import com.springframework.spring6restmvc.model.BeerOrderDTO;
+import com.springframework.spring6restmvc.model.BeerOrderPage;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BeerOrderService {
+
+    // Creates the order with all of its lines; unknown customer or beer ids fail with InvalidOrderException
+    BeerOrderDTO createOrder(BeerOrderCreateDTO order);
+
+    Optional<BeerOrderDTO> getOrderById(UUID id);
+
+    // Reserves stock for every line that is not fully allocated yet; a line gets all of it or nothing
+    Optional<BeerOrderDTO> allocateOrder(UUID id);
+
+    // Order history of a customer, newest first, see BeerOrderPage; empty when the customer does not exist
+    Optional<BeerOrderPage> getCustomerOrders(UUID customerId, LocalDateTime before, UUID beforeId, Integer limit);
+}
@@ -0,0 +1,202 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.entities.BeerOrder;
+import com.springframework.spring6restmvc.entities.BeerOrderLine;
+import com.springframework.spring6restmvc.entities.Customer;
+import com.springframework.spring6restmvc.events.BeerChangeType;
+import com.springframework.spring6restmvc.events.BeerChangedEvent;
+import com.springframework.spring6restmvc.mappers.BeerMapper;
+import com.springframework.spring6restmvc.mappers.BeerOrderMapper;
+import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerOrderCreateDTO;
+import com.springframework.spring6restmvc.model.BeerOrderDTO;
+import com.springframework.spring6restmvc.model.BeerOrderLineCreateDTO;
+import com.springframework.spring6restmvc.model.BeerOrderPage;
+import com.springframework.spring6restmvc.repositories.BeerInventoryRepository;
+import com.springframework.spring6restmvc.repositories.BeerOrderKey;
+import com.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.repositories.CustomerRepository;
+import com.springframework.spring6restmvc.stats.SalesByStyleSummary;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/** Order placement and allocation.
+ * All beers of an order are read with one IN query, and the lines are inserted in JDBC batches of
+ * hibernate.jdbc.batch_size together with the order when the transaction commits. The sales summary is
+ * updated in the same transaction, see SalesByStyleSummary. Reading an order fetches the whole graph
+ * (lines, beers, customer, shipment) in a single join query; ids that are not live any more are looked up
+ * in the OrderArchive.
+ * Allocation takes stock with one conditional UPDATE per line instead of read-modify-write on the Beer
+ * entity, so concurrent orders of a popular beer queue on its row lock rather than failing optimistic locks
+ * and retrying. The lines are reserved in beer id order, so two orders always lock shared beers in the same
+ * order and can't deadlock.
+ * The order history first reads one page of (createdDate, id) keys from the customer index and then the
+ * graphs of just those orders with one join query, so neither query grows with the customer's total orders.
+ */
+@Service
+@RequiredArgsConstructor
+@Profile("!inmemory")
+public class BeerOrderServiceImpl implements BeerOrderService {
+
+    static final int DEFAULT_LIMIT = 20;
+    static final int MAX_LIMIT = 100;
+
+    // sorts after every id in the string order of the id column, so a page can start at a bare timestamp
+    private static final UUID MAX_ID = new UUID(-1L, -1L);
+
+    private final BeerOrderRepository beerOrderRepository;
+    private final BeerRepository beerRepository;
+    private final CustomerRepository customerRepository;
+    private final BeerOrderMapper beerOrderMapper;
+    private final BeerInventoryRepository beerInventoryRepository;
+    private final BeerMapper beerMapper;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SalesByStyleSummary salesByStyleSummary;
+    private final OrderArchive orderArchive;
+
+    @Override
+    @Transactional
+    public BeerOrderDTO createOrder(BeerOrderCreateDTO order) {
+        Customer customer = customerRepository.findById(order.getCustomerId())
+                .orElseThrow(() -> new InvalidOrderException("Unknown customer: " + order.getCustomerId()));
+
+        Set<UUID> beerIds = order.getBeerOrderLines().stream()
+                .map(BeerOrderLineCreateDTO::getBeerId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<UUID, Beer> beers = beerRepository.findAllById(beerIds).stream()
+                .collect(Collectors.toMap(Beer::getId, Function.identity()));
+        List<UUID> unknownBeers = beerIds.stream().filter(id -> !beers.containsKey(id)).toList();
+        if (!unknownBeers.isEmpty()) {
+            throw new InvalidOrderException("Unknown beers: " + unknownBeers);
+        }
+
+        BeerOrder beerOrder = BeerOrder.builder()
+                .customerRef(order.getCustomerRef())
+                .customer(customer)
+                .beerOrderLines(new HashSet<>())
+                .build();
+        for (BeerOrderLineCreateDTO line : order.getBeerOrderLines()) {
+            beerOrder.getBeerOrderLines().add(BeerOrderLine.builder()
+                    .beerOrder(beerOrder)
+                    .beer(beers.get(line.getBeerId()))
+                    .orderQuantity(line.getOrderQuantity())
+                    .quantityAllocated(0)
+                    .build());
+        }
+        // flushed for the created date, which is only set by the insert
+        BeerOrder saved = beerOrderRepository.saveAndFlush(beerOrder);
+        // the day the reconciliation counts the order on, cast(created_date as date)
+        salesByStyleSummary.addOrder(saved.getCreatedDate().toLocalDateTime().toLocalDate(),
+                saved.getBeerOrderLines());
+        return beerOrderMapper.beerOrderToBeerOrderDto(saved);
+    }
+
+    @Override
+    @Transactional
+    public Optional<BeerOrderDTO> allocateOrder(UUID id) {
+        // taken before the lines are read: a second allocation of the order, a client retry say, waits for this
+        // one and then finds the lines allocated instead of reserving their stock again
+        if (beerOrderRepository.lockById(id).isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<BeerOrder> found = beerOrderRepository.findWithLinesById(id);
+        List<BeerOrderLine> lines = found.get().getBeerOrderLines().stream()
+                .filter(line -> line.getQuantityAllocated() < line.getOrderQuantity())
+                .sorted(Comparator.comparing((BeerOrderLine line) -> line.getBeer().getId())
+                        .thenComparing(BeerOrderLine::getId))
+                .toList();
+        Set<UUID> reservedBeers = new HashSet<>();
+        for (BeerOrderLine line : lines) {
+            if (beerInventoryRepository.reserve(line.getBeer().getId(),
+                    line.getOrderQuantity() - line.getQuantityAllocated())) {
+                line.setQuantityAllocated(line.getOrderQuantity());
+                reservedBeers.add(line.getBeer().getId());
+            }
+        }
+        if (reservedBeers.isEmpty()) {
+            return found.map(beerOrderMapper::beerOrderToBeerOrderDto);
+        }
+
+        // the managed beers still hold the stock from before the reservations, so read the graph again
+        entityManager.flush();
+        entityManager.clear();
+        BeerOrder allocated = beerOrderRepository.findWithLinesById(id).orElseThrow();
+        allocated.getBeerOrderLines().stream()
+                .map(BeerOrderLine::getBeer)
+                .distinct()
+                .filter(beer -> reservedBeers.contains(beer.getId()))
+                .forEach(this::publishStockChange);
+        return Optional.of(beerOrderMapper.beerOrderToBeerOrderDto(allocated));
+    }
+
+    // seen by the listeners once the allocation committed
+    private void publishStockChange(Beer beer) {
+        BeerDTO dto = beerMapper.beerToBeerDto(beer);
+        eventPublisher.publishEvent(BeerChangedEvent.builder()
+                .type(BeerChangeType.PATCHED)
+                .beerId(dto.getId())
+                .beer(dto)
+                .previousBeerStyle(dto.getBeerStyle())
+                .build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BeerOrderDTO> getOrderById(UUID id) {
+        return beerOrderRepository.findWithLinesById(id).map(beerOrderMapper::beerOrderToBeerOrderDto)
+                .or(() -> orderArchive.find(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BeerOrderPage> getCustomerOrders(UUID customerId, LocalDateTime before, UUID beforeId,
+                                                     Integer limit) {
+        int pageSize = limit == null || limit < 1 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        // one more key than the page tells whether there is a next page
+        List<BeerOrderKey> keys = before == null
+                ? beerOrderRepository.findOrderKeys(customerId, Limit.of(pageSize + 1))
+                : beerOrderRepository.findOrderKeysBefore(customerId, Timestamp.valueOf(before),
+                        beforeId != null ? beforeId : MAX_ID, Limit.of(pageSize + 1));
+        if (keys.isEmpty() && !customerRepository.existsById(customerId)) {
+            return Optional.empty();
+        }
+        boolean hasMore = keys.size() > pageSize;
+        List<UUID> ids = keys.stream().limit(pageSize).map(BeerOrderKey::getId).toList();
+
+        Map<UUID, BeerOrder> orders = ids.isEmpty() ? Map.of()
+                : beerOrderRepository.findWithLinesByIdIn(ids).stream()
+                        .collect(Collectors.toMap(BeerOrder::getId, Function.identity()));
+        List<BeerOrderDTO> page = ids.stream()
+                .map(orders::get)
+                .map(beerOrderMapper::beerOrderToBeerOrderDto)
+                .toList();
+        BeerOrderDTO last = page.isEmpty() ? null : page.getLast();
+        return Optional.of(BeerOrderPage.builder()
+                .orders(page)
+                .nextBefore(last != null ? last.getCreatedDate() : before)
+                .nextBeforeId(last != null ? last.getId() : beforeId)
+                .hasMore(hasMore)
+                .build());
+    }
+}
@@ -0,0 +1,49 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.BeerSortField;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/** Page and sort rules shared by the beer service implementations, so every backend pages the same way.
+ * pageNumber is 1-based, pageSize defaults to 25 and is capped at 1000, listings are sorted by beerName
+ * unless another BeerSortField is asked for. id breaks ties, as it does in the indexes behind the sort fields.
+ */
+final class BeerPaging {
+
+    static final int DEFAULT_PAGE = 0;
+    static final int DEFAULT_PAGE_SIZE = 25;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    static final BeerSortField DEFAULT_SORT = BeerSortField.BEER_NAME;
+
+    private BeerPaging() {
+    }
+
+    static PageRequest buildPageRequest(Integer pageNumber, Integer pageSize, BeerSortField sortBy) {
+        int queryPageNumber;
+        int queryPageSize;
+
+        if (pageNumber != null && pageNumber > 0) {
+            queryPageNumber = pageNumber - 1;
+        } else {
+            queryPageNumber = DEFAULT_PAGE;
+        }
+
+        if (pageSize == null) {
+            queryPageSize = DEFAULT_PAGE_SIZE;
+        } else {
+            if (pageSize > MAX_PAGE_SIZE) {
+                queryPageSize = MAX_PAGE_SIZE;
+            } else {
+                queryPageSize = pageSize;
+            }
+        }
+
+        return PageRequest.of(queryPageNumber, queryPageSize, sort(sortBy));
+    }
+
+    static Sort sort(BeerSortField sortBy) {
+        BeerSortField field = sortBy != null ? sortBy : DEFAULT_SORT;
+        return Sort.by(Sort.Order.asc(field.getProperty()), Sort.Order.asc("id"));
+    }
+}
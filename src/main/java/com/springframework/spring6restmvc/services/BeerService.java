@@ -1,19 +1,34 @@
 package com.springframework.spring6restmvc.services;
 
+import com.springframework.spring6restmvc.model.BatchGetResult;
 import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.DeltaPage;
+import com.springframework.spring6restmvc.model.BeerField;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
 import com.springframework.spring6restmvc.model.BeerStyle;
 import org.springframework.data.domain.Page;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public interface BeerService {
 
-    Page<BeerDTO> getAllBears(String beerName, BeerStyle beerStyle, Boolean showInventory,
+    Page<BeerDTO> getAllBears(BeerSearchCriteria criteria, Boolean showInventory,
                               Integer pageNumber, Integer pageSize);
 
+    // Same filtering and paging as getAllBears, but only the requested fields are read and returned
+    Page<Map<String, Object>> getAllBeerFields(BeerSearchCriteria criteria, Set<BeerField> fields,
+                                               Boolean showInventory, Integer pageNumber, Integer pageSize);
+
     Optional<BeerDTO> getBeerById(UUID id);
 
+    // The beers with the given ids in one lookup, ids that don't exist are listed as not found
+    BatchGetResult<BeerDTO> getBeersByIds(List<UUID> ids);
+
     BeerDTO saveBeer(BeerDTO beer);
 
     Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer);
@@ -21,4 +36,10 @@ public interface BeerService {
     Boolean deleteBeerById(UUID beerId);
 
     Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beer);
+
+    // Number of beers per style, only counting names that contain beerName when it has text
+    Map<BeerStyle, Long> getStyleCounts(String beerName);
+
+    // Rows changed and ids deleted after the (modifiedSince, afterId) watermark, oldest first
+    DeltaPage<BeerDTO> getBeerChanges(LocalDateTime modifiedSince, UUID afterId, Integer limit);
 }
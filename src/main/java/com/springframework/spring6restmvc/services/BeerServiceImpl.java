@@ -1,26 +1,63 @@
 package com.springframework.spring6restmvc.services;
 
+import com.springframework.spring6restmvc.entities.Tombstone;
+import com.springframework.spring6restmvc.model.BatchGetResult;
 import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerField;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
+import com.springframework.spring6restmvc.model.BeerSortField;
 import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.model.CountedPage;
+import com.springframework.spring6restmvc.model.DeltaPage;
+import com.springframework.spring6restmvc.model.TombstoneType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
+/** In-memory beer store, used instead of BeerServiceJPA with the inmemory profile.
+ * Beers live in a concurrent map and two skip-list indexes kept in listing order (lower-cased name,
+ * then name and id): one over all beers and one per style. A listing walks the matching index and stops
+ * once the page is full, so it pages, filters and sorts like the JPA implementation without sorting per request.
+ * Range filters are checked while walking; only a listing sorted by updateDate is sorted per request.
+ * Reads take no locks. Writes are serialized and replace the stored DTO instead of changing it; index entries
+ * that no longer match the stored beer are skipped by readers until the writer has removed them.
+ * Stored DTOs never leave the service, callers always get copies.
+ */
 @Slf4j
 @Service
 public class BeerServiceImpl implements BeerService {
 
-    private Map<UUID, BeerDTO> beerMap;
+    private final Map<UUID, BeerDTO> beerMap = new ConcurrentHashMap<>();
+    private final NavigableSet<NameKey> nameIndex = new ConcurrentSkipListSet<>();
+    private final Map<BeerStyle, NavigableSet<NameKey>> styleIndex = new EnumMap<>(BeerStyle.class);
+    private final Map<BeerStyle, AtomicInteger> styleCounts = new EnumMap<>(BeerStyle.class);
+    private final Queue<Tombstone> tombstones = new ConcurrentLinkedQueue<>();
+    private final Object writeLock = new Object();
 
     public BeerServiceImpl() {
-        this.beerMap = new HashMap<>();
+        this(sampleBeers());
+    }
 
+    BeerServiceImpl(Collection<BeerDTO> beers) {
+        for (BeerStyle style : BeerStyle.values()) {
+            styleIndex.put(style, new ConcurrentSkipListSet<>());
+            styleCounts.put(style, new AtomicInteger());
+        }
+        beers.forEach(beer -> store(copy(beer)));
+    }
+
+    private static List<BeerDTO> sampleBeers() {
         BeerDTO beer1 = BeerDTO.builder()
                 .id(UUID.randomUUID())
                 .version(1)
@@ -57,20 +94,182 @@ public class BeerServiceImpl implements BeerService {
                 .updateDate(LocalDateTime.now())
                 .build();
 
-        beerMap.put(beer1.getId(), beer1);
-        beerMap.put(beer2.getId(), beer2);
-        beerMap.put(beer3.getId(), beer3);
+        return List.of(beer1, beer2, beer3);
+    }
+
+    @Override
+    public Page<BeerDTO> getAllBears(BeerSearchCriteria criteria, Boolean showInventory, Integer pageNumber, Integer pageSize) {
+        PageRequest pageRequest = BeerPaging.buildPageRequest(pageNumber, pageSize, criteria.getSortBy());
+        if (criteria.getSortBy() == BeerSortField.UPDATE_DATE) {
+            return listByUpdateDate(criteria, showInventory, pageRequest);
+        }
+
+        BeerStyle beerStyle = criteria.getBeerStyle();
+        String nameFilter = StringUtils.hasText(criteria.getBeerName())
+                ? criteria.getBeerName().toLowerCase(Locale.ROOT) : null;
+        Predicate<BeerDTO> otherFilters = rangeAndCategoryFilter(criteria);
+        // without a name, range or category filter the index holds exactly the matching beers
+        boolean indexMatchesExactly = nameFilter == null && otherFilters == null;
+        NavigableSet<NameKey> index = beerStyle != null ? styleIndex.get(beerStyle) : nameIndex;
+
+        List<BeerDTO> content = new ArrayList<>(pageRequest.getPageSize());
+        long matches = 0;
+        for (NameKey key : index) {
+            BeerDTO beer = beerMap.get(key.id());
+            if (beer == null || !key.equals(NameKey.of(beer)) || (beerStyle != null && beer.getBeerStyle() != beerStyle)) {
+                continue; // left behind by a concurrent write
+            }
+            if (nameFilter != null && !key.lowerName().contains(nameFilter)) {
+                continue;
+            }
+            if (otherFilters != null && !otherFilters.test(beer)) {
+                continue;
+            }
+            if (matches >= pageRequest.getOffset() && content.size() < pageRequest.getPageSize()) {
+                content.add(view(beer, showInventory));
+            }
+            matches++;
+            // the total is known already, the rest of the index need not be read
+            if (indexMatchesExactly && content.size() == pageRequest.getPageSize()) {
+                break;
+            }
+        }
+
+        long total;
+        if (!indexMatchesExactly) {
+            total = matches;
+        } else if (beerStyle != null) {
+            total = styleCounts.get(beerStyle).get();
+        } else {
+            total = beerMap.size();
+        }
+        return new CountedPage<>(content, pageRequest, total, true);
+    }
+
+    @Override
+    public Map<BeerStyle, Long> getStyleCounts(String beerName) {
+        Map<BeerStyle, Long> counts = new EnumMap<>(BeerStyle.class);
+        if (!StringUtils.hasText(beerName)) {
+            styleCounts.forEach((style, count) -> counts.put(style, (long) count.get()));
+            return counts;
+        }
+        String nameFilter = beerName.toLowerCase(Locale.ROOT);
+        for (BeerStyle style : BeerStyle.values()) {
+            counts.put(style, 0L);
+        }
+        beerMap.values().stream()
+                .filter(beer -> beer.getBeerStyle() != null && beer.getBeerName() != null
+                        && beer.getBeerName().toLowerCase(Locale.ROOT).contains(nameFilter))
+                .forEach(beer -> counts.merge(beer.getBeerStyle(), 1L, Long::sum));
+        return counts;
+    }
+
+    // there is no index by update date, so this sorts the matching beers per request
+    private Page<BeerDTO> listByUpdateDate(BeerSearchCriteria criteria, Boolean showInventory, PageRequest pageRequest) {
+        Predicate<BeerDTO> filter = filter(criteria);
+        List<BeerDTO> matching = beerMap.values().stream()
+                .filter(filter)
+                .sorted(Comparator.comparing(BeerDTO::getUpdateDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(beer -> beer.getId().toString()))
+                .toList();
+        List<BeerDTO> content = matching.stream()
+                .skip(pageRequest.getOffset())
+                .limit(pageRequest.getPageSize())
+                .map(beer -> view(beer, showInventory))
+                .toList();
+        return new CountedPage<>(content, pageRequest, matching.size(), true);
+    }
+
+    private static Predicate<BeerDTO> filter(BeerSearchCriteria criteria) {
+        Predicate<BeerDTO> filter = beer -> true;
+        if (StringUtils.hasText(criteria.getBeerName())) {
+            String nameFilter = criteria.getBeerName().toLowerCase(Locale.ROOT);
+            filter = filter.and(beer -> beer.getBeerName() != null
+                    && beer.getBeerName().toLowerCase(Locale.ROOT).contains(nameFilter));
+        }
+        if (criteria.getBeerStyle() != null) {
+            filter = filter.and(beer -> beer.getBeerStyle() == criteria.getBeerStyle());
+        }
+        Predicate<BeerDTO> otherFilters = rangeAndCategoryFilter(criteria);
+        return otherFilters != null ? filter.and(otherFilters) : filter;
+    }
+
+    // null when none of these filters is set; a beer without the value never matches a range, like a SQL null
+    private static Predicate<BeerDTO> rangeAndCategoryFilter(BeerSearchCriteria criteria) {
+        List<Predicate<BeerDTO>> filters = new ArrayList<>();
+        if (criteria.getMinPrice() != null) {
+            filters.add(beer -> beer.getPrice() != null && beer.getPrice().compareTo(criteria.getMinPrice()) >= 0);
+        }
+        if (criteria.getMaxPrice() != null) {
+            filters.add(beer -> beer.getPrice() != null && beer.getPrice().compareTo(criteria.getMaxPrice()) <= 0);
+        }
+        if (criteria.getMinQuantityOnHand() != null) {
+            filters.add(beer -> beer.getQuantityOnHand() != null
+                    && beer.getQuantityOnHand() >= criteria.getMinQuantityOnHand());
+        }
+        if (criteria.getMaxQuantityOnHand() != null) {
+            filters.add(beer -> beer.getQuantityOnHand() != null
+                    && beer.getQuantityOnHand() <= criteria.getMaxQuantityOnHand());
+        }
+        if (criteria.getMinAbv() != null) {
+            filters.add(beer -> beer.getAbv() != null && beer.getAbv().compareTo(criteria.getMinAbv()) >= 0);
+        }
+        if (criteria.getMaxAbv() != null) {
+            filters.add(beer -> beer.getAbv() != null && beer.getAbv().compareTo(criteria.getMaxAbv()) <= 0);
+        }
+        if (criteria.getMinIbu() != null) {
+            filters.add(beer -> beer.getIbu() != null && beer.getIbu() >= criteria.getMinIbu());
+        }
+        if (criteria.getMaxIbu() != null) {
+            filters.add(beer -> beer.getIbu() != null && beer.getIbu() <= criteria.getMaxIbu());
+        }
+        if (criteria.getBreweryId() != null) {
+            filters.add(beer -> criteria.getBreweryId().equals(beer.getBreweryId()));
+        }
+        if (StringUtils.hasText(criteria.getState())) {
+            String state = criteria.getState().trim().toUpperCase(Locale.ROOT);
+            filters.add(beer -> state.equals(beer.getState()));
+        }
+        if (StringUtils.hasText(criteria.getCity())) {
+            String city = criteria.getCity().trim();
+            filters.add(beer -> city.equals(beer.getCity()));
+        }
+        if (criteria.getCategoryId() != null) {
+            filters.add(beer -> false); // categories are not kept in memory, so no beer is in any category
+        }
+        return filters.stream().reduce(Predicate::and).orElse(null);
     }
 
     @Override
-    public Page<BeerDTO> getAllBears(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize) {
-        return new PageImpl<>(new ArrayList<>(beerMap.values()));
+    public Page<Map<String, Object>> getAllBeerFields(BeerSearchCriteria criteria, Set<BeerField> fields,
+                                                      Boolean showInventory, Integer pageNumber, Integer pageSize) {
+        return getAllBears(criteria, showInventory, pageNumber, pageSize)
+                .map(beer -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put(BeerField.ID.getProperty(), beer.getId());
+                    fields.stream()
+                            .filter(field -> field != BeerField.QUANTITY_ON_HAND || !Boolean.FALSE.equals(showInventory))
+                            .sorted()
+                            .forEach(field -> row.put(field.getProperty(), field.read(beer)));
+                    return row;
+                });
     }
 
     @Override
     public Optional<BeerDTO> getBeerById(UUID id) {
         log.debug("Get Beer by Id - in service. Id: " + id.toString());
-        return Optional.of(beerMap.get(id));
+        return Optional.ofNullable(beerMap.get(id)).map(BeerServiceImpl::copy);
+    }
+
+    @Override
+    public BatchGetResult<BeerDTO> getBeersByIds(List<UUID> ids) {
+        List<BeerDTO> beers = ids.stream()
+                .distinct()
+                .map(beerMap::get)
+                .filter(Objects::nonNull)
+                .map(BeerServiceImpl::copy)
+                .toList();
+        return BatchGetResult.of(ids, beers, BeerDTO::getId);
     }
 
     @Override
@@ -85,54 +284,210 @@ public class BeerServiceImpl implements BeerService {
                 .upc(beer.getUpc())
                 .price(beer.getPrice())
                 .quantityOnHand(beer.getQuantityOnHand())
+                .abv(beer.getAbv())
+                .ibu(beer.getIbu())
+                .breweryId(beer.getBreweryId())
+                .ounces(beer.getOunces())
+                .city(beer.getCity())
+                .state(stateCode(beer.getState()))
                 .build();
 
-        beerMap.put(savedBeer.getId(), savedBeer);
-        return savedBeer;
+        synchronized (writeLock) {
+            store(savedBeer);
+        }
+        return copy(savedBeer);
     }
 
     @Override
     public Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer) {
-        BeerDTO existing = beerMap.get(beerId);
-        existing.setBeerName(beer.getBeerName());
-        existing.setPrice(beer.getPrice());
-        existing.setUpc(beer.getUpc());
-        existing.setQuantityOnHand(beer.getQuantityOnHand());
+        synchronized (writeLock) {
+            BeerDTO existing = beerMap.get(beerId);
+            if (existing == null) {
+                return Optional.empty();
+            }
+            BeerDTO updated = existing.toBuilder()
+                    .beerName(beer.getBeerName())
+                    .beerStyle(beer.getBeerStyle())
+                    .price(beer.getPrice())
+                    .upc(beer.getUpc())
+                    .quantityOnHand(beer.getQuantityOnHand())
+                    .abv(beer.getAbv())
+                    .ibu(beer.getIbu())
+                    .breweryId(beer.getBreweryId())
+                    .ounces(beer.getOunces())
+                    .city(beer.getCity())
+                    .state(stateCode(beer.getState()))
+                    .version(nextVersion(existing))
+                    .updateDate(LocalDateTime.now())
+                    .build();
 
-        beerMap.put(existing.getId(), existing);
-        return Optional.of(existing);
+            store(updated);
+            return Optional.of(copy(updated));
+        }
     }
 
     @Override
     public Boolean deleteBeerById(UUID beerId) {
-        beerMap.remove(beerId);
-        return true;
+        synchronized (writeLock) {
+            BeerDTO removed = beerMap.remove(beerId);
+            if (removed == null) {
+                return false;
+            }
+            unindex(removed);
+            tombstones.add(Tombstone.builder()
+                    .entityType(TombstoneType.BEER)
+                    .entityId(beerId)
+                    .deletedDate(LocalDateTime.now())
+                    .build());
+            return true;
+        }
+    }
+
+    @Override
+    public DeltaPage<BeerDTO> getBeerChanges(LocalDateTime modifiedSince, UUID afterId, Integer limit) {
+        return DeltaSync.merge(modifiedSince, DeltaSync.afterId(afterId), DeltaSync.limit(limit),
+                beerMap.values().stream()
+                        .filter(beer -> DeltaSync.isAfter(beer.getUpdateDate(), beer.getId(), modifiedSince, afterId))
+                        .map(BeerServiceImpl::copy)
+                        .toList(),
+                BeerDTO::getUpdateDate, BeerDTO::getId,
+                tombstones.stream()
+                        .filter(tombstone -> DeltaSync.isAfter(tombstone.getDeletedDate(), tombstone.getEntityId(),
+                                modifiedSince, afterId))
+                        .toList());
     }
 
     @Override
     public Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beer) {
-        BeerDTO existing = beerMap.get(beerId);
+        synchronized (writeLock) {
+            BeerDTO existing = beerMap.get(beerId);
+            if (existing == null) {
+                return Optional.empty();
+            }
+            BeerDTO.BeerDTOBuilder patched = existing.toBuilder();
+
+            if (StringUtils.hasText(beer.getBeerName())) {
+                patched.beerName(beer.getBeerName());
+            }
+
+            if (beer.getBeerStyle() != null) {
+                patched.beerStyle(beer.getBeerStyle());
+            }
+
+            if (beer.getPrice() != null) {
+                patched.price(beer.getPrice());
+            }
+
+            if( beer.getQuantityOnHand() != null ) {
+                patched.quantityOnHand(beer.getQuantityOnHand());
+            }
+
+            if( StringUtils.hasText(beer.getUpc()) ) {
+                patched.upc(beer.getUpc());
+            }
+
+            if (beer.getAbv() != null) {
+                patched.abv(beer.getAbv());
+            }
+
+            if (beer.getIbu() != null) {
+                patched.ibu(beer.getIbu());
+            }
+
+            if (beer.getBreweryId() != null) {
+                patched.breweryId(beer.getBreweryId());
+            }
+
+            if (beer.getOunces() != null) {
+                patched.ounces(beer.getOunces());
+            }
 
-        if (StringUtils.hasText(beer.getBeerName())) {
-            existing.setBeerName(beer.getBeerName());
+            if (StringUtils.hasText(beer.getCity())) {
+                patched.city(beer.getCity());
+            }
+
+            if (StringUtils.hasText(beer.getState())) {
+                patched.state(stateCode(beer.getState()));
+            }
+
+            BeerDTO updated = patched
+                    .version(nextVersion(existing))
+                    .updateDate(LocalDateTime.now())
+                    .build();
+
+            store(updated);
+            return Optional.of(copy(updated));
         }
+    }
 
-        if (beer.getBeerStyle() != null) {
-            existing.setBeerStyle(beer.getBeerStyle());
+    // Caller holds writeLock. The new index entries are added before the old ones are removed,
+    // so a concurrent listing never misses the beer, it can only see a stale entry and skip it.
+    private void store(BeerDTO beer) {
+        BeerDTO previous = beerMap.put(beer.getId(), beer);
+        NameKey key = NameKey.of(beer);
+        nameIndex.add(key);
+        if (beer.getBeerStyle() != null && styleIndex.get(beer.getBeerStyle()).add(key)) {
+            styleCounts.get(beer.getBeerStyle()).incrementAndGet();
         }
 
-        if (beer.getPrice() != null) {
-            existing.setPrice(beer.getPrice());
+        if (previous != null) {
+            NameKey previousKey = NameKey.of(previous);
+            boolean keyChanged = !previousKey.equals(key);
+            if (keyChanged) {
+                nameIndex.remove(previousKey);
+            }
+            if (previous.getBeerStyle() != null && (keyChanged || previous.getBeerStyle() != beer.getBeerStyle())
+                    && styleIndex.get(previous.getBeerStyle()).remove(previousKey)) {
+                styleCounts.get(previous.getBeerStyle()).decrementAndGet();
+            }
         }
+    }
+
+    // caller holds writeLock
+    private void unindex(BeerDTO beer) {
+        NameKey key = NameKey.of(beer);
+        nameIndex.remove(key);
+        if (beer.getBeerStyle() != null && styleIndex.get(beer.getBeerStyle()).remove(key)) {
+            styleCounts.get(beer.getBeerStyle()).decrementAndGet();
+        }
+    }
+
+    // the STATE filter compares upper case codes
+    private static String stateCode(String state) {
+        return state != null ? state.toUpperCase(Locale.ROOT) : null;
+    }
+
+    private static Integer nextVersion(BeerDTO beer) {
+        return beer.getVersion() != null ? beer.getVersion() + 1 : 1;
+    }
 
-        if( beer.getQuantityOnHand() != null ) {
-            existing.setQuantityOnHand(beer.getQuantityOnHand());
+    private static BeerDTO view(BeerDTO beer, Boolean showInventory) {
+        BeerDTO view = copy(beer);
+        if (showInventory != null && !showInventory) {
+            view.setQuantityOnHand(null);
         }
+        return view;
+    }
 
-        if( StringUtils.hasText(beer.getUpc()) ) {
-            existing.setUpc(beer.getUpc());
+    private static BeerDTO copy(BeerDTO beer) {
+        return beer.toBuilder().build();
+    }
+
+    // listing order: case-insensitive name, then the exact name and the id as tie breakers
+    private record NameKey(String lowerName, String name, UUID id) implements Comparable<NameKey> {
+
+        private static final Comparator<NameKey> ORDER = Comparator.comparing(NameKey::lowerName)
+                .thenComparing(NameKey::name)
+                .thenComparing(NameKey::id);
+
+        static NameKey of(BeerDTO beer) {
+            String name = beer.getBeerName() != null ? beer.getBeerName() : "";
+            return new NameKey(name.toLowerCase(Locale.ROOT), name, beer.getId());
         }
 
-        return Optional.of(existing);
+        @Override
+        public int compareTo(NameKey other) {
+            return ORDER.compare(this, other);
+        }
     }
 }
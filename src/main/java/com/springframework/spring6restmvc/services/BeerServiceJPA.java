@@ -1,56 +1,75 @@
 package com.springframework.spring6restmvc.services;
 
 import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.entities.Tombstone;
+import com.springframework.spring6restmvc.events.BeerChangeType;
+import com.springframework.spring6restmvc.events.BeerChangedEvent;
 import com.springframework.spring6restmvc.mappers.BeerMapper;
+import com.springframework.spring6restmvc.model.BatchGetResult;
 import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerField;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
 import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.model.DeltaPage;
+import com.springframework.spring6restmvc.model.TombstoneType;
 import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.repositories.TombstoneRepository;
+import com.springframework.spring6restmvc.stats.BeerStyleFacets;
+import jakarta.persistence.Tuple;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 @Service
 @Primary
+@Profile("!inmemory") // the inmemory profile serves beers from BeerServiceImpl
 @RequiredArgsConstructor
 public class BeerServiceJPA implements BeerService {
     private final BeerRepository beerRepository;
+    private final TombstoneRepository tombstoneRepository;
     private final BeerMapper beerMapper;
-
-    private static final int DEFAULT_PAGE = 0;
-    private static final int DEFAULT_PAGE_SIZE = 25;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BeerStyleFacets beerStyleFacets;
+    private final BeerTotals beerTotals;
+    private final WriteRetry writeRetry;
+    private final DeltaSyncLag deltaSyncLag;
 
     @Override
-    public Page<BeerDTO> getAllBears(String beerName, BeerStyle beerStyle, Boolean showInventory,
+    public Page<BeerDTO> getAllBears(BeerSearchCriteria criteria, Boolean showInventory,
                                      Integer pageNumber, Integer pageSize) {
 
-        PageRequest pageRequest = buildPageRequest(pageNumber, pageSize);
-        Page<Beer> beerPage;
+        PageRequest pageRequest = BeerPaging.buildPageRequest(pageNumber, pageSize, criteria.getSortBy());
 
         // find in a database (prefilled by bootstrap)
-        if (StringUtils.hasText(beerName) && beerStyle == null) {
-            beerPage = listBeersByName(beerName, pageRequest);
-        } else if (!StringUtils.hasText(beerName) && beerStyle != null) {
-            beerPage = listBeersByStyle(beerStyle, pageRequest);
-        } else if (StringUtils.hasText(beerName) && beerStyle != null) {
-            beerPage = listBeersByNameAndStyle(beerName, beerStyle, pageRequest);
-        } else {
-            beerPage = beerRepository.findAll(pageRequest);
-        }
-
+        Page<BeerDTO> dtoPage = beerTotals.page(() -> beerRepository.findPage(criteria, pageRequest), pageRequest,
+                        criteria)
+                .map(beerMapper::beerToBeerDto);
+        // cleared on the DTOs, clearing it on the entities would write null back inside a surrounding transaction
         if (showInventory != null && !showInventory) {
-            beerPage.forEach(beer -> beer.setQuantityOnHand(null));
+            dtoPage.forEach(beer -> beer.setQuantityOnHand(null));
         }
-        return beerPage.map(beerMapper::beerToBeerDto);
+        return dtoPage;
 
         // convert to DTOs
 //        return beerPage.stream()
@@ -58,41 +77,43 @@ public class BeerServiceJPA implements BeerService {
 //                .collect(Collectors.toList());
     }
 
-    public PageRequest buildPageRequest(Integer pageNumber, Integer pageSize) {
-        int queryPageNumber;
-        int queryPageSize;
-
-        if (pageNumber != null && pageNumber > 0) {
-            queryPageNumber = pageNumber - 1;
-        } else {
-            queryPageNumber = DEFAULT_PAGE;
+    // Reads only the requested columns with a tuple query instead of loading whole Beer entities.
+    // id is always selected so that every row can still be addressed by the client.
+    @Override
+    public Page<Map<String, Object>> getAllBeerFields(BeerSearchCriteria criteria, Set<BeerField> fields,
+                                                      Boolean showInventory, Integer pageNumber, Integer pageSize) {
+        PageRequest pageRequest = BeerPaging.buildPageRequest(pageNumber, pageSize, criteria.getSortBy());
+        List<BeerField> selectedFields = new ArrayList<>(fields);
+        if (!selectedFields.contains(BeerField.ID)) {
+            selectedFields.add(BeerField.ID);
         }
-
-        if (pageSize == null) {
-            queryPageSize = DEFAULT_PAGE_SIZE;
-        } else {
-            if (pageSize > 1000) {
-                queryPageSize = 1000;
-            } else {
-                queryPageSize = pageSize;
-            }
+        if (showInventory != null && !showInventory) {
+            selectedFields.remove(BeerField.QUANTITY_ON_HAND);
         }
+        selectedFields.sort(null);
 
-        Sort sort = Sort.by(Sort.Order.asc("beerName"));
-
-        return PageRequest.of(queryPageNumber, queryPageSize, sort);
-    }
-
-    private Page<Beer> listBeersByNameAndStyle(String beerName, BeerStyle beerStyle, PageRequest pageRequest) {
-        return beerRepository.findAllByBeerNameIsLikeIgnoreCaseAndBeerStyle("%" + beerName + "%", beerStyle, pageRequest);
+        Supplier<List<Tuple>> rows = () -> beerRepository.findFieldsPage(criteria, selectedFields, pageRequest);
+        return beerTotals.page(rows, pageRequest, criteria)
+                .map(tuple -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    selectedFields.forEach(field -> row.put(field.getProperty(), tuple.get(field.getProperty())));
+                    return row;
+                });
     }
 
-    private Page<Beer> listBeersByStyle(BeerStyle beerStyle, PageRequest pageRequest) {
-        return beerRepository.findAllByBeerStyle(beerStyle, pageRequest);
-    }
-
-    public Page<Beer> listBeersByName(String beerName, PageRequest pageRequest){
-        return beerRepository.findAllByBeerNameIsLikeIgnoreCase("%" + beerName + "%", pageRequest);
+    // the unfiltered counts are maintained in memory, a name filter needs one GROUP BY query
+    @Override
+    public Map<BeerStyle, Long> getStyleCounts(String beerName) {
+        if (!StringUtils.hasText(beerName)) {
+            return beerStyleFacets.getCounts();
+        }
+        Map<BeerStyle, Long> counts = new EnumMap<>(BeerStyle.class);
+        for (BeerStyle style : BeerStyle.values()) {
+            counts.put(style, 0L);
+        }
+        beerRepository.countByBeerStyleAndBeerNameLike("%" + beerName.toUpperCase(Locale.ROOT) + "%")
+                .forEach(row -> counts.put(row.getBeerStyle(), row.getCount()));
+        return counts;
     }
 
     @Override
@@ -101,6 +122,15 @@ public class BeerServiceJPA implements BeerService {
                 .orElse(null)));
     }
 
+    // a single IN query; in_clause_parameter_padding keeps the number of distinct statements small
+    @Override
+    public BatchGetResult<BeerDTO> getBeersByIds(List<UUID> ids) {
+        List<BeerDTO> beers = beerRepository.findAllById(new LinkedHashSet<>(ids)).stream()
+                .map(beerMapper::beerToBeerDto)
+                .toList();
+        return BatchGetResult.of(ids, beers, BeerDTO::getId);
+    }
+
     // 1. beerMapper.beerDtoToBeer(beer) — converts the DTO into a Beer entity.
     //    Hibernate will generate the UUID (id) during the save operation,
     //    and the version field will be initialized to 0 upon the first save.
@@ -110,7 +140,25 @@ public class BeerServiceJPA implements BeerService {
     //    and returns it to the client with the generated id and version.
     @Override
     public BeerDTO saveBeer(BeerDTO beer) {
-        return beerMapper.beerToBeerDto(beerRepository.save(beerMapper.beerDtoToBeer(beer)));
+        Beer newBeer = beerMapper.beerDtoToBeer(beer);
+        newBeer.setState(stateCode(beer.getState()));
+        BeerDTO savedBeer = beerMapper.beerToBeerDto(beerRepository.save(newBeer));
+        publish(BeerChangeType.CREATED, savedBeer, null);
+        return savedBeer;
+    }
+
+    // the STATE filter compares upper case codes
+    private static String stateCode(String state) {
+        return state != null ? state.toUpperCase(Locale.ROOT) : null;
+    }
+
+    private void publish(BeerChangeType type, BeerDTO beer, BeerStyle previousBeerStyle) {
+        eventPublisher.publishEvent(BeerChangedEvent.builder()
+                .type(type)
+                .beerId(beer.getId())
+                .beer(beer)
+                .previousBeerStyle(previousBeerStyle)
+                .build());
     }
 
     // Previously, the BeerController always returned status 201, and this method returned void
@@ -122,8 +170,14 @@ public class BeerServiceJPA implements BeerService {
     // Accordingly, the service now returns a result:
     //   • Optional.of(updatedBeerDTO) → if the update was successful
     //   • Optional.empty() → if the record was not found
+    //
+    // A PUT writes the same state however often it is repeated, so a lost optimistic lock race is retried.
     @Override
     public Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer) {
+        return writeRetry.execute("beer", () -> updateBeer(beerId, beer));
+    }
+
+    private Optional<BeerDTO> updateBeer(UUID beerId, BeerDTO beer) {
         AtomicReference<Optional<BeerDTO>> atomicReference = new AtomicReference<>();
 
         // Since ifPresentOrElse does not return a value and only performs actions,
@@ -131,33 +185,72 @@ public class BeerServiceJPA implements BeerService {
         // that’s why an AtomicReference is used here.
         beerRepository.findById(beerId)
                 .ifPresentOrElse(foundBeer -> {
+                    BeerStyle previousBeerStyle = foundBeer.getBeerStyle();
                     foundBeer.setBeerName(beer.getBeerName());
                     foundBeer.setBeerStyle(beer.getBeerStyle());
                     foundBeer.setUpc(beer.getUpc());
                     foundBeer.setPrice(beer.getPrice());
                     foundBeer.setQuantityOnHand(beer.getQuantityOnHand());
-                    atomicReference.set(Optional.of(beerMapper
-                            .beerToBeerDto(beerRepository.save(foundBeer))));
+                    foundBeer.setAbv(beer.getAbv());
+                    foundBeer.setIbu(beer.getIbu());
+                    foundBeer.setBreweryId(beer.getBreweryId());
+                    foundBeer.setOunces(beer.getOunces());
+                    foundBeer.setCity(beer.getCity());
+                    foundBeer.setState(stateCode(beer.getState()));
+                    BeerDTO updatedBeer = beerMapper.beerToBeerDto(beerRepository.save(foundBeer));
+                    publish(BeerChangeType.UPDATED, updatedBeer, previousBeerStyle);
+                    atomicReference.set(Optional.of(updatedBeer));
                 }, () -> atomicReference.set(Optional.empty()));
 
         return atomicReference.get();
     }
 
+    // the tombstone is written in the same transaction, so delta sync never misses a committed delete
     @Override
+    @Transactional
     public Boolean deleteBeerById(UUID beerId) {
-        if (beerRepository.existsById(beerId)) {
-            beerRepository.deleteById(beerId);
-            return true;
-        }
-        return false;
+        // loads the beer instead of existsById, the change feed needs the removed state
+        return beerRepository.findById(beerId)
+                .map(foundBeer -> {
+                    beerRepository.delete(foundBeer);
+                    tombstoneRepository.save(Tombstone.builder()
+                            .entityType(TombstoneType.BEER)
+                            .entityId(beerId)
+                            .build());
+                    publish(BeerChangeType.DELETED, beerMapper.beerToBeerDto(foundBeer), foundBeer.getBeerStyle());
+                    return true;
+                })
+                .orElse(false);
     }
 
+    @Override
+    public DeltaPage<BeerDTO> getBeerChanges(LocalDateTime modifiedSince, UUID afterId, Integer limit) {
+        int stepSize = DeltaSync.limit(limit);
+        UUID after = DeltaSync.afterId(afterId);
+        // one row more than needed from each side tells whether another step follows
+        List<BeerDTO> changed = beerRepository.findModifiedAfter(modifiedSince, after, Limit.of(stepSize + 1))
+                .stream()
+                .map(beerMapper::beerToBeerDto)
+                .toList();
+        List<Tombstone> deleted = tombstoneRepository.findDeletedAfter(TombstoneType.BEER, modifiedSince, after,
+                Limit.of(stepSize + 1));
+
+        return DeltaSync.merge(modifiedSince, after, stepSize, changed, BeerDTO::getUpdateDate, BeerDTO::getId,
+                deleted, deltaSyncLag.settledBefore());
+    }
+
+    // only sets the given fields, so retrying it is as safe as retrying an update
     @Override
     public Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beer) {
+        return writeRetry.execute("beer", () -> patchBeer(beerId, beer));
+    }
+
+    private Optional<BeerDTO> patchBeer(UUID beerId, BeerDTO beer) {
         AtomicReference<Optional<BeerDTO>> atomicReference = new AtomicReference<>();
 
         beerRepository.findById(beerId)
                 .ifPresentOrElse(foundBeer -> {
+                    BeerStyle previousBeerStyle = foundBeer.getBeerStyle();
                     if (StringUtils.hasText(beer.getBeerName())) {
                         foundBeer.setBeerName(beer.getBeerName());
                     }
@@ -173,8 +266,27 @@ public class BeerServiceJPA implements BeerService {
                     if (beer.getQuantityOnHand() != null) {
                         foundBeer.setQuantityOnHand(beer.getQuantityOnHand());
                     }
-                    atomicReference.set(Optional.of(beerMapper
-                            .beerToBeerDto(beerRepository.save(foundBeer))));
+                    if (beer.getAbv() != null) {
+                        foundBeer.setAbv(beer.getAbv());
+                    }
+                    if (beer.getIbu() != null) {
+                        foundBeer.setIbu(beer.getIbu());
+                    }
+                    if (beer.getBreweryId() != null) {
+                        foundBeer.setBreweryId(beer.getBreweryId());
+                    }
+                    if (beer.getOunces() != null) {
+                        foundBeer.setOunces(beer.getOunces());
+                    }
+                    if (StringUtils.hasText(beer.getCity())) {
+                        foundBeer.setCity(beer.getCity());
+                    }
+                    if (StringUtils.hasText(beer.getState())) {
+                        foundBeer.setState(stateCode(beer.getState()));
+                    }
+                    BeerDTO patchedBeer = beerMapper.beerToBeerDto(beerRepository.save(foundBeer));
+                    publish(BeerChangeType.PATCHED, patchedBeer, previousBeerStyle);
+                    atomicReference.set(Optional.of(patchedBeer));
                 }, () -> atomicReference.set(Optional.empty()));
 
         return atomicReference.get();
@@ -0,0 +1,180 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.events.BeerChangedEvent;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
+import com.springframework.spring6restmvc.model.CountedPage;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.repositories.TableStatistics;
+import com.springframework.spring6restmvc.stats.BeerStyleFacets;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/** Totals of the BeerServiceJPA listings.
+ * Counts are cached per normalized filter until the next beer write or for beer.count.cache-ttl, which bounds
+ * how long writes that bypass the service stay unnoticed. Once the table statistics estimate more than
+ * beer.count.exact-threshold rows, unfiltered listings take that estimate and style-only listings the
+ * BeerStyleFacets counters instead of counting; such pages are marked as not exact. When a count is needed
+ * and ParallelPageQueries allows it, the count runs next to the content query instead of after it.
+ */
+@Component
+@Profile("!inmemory")
+class BeerTotals {
+
+    static final int MAX_CACHED_COUNTS = 1024;
+
+    private static final BeerSearchCriteria UNFILTERED = new BeerSearchCriteria();
+
+    private final BeerRepository beerRepository;
+    private final BeerStyleFacets beerStyleFacets;
+    private final TableStatistics tableStatistics;
+    private final ParallelPageQueries parallelPageQueries;
+    private final long exactThreshold;
+    private final long ttlNanos;
+
+    private final Map<BeerSearchCriteria, CachedCount> counts = new ConcurrentHashMap<>();
+    // a count is only cached for the generation it was started in, so one that raced a write is dropped
+    private final AtomicLong generation = new AtomicLong();
+    private volatile CachedCount tableEstimate;
+
+    BeerTotals(BeerRepository beerRepository, BeerStyleFacets beerStyleFacets, TableStatistics tableStatistics,
+               ParallelPageQueries parallelPageQueries,
+               @Value("${beer.count.exact-threshold:1000000}") long exactThreshold,
+               @Value("${beer.count.cache-ttl:PT1M}") Duration ttl) {
+        this.beerRepository = beerRepository;
+        this.beerStyleFacets = beerStyleFacets;
+        this.tableStatistics = tableStatistics;
+        this.parallelPageQueries = parallelPageQueries;
+        this.exactThreshold = exactThreshold;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /** Same shortcuts as PageableExecutionUtils: a page that is not full tells the total without a count. */
+    <T> CountedPage<T> page(List<T> content, Pageable pageable, BeerSearchCriteria criteria) {
+        if (pageable.getOffset() == 0 && content.size() < pageable.getPageSize()) {
+            return new CountedPage<>(content, pageable, content.size(), true);
+        }
+        if (!content.isEmpty() && content.size() < pageable.getPageSize()) {
+            return new CountedPage<>(content, pageable, pageable.getOffset() + content.size(), true);
+        }
+        BeerSearchCriteria key = normalize(criteria);
+        Total total = knownTotal(key);
+        if (total == null) {
+            total = new Total(count(key), true);
+        }
+        return new CountedPage<>(content, pageable, total.count(), total.exact());
+    }
+
+    // the content query is only started here, so that it can run next to the count
+    <T> CountedPage<T> page(Supplier<List<T>> content, Pageable pageable, BeerSearchCriteria criteria) {
+        BeerSearchCriteria key = normalize(criteria);
+        if (knownTotal(key) == null) {
+            CountedPage<T> page = parallelPageQueries.page(content, () -> count(key), pageable);
+            if (page != null) {
+                return page;
+            }
+        }
+        return page(content.get(), pageable, criteria);
+    }
+
+    // an estimated or cached total, null when the total has to be counted
+    private Total knownTotal(BeerSearchCriteria key) {
+        if (key.equals(UNFILTERED) || key.equals(BeerSearchCriteria.builder().beerStyle(key.getBeerStyle()).build())) {
+            Long estimate = estimatedRows();
+            if (estimate != null && estimate > exactThreshold) {
+                return new Total(key.getBeerStyle() == null ? estimate
+                        : beerStyleFacets.getCounts().get(key.getBeerStyle()), false);
+            }
+        }
+        CachedCount cached = counts.get(key);
+        return cached != null && cached.isValid(generation.get()) ? new Total(cached.count(), true) : null;
+    }
+
+    // Right away so that reads inside the writing transaction see their own write, and again after the
+    // commit, because a count started in between cannot see the write yet.
+    @EventListener
+    public void onBeerChanged(BeerChangedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void afterBeerChanged(BeerChangedEvent event) {
+        invalidate();
+    }
+
+    private void invalidate() {
+        generation.incrementAndGet();
+        counts.clear();
+    }
+
+    private long count(BeerSearchCriteria key) {
+        long currentGeneration = generation.get();
+        CachedCount cached = counts.get(key);
+        if (cached != null && cached.isValid(currentGeneration)) {
+            return cached.count();
+        }
+        long count = beerRepository.countMatching(key);
+        if (counts.size() < MAX_CACHED_COUNTS) {
+            counts.put(key, new CachedCount(count, currentGeneration, System.nanoTime() + ttlNanos));
+        }
+        return count;
+    }
+
+    private Long estimatedRows() {
+        CachedCount cached = tableEstimate;
+        if (cached != null && cached.isFresh()) {
+            return cached.count();
+        }
+        Long estimate = tableStatistics.estimateRowCount("beer");
+        tableEstimate = estimate != null ? new CachedCount(estimate, 0, System.nanoTime() + ttlNanos) : null;
+        return estimate;
+    }
+
+    // the same filter written differently ("ipa" and "IPA", 5 and 5.00, with and without sortBy) shares an entry
+    private static BeerSearchCriteria normalize(BeerSearchCriteria criteria) {
+        return criteria.toBuilder()
+                .beerName(StringUtils.hasText(criteria.getBeerName())
+                        ? criteria.getBeerName().toUpperCase(Locale.ROOT) : null)
+                .state(StringUtils.hasText(criteria.getState())
+                        ? criteria.getState().trim().toUpperCase(Locale.ROOT) : null)
+                .city(StringUtils.hasText(criteria.getCity()) ? criteria.getCity().trim() : null)
+                .minPrice(strip(criteria.getMinPrice()))
+                .maxPrice(strip(criteria.getMaxPrice()))
+                .minAbv(strip(criteria.getMinAbv()))
+                .maxAbv(strip(criteria.getMaxAbv()))
+                .sortBy(null)
+                .build();
+    }
+
+    private static BigDecimal strip(BigDecimal value) {
+        return value != null ? value.stripTrailingZeros() : null;
+    }
+
+    private record Total(long count, boolean exact) {
+    }
+
+    private record CachedCount(long count, long generation, long expiresAt) {
+
+        boolean isValid(long currentGeneration) {
+            return generation == currentGeneration && isFresh();
+        }
+
+        boolean isFresh() {
+            return expiresAt - System.nanoTime() > 0;
+        }
+    }
+}
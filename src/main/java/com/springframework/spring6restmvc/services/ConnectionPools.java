@@ -0,0 +1,30 @@
+package com.springframework.spring6restmvc.services;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+// checks for work that takes extra connections only when the pool can spare them
+@Slf4j
+final class ConnectionPools {
+
+    private ConnectionPools() {
+    }
+
+    /** Whether the Hikari pool has at least minIdle idle connections and nobody waiting for one. */
+    static boolean hasIdleConnections(DataSource dataSource, int minIdle) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                return pool != null && pool.getIdleConnections() >= minIdle
+                        && pool.getThreadsAwaitingConnection() == 0;
+            }
+        } catch (SQLException e) {
+            log.debug("Cannot inspect the connection pool: {}", e.getMessage());
+        }
+        return false; // an unknown pool is not worth the risk
+    }
+}
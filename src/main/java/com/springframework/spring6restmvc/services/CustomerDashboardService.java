@@ -0,0 +1,12 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.CustomerDashboard;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface CustomerDashboardService {
+
+    // The customer with recent orders, open shipments and totals; empty when the customer does not exist
+    Optional<CustomerDashboard> getDashboard(UUID customerId);
+}
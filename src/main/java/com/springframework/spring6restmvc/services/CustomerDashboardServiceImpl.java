@@ -0,0 +1,194 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.BeerOrderDTO;
+import com.springframework.spring6restmvc.model.BeerOrderPage;
+import com.springframework.spring6restmvc.model.CustomerDTO;
+import com.springframework.spring6restmvc.model.CustomerDashboard;
+import com.springframework.spring6restmvc.model.CustomerOrderTotals;
+import com.springframework.spring6restmvc.model.OpenShipmentDTO;
+import com.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import com.springframework.spring6restmvc.repositories.BeerOrderShipmentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/** Reads the sections of the customer dashboard at the same time instead of one after the other.
+ * Every section runs on a virtual thread in a read-only transaction of its own, so the response takes as
+ * long as the slowest section. A section gets customer.dashboard.section-timeout; when it fails or runs
+ * out of time the dashboard is returned without it, and a late section's thread is interrupted. The
+ * transaction timeout is set to the same budget, rounded up to whole seconds, so the database also cancels
+ * a query nobody waits for any more.
+ * Reading in parallel takes a connection per section, so it is only done when
+ * - the caller has no transaction, whose uncommitted writes the section threads could not see,
+ * - the Hikari pool has customer.dashboard.min-idle-connections idle and nobody waiting for one,
+ * - fewer than customer.dashboard.max-concurrent dashboards are being read in parallel.
+ * Otherwise the sections run one after the other on the calling thread.
+ */
+@Slf4j
+@Service
+@Profile("!inmemory")
+public class CustomerDashboardServiceImpl implements CustomerDashboardService {
+
+    static final int RECENT_ORDERS = 5;
+    static final int OPEN_SHIPMENTS = 20;
+    static final int SECTIONS = 4;
+
+    private final CustomerService customerService;
+    private final BeerOrderService beerOrderService;
+    private final BeerOrderRepository beerOrderRepository;
+    private final BeerOrderShipmentRepository beerOrderShipmentRepository;
+    private final TransactionTemplate readOnly;
+    private final DataSource dataSource;
+    private final long sectionTimeoutMillis;
+    private final int minIdleConnections;
+    // one permit per section, each given back when its thread is done
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public CustomerDashboardServiceImpl(CustomerService customerService, BeerOrderService beerOrderService,
+                                        BeerOrderRepository beerOrderRepository,
+                                        BeerOrderShipmentRepository beerOrderShipmentRepository,
+                                        PlatformTransactionManager transactionManager, DataSource dataSource,
+                                        @Value("${customer.dashboard.section-timeout:PT1S}") Duration sectionTimeout,
+                                        @Value("${customer.dashboard.min-idle-connections:4}") int minIdleConnections,
+                                        @Value("${customer.dashboard.max-concurrent:4}") int maxConcurrent) {
+        this.customerService = customerService;
+        this.beerOrderService = beerOrderService;
+        this.beerOrderRepository = beerOrderRepository;
+        this.beerOrderShipmentRepository = beerOrderShipmentRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.readOnly.setTimeout((int) Math.max(1, (sectionTimeout.toMillis() + 999) / 1000));
+        this.dataSource = dataSource;
+        this.sectionTimeoutMillis = sectionTimeout.toMillis();
+        this.minIdleConnections = minIdleConnections;
+        this.permits = new Semaphore(maxConcurrent * SECTIONS);
+    }
+
+    @Override
+    public Optional<CustomerDashboard> getDashboard(UUID customerId) {
+        boolean parallel = !TransactionSynchronizationManager.isActualTransactionActive()
+                && ConnectionPools.hasIdleConnections(dataSource, minIdleConnections)
+                && permits.tryAcquire(SECTIONS);
+        Section<Optional<CustomerDTO>> customer = start(parallel, () -> customerService.getCustomerById(customerId));
+        Section<List<BeerOrderDTO>> recentOrders = start(parallel, () -> beerOrderService
+                .getCustomerOrders(customerId, null, null, RECENT_ORDERS)
+                .map(BeerOrderPage::getOrders)
+                .orElse(List.of()));
+        Section<List<OpenShipmentDTO>> openShipments = start(parallel, () -> beerOrderShipmentRepository
+                .findOpenByCustomerId(customerId, Limit.of(OPEN_SHIPMENTS)));
+        Section<CustomerOrderTotals> totals = start(parallel, () -> beerOrderRepository
+                .getTotalsByCustomerId(customerId));
+
+        List<String> unavailable = new ArrayList<>();
+        Optional<CustomerDTO> found = result("customer", customer, unavailable);
+        if (found != null && found.isEmpty()) {
+            recentOrders.cancel();
+            openShipments.cancel();
+            totals.cancel();
+            return Optional.empty();
+        }
+        return Optional.of(CustomerDashboard.builder()
+                .customer(found != null ? found.get() : null)
+                .recentOrders(result("recentOrders", recentOrders, unavailable))
+                .openShipments(result("openShipments", openShipments, unavailable))
+                .totals(result("totals", totals, unavailable))
+                .unavailable(unavailable)
+                .build());
+    }
+
+    private <T> Section<T> start(boolean parallel, Supplier<T> query) {
+        Section<T> section = new Section<>();
+        if (!parallel) {
+            section.runInline(query);
+            return section;
+        }
+        section.future.orTimeout(sectionTimeoutMillis, TimeUnit.MILLISECONDS);
+        try {
+            executor.execute(() -> section.run(() -> readOnly.execute(status -> query.get())));
+        } catch (RuntimeException e) {
+            permits.release();
+            section.future.completeExceptionally(e);
+        }
+        return section;
+    }
+
+    // every section has its own deadline, so waiting for them in turn ends with the slowest one
+    private static <T> T result(String name, Section<T> section, List<String> unavailable) {
+        try {
+            return section.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                section.cancel();
+            }
+            log.warn("Customer dashboard section {} is unavailable: {}", name, e.getCause().toString());
+            unavailable.add(name);
+            return null;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    // a section read on a thread of its own, which can be interrupted once nobody waits for it
+    private final class Section<T> {
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private Thread thread;
+
+        void runInline(Supplier<T> query) {
+            try {
+                future.complete(query.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        void run(Supplier<T> query) {
+            try {
+                synchronized (this) {
+                    if (future.isDone()) {
+                        return; // timed out before it started
+                    }
+                    thread = Thread.currentThread();
+                }
+                runInline(query);
+            } finally {
+                synchronized (this) {
+                    thread = null;
+                    Thread.interrupted(); // an interrupt that came too late for the query
+                }
+                permits.release();
+            }
+        }
+
+        synchronized void cancel() {
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+}
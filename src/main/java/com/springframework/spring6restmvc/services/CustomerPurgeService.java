@@ -0,0 +1,16 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.CustomerPurgeStatus;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface CustomerPurgeService {
+
+    // Starts deleting the customer with all of its orders in the background, empty when there is no such
+    // customer. A purge that is already running is returned as it is.
+    Optional<CustomerPurgeStatus> startPurge(UUID customerId);
+
+    // Progress of the last purge of the customer started on this instance
+    Optional<CustomerPurgeStatus> getPurge(UUID customerId);
+}
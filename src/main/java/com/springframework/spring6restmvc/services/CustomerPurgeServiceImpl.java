@@ -0,0 +1,209 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.CustomerPurgeStatus;
+import com.springframework.spring6restmvc.model.PurgeState;
+import com.springframework.spring6restmvc.repositories.BeerOrderArchiveRepository;
+import com.springframework.spring6restmvc.repositories.BeerOrderKey;
+import com.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import com.springframework.spring6restmvc.repositories.CustomerRepository;
+import com.springframework.spring6restmvc.stats.SalesByStyleSummary;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/** Deletes a customer with its whole order history in the background, for customers with too many orders
+ * for deleteCustomerById. The orders go customer.purge.chunk-size at a time, newest first along the
+ * beer_order_customer_created_idx index, each chunk with its shipments and lines in a transaction of its own,
+ * so no chunk holds locks for long and nothing is loaded into memory. Each chunk also takes its lines back out
+ * of the sales_by_style_day summary, which then agrees with the reconciliation that recomputes days from the
+ * live lines. The customer's archived orders follow, chunk by chunk along beer_order_archive_customer_idx;
+ * their sales stay in the summary, as the archive keeps no beer styles to subtract and their days are past
+ * the reconciliation window. The customer itself is deleted last, through CustomerService so that it leaves
+ * a tombstone.
+ * The job keeps the database busy for at most customer.purge.load-budget of its running time: a chunk that
+ * took t is followed by a pause of t * (1 - budget) / budget. Progress is kept in memory on the instance
+ * that runs the purge. A failed purge is started again from what is left.
+ */
+@Slf4j
+@Service
+@Profile("!inmemory")
+public class CustomerPurgeServiceImpl implements CustomerPurgeService {
+
+    private final CustomerRepository customerRepository;
+    private final CustomerService customerService;
+    private final BeerOrderRepository beerOrderRepository;
+    private final OrderDeletion orderDeletion;
+    private final BeerOrderArchiveRepository beerOrderArchiveRepository;
+    private final SalesByStyleSummary salesByStyleSummary;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+    private final int chunkSize;
+    private final double loadBudget;
+    private final Map<UUID, Purge> purges = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CustomerPurgeServiceImpl(CustomerRepository customerRepository, CustomerService customerService,
+                                    BeerOrderRepository beerOrderRepository, OrderDeletion orderDeletion,
+                                    BeerOrderArchiveRepository beerOrderArchiveRepository,
+                                    SalesByStyleSummary salesByStyleSummary,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${customer.purge.chunk-size:200}") int chunkSize,
+                                    @Value("${customer.purge.load-budget:0.25}") double loadBudget) {
+        this(customerRepository, customerService, beerOrderRepository, orderDeletion, beerOrderArchiveRepository,
+                salesByStyleSummary, transactionManager, Executors.newVirtualThreadPerTaskExecutor(), chunkSize, loadBudget);
+    }
+
+    CustomerPurgeServiceImpl(CustomerRepository customerRepository, CustomerService customerService,
+                             BeerOrderRepository beerOrderRepository, OrderDeletion orderDeletion,
+                             BeerOrderArchiveRepository beerOrderArchiveRepository,
+                             SalesByStyleSummary salesByStyleSummary, PlatformTransactionManager transactionManager,
+                             Executor executor, int chunkSize, double loadBudget) {
+        if (loadBudget <= 0 || loadBudget > 1) {
+            throw new IllegalArgumentException("customer.purge.load-budget must be in (0, 1]: " + loadBudget);
+        }
+        this.customerRepository = customerRepository;
+        this.customerService = customerService;
+        this.beerOrderRepository = beerOrderRepository;
+        this.orderDeletion = orderDeletion;
+        this.beerOrderArchiveRepository = beerOrderArchiveRepository;
+        this.salesByStyleSummary = salesByStyleSummary;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.loadBudget = loadBudget;
+    }
+
+    @Override
+    public Optional<CustomerPurgeStatus> startPurge(UUID customerId) {
+        if (!customerRepository.existsById(customerId)) {
+            return Optional.empty();
+        }
+        Purge started = new Purge(customerId);
+        Purge purge = purges.compute(customerId, (id, current) ->
+                current != null && current.state == PurgeState.RUNNING ? current : started);
+        if (purge == started) {
+            executor.execute(() -> run(purge));
+        }
+        return Optional.of(purge.status());
+    }
+
+    @Override
+    public Optional<CustomerPurgeStatus> getPurge(UUID customerId) {
+        return Optional.ofNullable(purges.get(customerId)).map(Purge::status);
+    }
+
+    private void run(Purge purge) {
+        try {
+            purge.totalOrders = beerOrderRepository.countByCustomerId(purge.customerId);
+            while (true) {
+                long start = System.nanoTime();
+                OrderDeletion.Deleted deleted = transactionTemplate.execute(status -> deleteChunk(purge.customerId));
+                purge.ordersDeleted += deleted.orders();
+                purge.linesDeleted += deleted.lines();
+                purge.shipmentsDeleted += deleted.shipments();
+                if (deleted.orders() == 0) {
+                    break;
+                }
+                TimeUnit.NANOSECONDS.sleep(pauseNanos(System.nanoTime() - start, loadBudget));
+            }
+            while (true) {
+                long start = System.nanoTime();
+                int archived = transactionTemplate.execute(status -> deleteArchivedChunk(purge.customerId));
+                purge.archivedOrdersDeleted += archived;
+                if (archived == 0) {
+                    break;
+                }
+                TimeUnit.NANOSECONDS.sleep(pauseNanos(System.nanoTime() - start, loadBudget));
+            }
+            customerService.deleteCustomerById(purge.customerId);
+            purge.finish(PurgeState.COMPLETED, null);
+            log.debug("Purged customer {} with {} orders", purge.customerId, purge.ordersDeleted);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            purge.finish(PurgeState.FAILED, "interrupted");
+        } catch (RuntimeException e) {
+            log.warn("Purge of customer {} failed after {} orders", purge.customerId, purge.ordersDeleted, e);
+            purge.finish(PurgeState.FAILED, e.getMessage());
+        }
+    }
+
+    private OrderDeletion.Deleted deleteChunk(UUID customerId) {
+        List<UUID> ids = beerOrderRepository.findOrderKeys(customerId, Limit.of(chunkSize)).stream()
+                .map(BeerOrderKey::getId)
+                .toList();
+        salesByStyleSummary.removeOrders(ids);
+        return orderDeletion.delete(ids);
+    }
+
+    private int deleteArchivedChunk(UUID customerId) {
+        List<UUID> ids = beerOrderArchiveRepository.findIdsByCustomerId(customerId, Limit.of(chunkSize));
+        return ids.isEmpty() ? 0 : beerOrderArchiveRepository.deleteByIdIn(ids);
+    }
+
+    static long pauseNanos(long busyNanos, double loadBudget) {
+        return (long) (busyNanos * (1 - loadBudget) / loadBudget);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    // written by the purge thread only, read by status requests
+    private static class Purge {
+        private final UUID customerId;
+        private final LocalDateTime startedDate = LocalDateTime.now();
+        private volatile PurgeState state = PurgeState.RUNNING;
+        private volatile long totalOrders;
+        private volatile long ordersDeleted;
+        private volatile long linesDeleted;
+        private volatile long shipmentsDeleted;
+        private volatile long archivedOrdersDeleted;
+        private volatile LocalDateTime finishedDate;
+        private volatile String error;
+
+        Purge(UUID customerId) {
+            this.customerId = customerId;
+        }
+
+        void finish(PurgeState state, String error) {
+            this.error = error;
+            this.finishedDate = LocalDateTime.now();
+            this.state = state;
+        }
+
+        CustomerPurgeStatus status() {
+            return CustomerPurgeStatus.builder()
+                    .customerId(customerId)
+                    .state(state)
+                    .totalOrders(totalOrders)
+                    .ordersDeleted(ordersDeleted)
+                    .linesDeleted(linesDeleted)
+                    .shipmentsDeleted(shipmentsDeleted)
+                    .archivedOrdersDeleted(archivedOrdersDeleted)
+                    .startedDate(startedDate)
+                    .finishedDate(finishedDate)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.springframework.spring6restmvc.services;
 
+import com.springframework.spring6restmvc.model.BatchGetResult;
 import com.springframework.spring6restmvc.model.CustomerDTO;
+import com.springframework.spring6restmvc.model.DeltaPage;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,6 +15,9 @@ public interface CustomerService {
 
     Optional<CustomerDTO> getCustomerById(UUID id);
 
+    // The customers with the given ids in one lookup, ids that don't exist are listed as not found
+    BatchGetResult<CustomerDTO> getCustomersByIds(List<UUID> ids);
+
     CustomerDTO saveCustomer(CustomerDTO customer);
 
     Optional<CustomerDTO> updateCustomerById(UUID customerId, CustomerDTO customer);
@@ -19,4 +25,7 @@ public interface CustomerService {
     Boolean deleteCustomerById(UUID customerId);
 
     Optional<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customer);
+
+    // Rows changed and ids deleted after the (modifiedSince, afterId) watermark, oldest first
+    DeltaPage<CustomerDTO> getCustomerChanges(LocalDateTime modifiedSince, UUID afterId, Integer limit);
 }
@@ -1,6 +1,10 @@
 package com.springframework.spring6restmvc.services;
 
+import com.springframework.spring6restmvc.entities.Tombstone;
+import com.springframework.spring6restmvc.model.BatchGetResult;
 import com.springframework.spring6restmvc.model.CustomerDTO;
+import com.springframework.spring6restmvc.model.DeltaPage;
+import com.springframework.spring6restmvc.model.TombstoneType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -13,6 +17,7 @@ import java.util.*;
 public class CustomerServiceImpl implements CustomerService {
     
     private Map<UUID, CustomerDTO> customerMap;
+    private final List<Tombstone> tombstones = new ArrayList<>();
 
     public CustomerServiceImpl(){
         customerMap = new HashMap<>();
@@ -57,6 +62,16 @@ public class CustomerServiceImpl implements CustomerService {
         return Optional.of(customerMap.get(id));
     }
 
+    @Override
+    public BatchGetResult<CustomerDTO> getCustomersByIds(List<UUID> ids) {
+        List<CustomerDTO> customers = ids.stream()
+                .distinct()
+                .map(customerMap::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return BatchGetResult.of(ids, customers, CustomerDTO::getId);
+    }
+
     @Override
     public CustomerDTO saveCustomer(CustomerDTO customer) {
         CustomerDTO savedCustomer = CustomerDTO.builder()
@@ -84,9 +99,28 @@ public class CustomerServiceImpl implements CustomerService {
     @Override
     public Boolean deleteCustomerById(UUID customerId) {
         customerMap.remove(customerId);
+        tombstones.add(Tombstone.builder()
+                .entityType(TombstoneType.CUSTOMER)
+                .entityId(customerId)
+                .deletedDate(LocalDateTime.now())
+                .build());
         return true;
     }
 
+    @Override
+    public DeltaPage<CustomerDTO> getCustomerChanges(LocalDateTime modifiedSince, UUID afterId, Integer limit) {
+        return DeltaSync.merge(modifiedSince, DeltaSync.afterId(afterId), DeltaSync.limit(limit),
+                customerMap.values().stream()
+                        .filter(customer -> DeltaSync.isAfter(customer.getUpdateDate(), customer.getId(),
+                                modifiedSince, afterId))
+                        .toList(),
+                CustomerDTO::getUpdateDate, CustomerDTO::getId,
+                tombstones.stream()
+                        .filter(tombstone -> DeltaSync.isAfter(tombstone.getDeletedDate(), tombstone.getEntityId(),
+                                modifiedSince, afterId))
+                        .toList());
+    }
+
     @Override
     public Optional<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customer) {
         CustomerDTO existing = customerMap.get(customerId);
@@ -94,6 +128,7 @@ public class CustomerServiceImpl implements CustomerService {
         if (StringUtils.hasText(customer.getName())) {
             existing.setName(customer.getName());
         }
+        existing.setUpdateDate(LocalDateTime.now());
 
         return Optional.of(existing);
     }
@@ -1,13 +1,23 @@
 package com.springframework.spring6restmvc.services;
 
+import com.springframework.spring6restmvc.entities.Tombstone;
 import com.springframework.spring6restmvc.mappers.CustomerMapper;
+import com.springframework.spring6restmvc.model.BatchGetResult;
 import com.springframework.spring6restmvc.model.CustomerDTO;
+import com.springframework.spring6restmvc.model.DeltaPage;
+import com.springframework.spring6restmvc.model.TombstoneType;
 import com.springframework.spring6restmvc.repositories.CustomerRepository;
+import com.springframework.spring6restmvc.repositories.TombstoneRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,9 +28,13 @@ import java.util.stream.Collectors;
 @Service
 @Primary
 @RequiredArgsConstructor
+@Profile("!inmemory")
 public class CustomerServiceJPA implements CustomerService {
     private final CustomerRepository customerRepository; // the repository is already filled with bootstrap data
     private final CustomerMapper customerMapper;
+    private final TombstoneRepository tombstoneRepository;
+    private final WriteRetry writeRetry;
+    private final DeltaSyncLag deltaSyncLag;
 
     @Override
     public List<CustomerDTO> getAllCustomers() {
@@ -36,6 +50,14 @@ public class CustomerServiceJPA implements CustomerService {
                 .orElse(null)));
     }
 
+    @Override
+    public BatchGetResult<CustomerDTO> getCustomersByIds(List<UUID> ids) {
+        List<CustomerDTO> customers = customerRepository.findAllById(new LinkedHashSet<>(ids)).stream()
+                .map(customerMapper::customerToCustomerDto)
+                .toList();
+        return BatchGetResult.of(ids, customers, CustomerDTO::getId);
+    }
+
     @Override
     public CustomerDTO saveCustomer(CustomerDTO customer) {
         return customerMapper.customerToCustomerDto(customerRepository.save(customerMapper.customerDtoToCustomer(customer)));
@@ -43,6 +65,10 @@ public class CustomerServiceJPA implements CustomerService {
 
     @Override
     public Optional<CustomerDTO> updateCustomerById(UUID customerId, CustomerDTO customer) {
+        return writeRetry.execute("customer", () -> updateCustomer(customerId, customer));
+    }
+
+    private Optional<CustomerDTO> updateCustomer(UUID customerId, CustomerDTO customer) {
         AtomicReference<Optional<CustomerDTO>> atomicReference = new AtomicReference<>();
 
         customerRepository.findById(customerId)
@@ -55,16 +81,40 @@ public class CustomerServiceJPA implements CustomerService {
     }
 
     @Override
+    @Transactional
     public Boolean deleteCustomerById(UUID customerId) {
         if (customerRepository.existsById(customerId)) {
             customerRepository.deleteById(customerId);
+            tombstoneRepository.save(Tombstone.builder()
+                    .entityType(TombstoneType.CUSTOMER)
+                    .entityId(customerId)
+                    .build());
             return true;
         }
         return false;
     }
 
+    @Override
+    public DeltaPage<CustomerDTO> getCustomerChanges(LocalDateTime modifiedSince, UUID afterId, Integer limit) {
+        int stepSize = DeltaSync.limit(limit);
+        UUID after = DeltaSync.afterId(afterId);
+        List<CustomerDTO> changed = customerRepository.findModifiedAfter(modifiedSince, after, Limit.of(stepSize + 1))
+                .stream()
+                .map(customerMapper::customerToCustomerDto)
+                .toList();
+        List<Tombstone> deleted = tombstoneRepository.findDeletedAfter(TombstoneType.CUSTOMER, modifiedSince, after,
+                Limit.of(stepSize + 1));
+
+        return DeltaSync.merge(modifiedSince, after, stepSize, changed, CustomerDTO::getUpdateDate,
+                CustomerDTO::getId, deleted, deltaSyncLag.settledBefore());
+    }
+
     @Override
     public Optional<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customer) {
+        return writeRetry.execute("customer", () -> patchCustomer(customerId, customer));
+    }
+
+    private Optional<CustomerDTO> patchCustomer(UUID customerId, CustomerDTO customer) {
         AtomicReference<Optional<CustomerDTO>> atomicReference = new AtomicReference<>();
 
         customerRepository.findById(customerId).ifPresentOrElse(foundCustomer -> {
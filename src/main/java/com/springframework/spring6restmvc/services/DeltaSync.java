@@ -0,0 +1,93 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.entities.Tombstone;
+import com.springframework.spring6restmvc.model.DeltaPage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/** Shared watermark handling for the delta sync endpoints.
+ * Changed rows and tombstones are read separately (limit + 1 each) and merged here into one stream ordered by
+ * (timestamp, id), so a single watermark covers both. Ids are compared by their string form because they are
+ * stored as varchar(36) and that is the order the database uses. Entries at or after settledBefore are left
+ * out, together with everything after them, so the watermark never passes a change that may still be joined by
+ * one committing late with an earlier timestamp; see DeltaSyncLag.
+ */
+final class DeltaSync {
+
+    // sorts before every other id in string form, used when the client has no afterId yet
+    static final UUID MIN_ID = new UUID(0, 0);
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+
+    private static final Comparator<Entry> WATERMARK_ORDER = Comparator.comparing(Entry::timestamp)
+            .thenComparing(entry -> entry.id().toString());
+
+    private DeltaSync() {
+    }
+
+    static int limit(Integer limit) {
+        if (limit == null || limit < 1) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    static UUID afterId(UUID afterId) {
+        return afterId != null ? afterId : MIN_ID;
+    }
+
+    // in-memory services use this to apply the same watermark condition as the repository queries
+    static boolean isAfter(LocalDateTime timestamp, UUID id, LocalDateTime since, UUID afterId) {
+        int byTimestamp = timestamp.compareTo(since);
+        return byTimestamp > 0 || (byTimestamp == 0 && id.toString().compareTo(afterId(afterId).toString()) > 0);
+    }
+
+    // in-memory writes are visible the moment they are made, nothing has to settle
+    static <T> DeltaPage<T> merge(LocalDateTime since, UUID afterId, int limit, List<T> changed,
+                                  Function<T, LocalDateTime> timestampOf, Function<T, UUID> idOf,
+                                  List<Tombstone> tombstones) {
+        return merge(since, afterId, limit, changed, timestampOf, idOf, tombstones, LocalDateTime.MAX);
+    }
+
+    static <T> DeltaPage<T> merge(LocalDateTime since, UUID afterId, int limit, List<T> changed,
+                                  Function<T, LocalDateTime> timestampOf, Function<T, UUID> idOf,
+                                  List<Tombstone> tombstones, LocalDateTime settledBefore) {
+        List<Entry> entries = new ArrayList<>(changed.size() + tombstones.size());
+        changed.forEach(row -> entries.add(new Entry(timestampOf.apply(row), idOf.apply(row), row)));
+        tombstones.forEach(tombstone -> entries.add(new Entry(tombstone.getDeletedDate(), tombstone.getEntityId(), null)));
+        entries.removeIf(entry -> !entry.timestamp().isBefore(settledBefore));
+        entries.sort(WATERMARK_ORDER);
+
+        List<Entry> step = entries.subList(0, Math.min(limit, entries.size()));
+        List<T> changedRows = new ArrayList<>();
+        List<UUID> deletedIds = new ArrayList<>();
+        for (Entry entry : step) {
+            if (entry.row() != null) {
+                @SuppressWarnings("unchecked")
+                T row = (T) entry.row();
+                changedRows.add(row);
+            } else {
+                deletedIds.add(entry.id());
+            }
+        }
+
+        // nothing new keeps the watermark where it was
+        Entry last = step.isEmpty() ? new Entry(since, afterId, null) : step.get(step.size() - 1);
+        return DeltaPage.<T>builder()
+                .changed(changedRows)
+                .deleted(deletedIds)
+                .nextModifiedSince(last.timestamp())
+                .nextAfterId(last.id())
+                .hasMore(entries.size() > limit)
+                .build();
+    }
+
+    private record Entry(LocalDateTime timestamp, UUID id, Object row) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.springframework.spring6restmvc.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/** How old a change has to be before the JPA delta sync hands it out.
+ * updateDate and deletedDate are taken from the application clock when the row is flushed, and the
+ * transaction commits some time later. A change that commits after a client read past its timestamp would end
+ * up behind the client's watermark and never be sent. Changes newer than now minus delta-sync.settle-lag are
+ * therefore held back until every transaction that could still commit with an earlier timestamp is done; the
+ * lag has to cover the longest write transaction and the clock difference between instances.
+ */
+@Component
+@Profile("!inmemory")
+class DeltaSyncLag {
+
+    private final Duration settleLag;
+
+    DeltaSyncLag(@Value("${delta-sync.settle-lag:PT5S}") Duration settleLag) {
+        this.settleLag = settleLag;
+    }
+
+    LocalDateTime settledBefore() {
+        return LocalDateTime.now().minus(settleLag);
+    }
+}
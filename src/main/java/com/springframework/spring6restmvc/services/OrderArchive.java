@@ -0,0 +1,146 @@
+package com.springframework.spring6restmvc.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.springframework.spring6restmvc.entities.BeerOrder;
+import com.springframework.spring6restmvc.entities.BeerOrderArchive;
+import com.springframework.spring6restmvc.mappers.BeerOrderMapper;
+import com.springframework.spring6restmvc.model.BeerOrderDTO;
+import com.springframework.spring6restmvc.repositories.BeerOrderArchiveRepository;
+import com.springframework.spring6restmvc.repositories.BeerOrderKey;
+import com.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/** Moves shipped orders out of beer_order and beer_order_line once they are older than order.archive.retention.
+ * An archived order is kept as one JSON document of its BeerOrderDTO in beer_order_archive, which is only
+ * indexed by its primary key and customer_id (for customer purges), so the live tables stop growing without
+ * adding much to the cost of inserts.
+ * archive works through the shipped orders oldest first, order.archive.chunk-size at a time, and every chunk
+ * is archived and deleted in a transaction of its own: locks are held for a few short statements, and a run
+ * that stops halfway leaves each order either live or archived, so the next run simply carries on.
+ * find reads archived orders back by id. Archived orders are no longer part of a customer's order history,
+ * and the retention has to stay above sales.summary.reconcile-days, which recomputes days from live lines:
+ * a shorter one fails at startup instead of silently dropping archived orders from the sales summary.
+ */
+@Slf4j
+@Component
+@Profile("!inmemory")
+public class OrderArchive {
+
+    private static final Timestamp START = Timestamp.valueOf(LocalDateTime.of(1970, 1, 1, 0, 0));
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final BeerOrderRepository beerOrderRepository;
+    private final BeerOrderArchiveRepository beerOrderArchiveRepository;
+    private final BeerOrderMapper beerOrderMapper;
+    private final OrderDeletion orderDeletion;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int chunkSize;
+    // its own mapper, so the stored format does not follow changes to the web serialization settings
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    public OrderArchive(BeerOrderRepository beerOrderRepository,
+                        BeerOrderArchiveRepository beerOrderArchiveRepository, BeerOrderMapper beerOrderMapper,
+                        OrderDeletion orderDeletion, EntityManager entityManager, PlatformTransactionManager transactionManager,
+                        @Value("${order.archive.retention:P365D}") Duration retention,
+                        @Value("${order.archive.chunk-size:200}") int chunkSize,
+                        @Value("${sales.summary.reconcile-days:7}") int reconcileDays) {
+        // the reconciliation starts at midnight reconcile-days ago, an order created then must still be live
+        if (retention.compareTo(Duration.ofDays(reconcileDays + 1L)) < 0) {
+            throw new IllegalArgumentException("order.archive.retention " + retention + " must be at least "
+                    + "sales.summary.reconcile-days + 1 days (" + (reconcileDays + 1) + ")");
+        }
+        this.beerOrderRepository = beerOrderRepository;
+        this.beerOrderArchiveRepository = beerOrderArchiveRepository;
+        this.beerOrderMapper = beerOrderMapper;
+        this.orderDeletion = orderDeletion;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+    }
+
+    /** Archives every shipped order created before now minus the retention, returns how many. */
+    @Scheduled(cron = "${order.archive.cron:0 45 3 * * *}")
+    public int archive() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(retention));
+        Timestamp after = START;
+        UUID afterId = MIN_ID;
+        int archived = 0;
+        while (true) {
+            List<BeerOrderKey> keys = beerOrderRepository.findArchivable(cutoff, after, afterId, Limit.of(chunkSize));
+            if (keys.isEmpty()) {
+                break;
+            }
+            List<UUID> ids = keys.stream().map(BeerOrderKey::getId).toList();
+            archived += transactionTemplate.execute(status -> archiveChunk(ids));
+            BeerOrderKey last = keys.getLast();
+            after = last.getCreatedDate();
+            afterId = last.getId();
+            if (keys.size() < chunkSize) {
+                break;
+            }
+        }
+        log.debug("Archived {} orders created before {}", archived, cutoff);
+        return archived;
+    }
+
+    public Optional<BeerOrderDTO> find(UUID id) {
+        return beerOrderArchiveRepository.findById(id).map(archive -> read(archive.getDocument()));
+    }
+
+    private int archiveChunk(List<UUID> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        // read again inside the transaction: an order deleted or archived meanwhile is skipped
+        List<BeerOrder> orders = beerOrderRepository.findWithLinesByIdIn(ids);
+        for (BeerOrder order : orders) {
+            BeerOrderDTO dto = beerOrderMapper.beerOrderToBeerOrderDto(order);
+            entityManager.persist(BeerOrderArchive.builder()
+                    .id(dto.getId())
+                    .customerId(dto.getCustomerId())
+                    .createdDate(dto.getCreatedDate())
+                    .archivedDate(now)
+                    .document(write(dto))
+                    .build());
+        }
+        return orderDeletion.delete(orders.stream().map(BeerOrder::getId).toList()).orders();
+    }
+
+    private String write(BeerOrderDTO order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot archive order " + order.getId(), e);
+        }
+    }
+
+    private BeerOrderDTO read(String document) {
+        try {
+            return objectMapper.readValue(document, BeerOrderDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read archived order", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.repositories.BeerOrderLineRepository;
+import com.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import com.springframework.spring6restmvc.repositories.BeerOrderShipmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/** Deletes orders together with their shipments and lines with one bulk statement per table, without loading
+ * them. Runs in the caller's transaction, which decides how many orders are deleted under one set of locks.
+ */
+@Component
+@RequiredArgsConstructor
+@Profile("!inmemory")
+public class OrderDeletion {
+
+    private final BeerOrderRepository beerOrderRepository;
+    private final BeerOrderLineRepository beerOrderLineRepository;
+    private final BeerOrderShipmentRepository beerOrderShipmentRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Deleted delete(Collection<UUID> orderIds) {
+        if (orderIds.isEmpty()) {
+            return new Deleted(0, 0, 0);
+        }
+        beerOrderRepository.detachShipments(orderIds);
+        int shipments = beerOrderShipmentRepository.deleteByBeerOrderIdIn(orderIds);
+        int lines = beerOrderLineRepository.deleteByBeerOrderIdIn(orderIds);
+        int orders = beerOrderRepository.deleteByIdIn(orderIds);
+        return new Deleted(orders, lines, shipments);
+    }
+
+    public record Deleted(int orders, int lines, int shipments) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.BeerOrderDTO;
+import com.springframework.spring6restmvc.model.CustomerDTO;
+import com.springframework.spring6restmvc.model.Expansion;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+public interface OrderGraphService {
+
+    // The customer with what expand asks for embedded, see Expansion
+    Optional<CustomerDTO> getCustomer(UUID customerId, Set<Expansion> expand);
+
+    // The order with what expand asks for embedded in its lines; orders is implied
+    Optional<BeerOrderDTO> getOrder(UUID orderId, Set<Expansion> expand);
+}
@@ -0,0 +1,138 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.mappers.BeerMapper;
+import com.springframework.spring6restmvc.mappers.BeerOrderMapper;
+import com.springframework.spring6restmvc.mappers.CustomerMapper;
+import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerOrderDTO;
+import com.springframework.spring6restmvc.model.BeerOrderLineDTO;
+import com.springframework.spring6restmvc.model.CategoryDTO;
+import com.springframework.spring6restmvc.model.CustomerDTO;
+import com.springframework.spring6restmvc.model.Expansion;
+import com.springframework.spring6restmvc.repositories.BeerCategoryRow;
+import com.springframework.spring6restmvc.repositories.BeerOrderLineRepository;
+import com.springframework.spring6restmvc.repositories.BeerOrderLineRow;
+import com.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.repositories.CategoryRepository;
+import com.springframework.spring6restmvc.repositories.CustomerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/** Nested reads for expand=, one query per level however many orders, lines and beers there are.
+ * Each read walks the levels orders, lines, beers, categories with a BatchLoader per level: the keys of a
+ * whole level are collected first and then resolved with one IN query, so a beer on many lines is read and
+ * mapped once and all its lines share the same BeerDTO. The rows are read as projections rather than
+ * entities, whose eager associations would load one parent at a time again.
+ * A customer's orders are limited to the newest BeerOrderServiceImpl.MAX_LIMIT; the full history is paged
+ * by BeerOrderService.getCustomerOrders.
+ */
+@Service
+@RequiredArgsConstructor
+@Profile("!inmemory")
+public class OrderGraphServiceImpl implements OrderGraphService {
+
+    private final CustomerRepository customerRepository;
+    private final BeerOrderRepository beerOrderRepository;
+    private final BeerOrderLineRepository beerOrderLineRepository;
+    private final BeerRepository beerRepository;
+    private final CategoryRepository categoryRepository;
+    private final CustomerMapper customerMapper;
+    private final BeerOrderMapper beerOrderMapper;
+    private final BeerMapper beerMapper;
+    private final OrderArchive orderArchive;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CustomerDTO> getCustomer(UUID customerId, Set<Expansion> expand) {
+        Optional<CustomerDTO> customer = customerRepository.findById(customerId)
+                .map(customerMapper::customerToCustomerDto);
+        if (customer.isPresent() && !expand.isEmpty()) {
+            List<BeerOrderDTO> orders = beerOrderRepository.findRowsByCustomerId(customerId,
+                            Limit.of(BeerOrderServiceImpl.MAX_LIMIT)).stream()
+                    .map(beerOrderMapper::beerOrderRowToBeerOrderDto)
+                    .toList();
+            expandOrders(orders, expand);
+            customer.get().setBeerOrders(orders);
+        }
+        return customer;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BeerOrderDTO> getOrder(UUID orderId, Set<Expansion> expand) {
+        Optional<BeerOrderDTO> order = beerOrderRepository.findRowsByIdIn(List.of(orderId)).stream()
+                .map(beerOrderMapper::beerOrderRowToBeerOrderDto)
+                .findFirst();
+        if (order.isPresent()) {
+            expandOrders(List.of(order.get()), expand);
+            return order;
+        }
+        // an archived order comes with its lines, its beers are expanded from the live beers
+        Optional<BeerOrderDTO> archived = orderArchive.find(orderId);
+        archived.ifPresent(found -> expandLines(List.of(found), expand));
+        return archived;
+    }
+
+    private void expandOrders(List<BeerOrderDTO> orders, Set<Expansion> expand) {
+        BatchLoader<UUID, List<BeerOrderLineDTO>> lines = new BatchLoader<>(this::linesByOrder);
+        orders.forEach(order -> lines.load(order.getId(),
+                found -> order.setBeerOrderLines(found != null ? found : List.of())));
+        lines.dispatch();
+        expandLines(orders, expand);
+    }
+
+    private void expandLines(List<BeerOrderDTO> orders, Set<Expansion> expand) {
+        if (!expand.contains(Expansion.BEERS) && !expand.contains(Expansion.CATEGORIES)) {
+            return;
+        }
+        BatchLoader<UUID, BeerDTO> beers = new BatchLoader<>(this::beersById);
+        BatchLoader<UUID, List<CategoryDTO>> categories = new BatchLoader<>(this::categoriesByBeer);
+
+        List<BeerOrderLineDTO> allLines = orders.stream()
+                .flatMap(order -> order.getBeerOrderLines().stream())
+                .filter(line -> line.getBeerId() != null)
+                .toList();
+        allLines.forEach(line -> beers.load(line.getBeerId(), line::setBeer));
+        beers.dispatch();
+        if (!expand.contains(Expansion.CATEGORIES)) {
+            return;
+        }
+
+        allLines.stream()
+                .map(BeerOrderLineDTO::getBeer)
+                .filter(beer -> beer != null && beer.getCategories() == null)
+                .forEach(beer -> categories.load(beer.getId(),
+                        found -> beer.setCategories(found != null ? found : List.of())));
+        categories.dispatch();
+    }
+
+    private Map<UUID, List<BeerOrderLineDTO>> linesByOrder(Collection<UUID> orderIds) {
+        return beerOrderLineRepository.findRowsByBeerOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(BeerOrderLineRow::getBeerOrderId, Collectors.mapping(
+                        beerOrderMapper::beerOrderLineRowToBeerOrderLineDto, Collectors.toList())));
+    }
+
+    private Map<UUID, BeerDTO> beersById(Collection<UUID> beerIds) {
+        return beerRepository.findAllById(beerIds).stream()
+                .collect(Collectors.toMap(Beer::getId, beerMapper::beerToBeerDto));
+    }
+
+    private Map<UUID, List<CategoryDTO>> categoriesByBeer(Collection<UUID> beerIds) {
+        return categoryRepository.findByBeerIdIn(beerIds).stream()
+                .collect(Collectors.groupingBy(BeerCategoryRow::getBeerId, Collectors.mapping(
+                        beerMapper::beerCategoryRowToCategoryDto, Collectors.toList())));
+    }
+}
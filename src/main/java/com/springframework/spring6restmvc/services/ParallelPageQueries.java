@@ -0,0 +1,85 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.CountedPage;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/** Runs the content and the count query of a listing page at the same time.
+ * The count runs on a virtual thread and the content on the calling thread, each in a read-only transaction
+ * of its own and so on its own connection. Off unless beer.listing.parallel-count.enabled is set, and even
+ * then only used when
+ * - the caller has no transaction, whose uncommitted writes the count thread could not see,
+ * - the Hikari pool has min-idle-connections idle and nobody waiting for one,
+ * - fewer than max-concurrent parallel counts are running,
+ * so the extra connection never comes at the expense of other requests. Otherwise page returns null and the
+ * caller runs both queries one after the other.
+ */
+@Component
+@Profile("!inmemory")
+class ParallelPageQueries {
+
+    private final TransactionTemplate readOnly;
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final int minIdleConnections;
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    ParallelPageQueries(PlatformTransactionManager transactionManager, DataSource dataSource,
+                        @Value("${beer.listing.parallel-count.enabled:false}") boolean enabled,
+                        @Value("${beer.listing.parallel-count.min-idle-connections:2}") int minIdleConnections,
+                        @Value("${beer.listing.parallel-count.max-concurrent:4}") int maxConcurrent) {
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.minIdleConnections = minIdleConnections;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    <T> CountedPage<T> page(Supplier<List<T>> content, LongSupplier count, Pageable pageable) {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()
+                || !ConnectionPools.hasIdleConnections(dataSource, minIdleConnections) || !permits.tryAcquire()) {
+            return null;
+        }
+        CompletableFuture<Long> total;
+        try {
+            total = CompletableFuture.supplyAsync(() -> readOnly.execute(status -> count.getAsLong()), executor);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        total.whenComplete((result, error) -> permits.release());
+
+        List<T> rows = readOnly.execute(status -> content.get());
+        try {
+            return new CountedPage<>(rows, pageable, total.join(), true);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
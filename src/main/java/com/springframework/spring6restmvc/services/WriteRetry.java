@@ -0,0 +1,104 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.WriteConflictStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/** Server-side retry for idempotent writes that lost an optimistic lock race.
+ * Every attempt reads and writes in a fresh transaction. A conflict is retried up to
+ * write-retry.max-attempts in total, after a random pause between zero and write-retry.initial-backoff
+ * doubled per attempt (capped at write-retry.max-backoff), so competing writers spread out instead of
+ * colliding again. The last conflict is rethrown, and CustomErrorController answers it with 409 (Conflict).
+ * Inside a caller's transaction the write runs once: only the caller can restart it.
+ * Outcomes are counted per entity type, see getStats.
+ */
+@Slf4j
+@Component
+@Profile("!inmemory")
+public class WriteRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public WriteRetry(PlatformTransactionManager transactionManager,
+                      @Value("${write-retry.max-attempts:4}") int maxAttempts,
+                      @Value("${write-retry.initial-backoff:PT0.005S}") Duration initialBackoff,
+                      @Value("${write-retry.max-backoff:PT0.1S}") Duration maxBackoff) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    public <T> T execute(String entityType, Supplier<T> write) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return write.get();
+        }
+        Counters counted = counters.computeIfAbsent(entityType, type -> new Counters());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = transactionTemplate.execute(status -> write.get());
+                counted.writes.increment();
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                counted.conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    counted.exhausted.increment();
+                    throw e;
+                }
+                counted.retries.increment();
+                log.debug("Write conflict on {} (attempt {}), retrying", entityType, attempt);
+                pause(attempt, e);
+            }
+        }
+    }
+
+    public Map<String, WriteConflictStats> getStats() {
+        Map<String, WriteConflictStats> stats = new TreeMap<>();
+        counters.forEach((type, counted) -> stats.put(type, WriteConflictStats.builder()
+                .writes(counted.writes.sum())
+                .conflicts(counted.conflicts.sum())
+                .retries(counted.retries.sum())
+                .exhausted(counted.exhausted.sum())
+                .build()));
+        return stats;
+    }
+
+    // "full jitter": a uniform pause up to the exponential bound
+    private void pause(int attempt, OptimisticLockingFailureException conflict) {
+        long bound = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 30));
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(ThreadLocalRandom.current().nextLong(bound + 1)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder writes = new LongAdder();
+        final LongAdder conflicts = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LongAdder exhausted = new LongAdder();
+    }
+}
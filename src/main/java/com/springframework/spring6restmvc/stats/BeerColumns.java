@@ -0,0 +1,194 @@
+package com.springframework.spring6restmvc.stats;
+
+import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerStyle;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+/** Immutable column store of the figures behind the catalog statistics.
+ * Rows are laid out by style, so the rows of one style form a contiguous range and its aggregates are plain
+ * reduction loops over primitive arrays, which the JIT turns into SIMD code. Prices are held in cents and
+ * abv in hundredths of a percent, -1 when it is unknown.
+ */
+final class BeerColumns {
+
+    static final int STYLES = BeerStyle.values().length;
+
+    private static final int UNKNOWN_ABV = -1;
+
+    private final LocalDateTime builtAt;
+    private final UUID[] ids;
+    private final long[] priceCents;
+    private final int[] quantities;
+    private final int[] abv;
+    // rows of style s are [styleStart[s], styleStart[s + 1])
+    private final int[] styleStart;
+
+    private BeerColumns(LocalDateTime builtAt, UUID[] ids, long[] priceCents, int[] quantities, int[] abv,
+                        int[] styleStart) {
+        this.builtAt = builtAt;
+        this.ids = ids;
+        this.priceCents = priceCents;
+        this.quantities = quantities;
+        this.abv = abv;
+        this.styleStart = styleStart;
+    }
+
+    static BeerColumns empty() {
+        return new Builder(0).build();
+    }
+
+    static Builder builder(int expectedRows) {
+        return new Builder(expectedRows);
+    }
+
+    LocalDateTime builtAt() {
+        return builtAt;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    Totals totals() {
+        return totals(0, ids.length);
+    }
+
+    Totals totals(BeerStyle style) {
+        return totals(styleStart[style.ordinal()], styleStart[style.ordinal() + 1]);
+    }
+
+    /** Copies the unchanged rows into a new snapshot and adds the changed ones.
+     * A null value removes the beer, any other value is its state after the change.
+     */
+    BeerColumns apply(Map<UUID, BeerDTO> changes) {
+        Builder builder = new Builder(ids.length + changes.size());
+        for (int style = 0; style < STYLES; style++) {
+            for (int row = styleStart[style]; row < styleStart[style + 1]; row++) {
+                if (!changes.containsKey(ids[row])) {
+                    builder.addRow(ids[row], style, priceCents[row], quantities[row], abv[row]);
+                }
+            }
+        }
+        changes.forEach((id, beer) -> {
+            if (beer != null) {
+                builder.add(id, beer.getBeerStyle(), beer.getPrice(), beer.getQuantityOnHand(), beer.getAbv());
+            }
+        });
+        return builder.build();
+    }
+
+    // kept free of branches and calls so that the loops vectorize
+    private Totals totals(int from, int to) {
+        long priceSum = 0;
+        for (int row = from; row < to; row++) {
+            priceSum += priceCents[row];
+        }
+        long quantitySum = 0;
+        for (int row = from; row < to; row++) {
+            quantitySum += quantities[row];
+        }
+        long abvSum = 0;
+        int abvCount = 0;
+        for (int row = from; row < to; row++) {
+            int value = abv[row];
+            abvSum += Math.max(value, 0);
+            abvCount += ~value >>> 31; // 1 unless the value is UNKNOWN_ABV
+        }
+        return new Totals(to - from, priceSum, quantitySum, abvSum, abvCount);
+    }
+
+    record Totals(int count, long priceCents, long quantityOnHand, long abvHundredths, int abvCount) {
+
+        BigDecimal averagePrice() {
+            return average(priceCents, count);
+        }
+
+        BigDecimal averageAbv() {
+            return average(abvHundredths, abvCount);
+        }
+
+        private static BigDecimal average(long hundredths, int count) {
+            return count == 0 ? null
+                    : BigDecimal.valueOf(hundredths, 2).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+        }
+    }
+
+    /** Collects rows in any order; build() sorts them into style ranges with one counting pass. */
+    static final class Builder {
+        private UUID[] ids;
+        private int[] styles;
+        private long[] priceCents;
+        private int[] quantities;
+        private int[] abv;
+        private int size;
+
+        private Builder(int expectedRows) {
+            int capacity = Math.max(expectedRows, 16);
+            ids = new UUID[capacity];
+            styles = new int[capacity];
+            priceCents = new long[capacity];
+            quantities = new int[capacity];
+            abv = new int[capacity];
+        }
+
+        Builder add(UUID id, BeerStyle style, BigDecimal price, Integer quantityOnHand, BigDecimal abvPercent) {
+            return addRow(id, style.ordinal(),
+                    price != null ? hundredths(price).longValueExact() : 0,
+                    quantityOnHand != null ? quantityOnHand : 0,
+                    abvPercent != null ? hundredths(abvPercent).intValueExact() : UNKNOWN_ABV);
+        }
+
+        private Builder addRow(UUID id, int style, long cents, int quantity, int abvHundredths) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                styles = Arrays.copyOf(styles, capacity);
+                priceCents = Arrays.copyOf(priceCents, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                abv = Arrays.copyOf(abv, capacity);
+            }
+            ids[size] = id;
+            styles[size] = style;
+            priceCents[size] = cents;
+            quantities[size] = quantity;
+            abv[size] = abvHundredths;
+            size++;
+            return this;
+        }
+
+        BeerColumns build() {
+            int[] styleStart = new int[STYLES + 1];
+            for (int row = 0; row < size; row++) {
+                styleStart[styles[row] + 1]++;
+            }
+            for (int style = 0; style < STYLES; style++) {
+                styleStart[style + 1] += styleStart[style];
+            }
+
+            int[] next = Arrays.copyOf(styleStart, STYLES);
+            UUID[] sortedIds = new UUID[size];
+            long[] sortedPrices = new long[size];
+            int[] sortedQuantities = new int[size];
+            int[] sortedAbv = new int[size];
+            for (int row = 0; row < size; row++) {
+                int target = next[styles[row]]++;
+                sortedIds[target] = ids[row];
+                sortedPrices[target] = priceCents[row];
+                sortedQuantities[target] = quantities[row];
+                sortedAbv[target] = abv[row];
+            }
+            return new BeerColumns(LocalDateTime.now(), sortedIds, sortedPrices, sortedQuantities, sortedAbv,
+                    styleStart);
+        }
+
+        private static BigDecimal hundredths(BigDecimal value) {
+            return value.movePointRight(2).setScale(0, RoundingMode.HALF_UP);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.springframework.spring6restmvc.stats;
+
+import com.springframework.spring6restmvc.events.BeerChangeType;
+import com.springframework.spring6restmvc.events.BeerChangedEvent;
+import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerStats;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.model.BeerStyleStats;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.repositories.BeerStatsRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+/** Columnar snapshot of the beer table for the catalog statistics.
+ * The table is read once when the application is ready; after that, committed changes are queued and
+ * folded into a new snapshot every beer.stats.refresh-interval, so the statistics lag the writes by at
+ * most that interval. Readers always work on one complete, immutable snapshot.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Profile("!inmemory")
+public class BeerStatsSnapshot {
+
+    private final BeerRepository beerRepository;
+
+    private final Queue<BeerChangedEvent> pending = new ConcurrentLinkedQueue<>();
+    private volatile BeerColumns columns = BeerColumns.empty();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void reload() {
+        BeerColumns.Builder builder = BeerColumns.builder((int) beerRepository.count());
+        try (Stream<BeerStatsRow> rows = beerRepository.streamStatsRows()) {
+            rows.forEach(row -> builder.add(row.getId(), row.getBeerStyle(), row.getPrice(),
+                    row.getQuantityOnHand(), row.getAbv()));
+        }
+        // changes queued meanwhile are applied again by the next refresh, which is harmless
+        columns = builder.build();
+        log.debug("Loaded {} beers into the statistics snapshot", columns.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        pending.add(event);
+    }
+
+    @Scheduled(fixedDelayString = "${beer.stats.refresh-interval:PT10S}")
+    public synchronized void refresh() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // only the latest state of every beer matters, null marks a removed one
+        Map<UUID, BeerDTO> changes = new LinkedHashMap<>();
+        BeerChangedEvent event;
+        while ((event = pending.poll()) != null) {
+            changes.put(event.getBeerId(), event.getType() == BeerChangeType.DELETED ? null : event.getBeer());
+        }
+        columns = columns.apply(changes);
+    }
+
+    public BeerStats getStats() {
+        BeerColumns snapshot = columns;
+        List<BeerStyleStats> styles = new ArrayList<>();
+        for (BeerStyle style : BeerStyle.values()) {
+            BeerColumns.Totals totals = snapshot.totals(style);
+            if (totals.count() > 0) {
+                styles.add(toStats(style, totals));
+            }
+        }
+        return BeerStats.builder()
+                .refreshedAt(snapshot.builtAt())
+                .total(toStats(null, snapshot.totals()))
+                .styles(styles)
+                .build();
+    }
+
+    private static BeerStyleStats toStats(BeerStyle style, BeerColumns.Totals totals) {
+        return BeerStyleStats.builder()
+                .beerStyle(style)
+                .count(totals.count())
+                .averagePrice(totals.averagePrice())
+                .totalQuantityOnHand(totals.quantityOnHand())
+                .averageAbv(totals.averageAbv())
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.springframework.spring6restmvc.stats;
+
+import com.springframework.spring6restmvc.events.BeerChangedEvent;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.repositories.BeerStyleCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Number of beers per style, kept up to date by the committed writes of BeerServiceJPA.
+ * Reading the counts costs one pass over the styles. Writes that bypass the service (BootstrapData, bulk
+ * loads) are picked up by the reconciliation, which replaces the counters with a GROUP BY over the table
+ * when the application is ready and every beer.facets.reconcile-interval. A write that commits while that
+ * query runs can leave a counter off by one until the next reconciliation.
+ */
+@Slf4j
+@Component
+@Profile("!inmemory")
+public class BeerStyleFacets {
+
+    private final BeerRepository beerRepository;
+    private final Map<BeerStyle, AtomicLong> counts = new EnumMap<>(BeerStyle.class);
+
+    public BeerStyleFacets(BeerRepository beerRepository) {
+        this.beerRepository = beerRepository;
+        for (BeerStyle style : BeerStyle.values()) {
+            counts.put(style, new AtomicLong());
+        }
+    }
+
+    public Map<BeerStyle, Long> getCounts() {
+        Map<BeerStyle, Long> result = new EnumMap<>(BeerStyle.class);
+        counts.forEach((style, count) -> result.put(style, count.get()));
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        BeerStyle previous = event.getPreviousBeerStyle();
+        BeerStyle current = event.getBeer() != null ? event.getBeer().getBeerStyle() : null;
+        switch (event.getType()) {
+            case CREATED -> add(current, 1);
+            case DELETED -> add(previous, -1);
+            case UPDATED, PATCHED -> {
+                if (previous != current) {
+                    add(previous, -1);
+                    add(current, 1);
+                }
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${beer.facets.reconcile-interval:PT5M}",
+            fixedDelayString = "${beer.facets.reconcile-interval:PT5M}")
+    public void reconcile() {
+        Map<BeerStyle, Long> actual = new EnumMap<>(BeerStyle.class);
+        for (BeerStyleCount row : beerRepository.countByBeerStyle()) {
+            actual.put(row.getBeerStyle(), row.getCount());
+        }
+        counts.forEach((style, count) -> {
+            long expected = actual.getOrDefault(style, 0L);
+            long previous = count.getAndSet(expected);
+            if (previous != expected) {
+                log.debug("Reconciled {} facet count from {} to {}", style, previous, expected);
+            }
+        });
+    }
+
+    private void add(BeerStyle style, long delta) {
+        if (style != null) {
+            counts.get(style).addAndGet(delta);
+        }
+    }
+}
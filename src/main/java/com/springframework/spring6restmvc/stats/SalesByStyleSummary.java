@@ -0,0 +1,85 @@
+package com.springframework.spring6restmvc.stats;
+
+import com.springframework.spring6restmvc.entities.BeerOrderLine;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.model.StyleSalesDay;
+import com.springframework.spring6restmvc.repositories.SalesByStyleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/** Units ordered per beer style and day, so that sales reports read one row per style and day instead of
+ * aggregating every order line.
+ * The rows are updated in the transaction that places the order: a report never counts an order that was
+ * rolled back or misses one that committed. The styles of an order are added in BeerStyle order, so two
+ * orders lock the summary rows they share in the same order, and the upsert of SalesByStyleRepository avoids
+ * the gap locks of an update-then-insert on MySQL. That keeps deadlocks between orders rare, not impossible:
+ * InnoDB can still pick one as a deadlock victim when new rows of a day are inserted next to each other,
+ * and the order write then fails like any other deadlocked transaction. Orders are added to the day of
+ * their created date, the day the reconciliation groups them by. Orders written around
+ * BeerOrderService (bulk loads, tests) are picked up by the reconciliation, which recomputes the last
+ * sales.summary.reconcile-days finished days from the order lines on sales.summary.reconcile-cron. The
+ * current day is left to the order writes because orders are still being added to it.
+ */
+@Slf4j
+@Component
+@Profile("!inmemory")
+public class SalesByStyleSummary {
+
+    private final SalesByStyleRepository salesByStyleRepository;
+    private final int reconcileDays;
+
+    public SalesByStyleSummary(SalesByStyleRepository salesByStyleRepository,
+                               @Value("${sales.summary.reconcile-days:7}") int reconcileDays) {
+        this.salesByStyleRepository = salesByStyleRepository;
+        this.reconcileDays = reconcileDays;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addOrder(LocalDate day, Collection<BeerOrderLine> lines) {
+        Map<BeerStyle, long[]> totals = new EnumMap<>(BeerStyle.class);
+        for (BeerOrderLine line : lines) {
+            long[] total = totals.computeIfAbsent(line.getBeer().getBeerStyle(), style -> new long[2]);
+            total[0] += line.getOrderQuantity();
+            total[1]++;
+        }
+        totals.forEach((style, total) -> salesByStyleRepository.add(day, style, total[0], total[1]));
+    }
+
+    // for orders deleted with their customer, see CustomerPurgeServiceImpl
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeOrders(Collection<UUID> orderIds) {
+        salesByStyleRepository.subtractOrders(orderIds);
+    }
+
+    @Scheduled(cron = "${sales.summary.reconcile-cron:0 15 3 * * *}")
+    @Transactional
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        reconcile(today.minusDays(reconcileDays), today);
+    }
+
+    /** Recomputes the days in [from, to) from the order lines. */
+    @Transactional
+    public void reconcile(LocalDate from, LocalDate to) {
+        int rows = salesByStyleRepository.replaceDays(from, to);
+        log.debug("Reconciled the sales summary from {} to {}: {} rows", from, to, rows);
+    }
+
+    // both days included, in day and then style order
+    @Transactional(readOnly = true)
+    public List<StyleSalesDay> getSales(LocalDate from, LocalDate to) {
+        return salesByStyleRepository.findDays(from, to);
+    }
+}
@@ -0,0 +1,5 @@
+-- order history pages through a customer's orders newest first on (created_date, id); the new index also
+-- serves the customer foreign key, so it replaces the customer_id only one
+CREATE INDEX beer_order_customer_created_idx ON beer_order (customer_id, created_date, id);
+
+DROP INDEX beer_order_customer_idx ON beer_order;
@@ -0,0 +1,20 @@
+-- units ordered per beer style and day, kept up to date by order placement, see SalesByStyleSummary
+CREATE TABLE sales_by_style_day
+(
+    sales_date    DATE     NOT NULL,
+    beer_style    SMALLINT NOT NULL,
+    units_ordered BIGINT   NOT NULL,
+    line_count    BIGINT   NOT NULL,
+    PRIMARY KEY (sales_date, beer_style)
+) ENGINE = InnoDB;
+
+-- the reconciliation re-aggregates a range of days
+CREATE INDEX beer_order_created_idx ON beer_order (created_date);
+
+INSERT INTO sales_by_style_day (sales_date, beer_style, units_ordered, line_count)
+SELECT CAST(o.created_date AS DATE), b.beer_style, COALESCE(SUM(l.order_quantity), 0), COUNT(*)
+FROM beer_order_line l
+         JOIN beer_order o ON o.id = l.beer_order_id
+         JOIN beer b ON b.id = l.beer_id
+WHERE o.created_date IS NOT NULL
+GROUP BY CAST(o.created_date AS DATE), b.beer_style;
@@ -0,0 +1,10 @@
+-- shipped orders past the retention window, one JSON document per order, see OrderArchive;
+-- only the primary key is indexed, archived orders are only read by id
+CREATE TABLE beer_order_archive
+(
+    id            VARCHAR(36) NOT NULL PRIMARY KEY,
+    customer_id   VARCHAR(36) DEFAULT NULL,
+    created_date  DATETIME(6) DEFAULT NULL,
+    archived_date DATETIME(6) NOT NULL,
+    document      LONGTEXT    NOT NULL
+) ENGINE = InnoDB;
@@ -0,0 +1,2 @@
+-- a customer purge deletes the customer's archived orders by customer_id, see CustomerPurgeServiceImpl
+CREATE INDEX beer_order_archive_customer_idx ON beer_order_archive (customer_id);
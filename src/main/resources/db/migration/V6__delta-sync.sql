@@ -0,0 +1,24 @@
+-- rows written before the timestamps were maintained by hibernate still need a watermark
+UPDATE customer
+SET update_date = COALESCE(update_date, created_date, NOW(6))
+WHERE update_date IS NULL;
+
+UPDATE beer
+SET update_date = COALESCE(update_date, created_date, NOW(6))
+WHERE update_date IS NULL;
+
+CREATE INDEX beer_update_date_id_idx ON beer (update_date, id);
+
+CREATE INDEX customer_update_date_id_idx ON customer (update_date, id);
+
+drop table if exists tombstone;
+
+CREATE TABLE tombstone
+(
+    id           VARCHAR(36) NOT NULL PRIMARY KEY,
+    entity_type  VARCHAR(20) NOT NULL,
+    entity_id    VARCHAR(36) NOT NULL,
+    deleted_date DATETIME(6)
+) ENGINE = InnoDB;
+
+CREATE INDEX tombstone_type_deleted_idx ON tombstone (entity_type, deleted_date, entity_id);
@@ -0,0 +1,14 @@
+-- style listings filter on beer_style and sort by beer_name; id keeps the order stable between pages
+CREATE INDEX beer_style_name_idx ON beer (beer_style, beer_name, id);
+
+CREATE INDEX beer_name_idx ON beer (beer_name, id);
+
+-- named replacements for the implicit foreign key indexes, InnoDB drops its own ones when these exist
+CREATE INDEX beer_order_customer_idx ON beer_order (customer_id);
+
+CREATE INDEX beer_order_line_order_idx ON beer_order_line (beer_order_id);
+
+CREATE INDEX beer_order_line_beer_idx ON beer_order_line (beer_id);
+
+-- the primary key (beer_id, category_id) only serves lookups by beer
+CREATE INDEX beer_category_category_idx ON beer_category (category_id, beer_id);
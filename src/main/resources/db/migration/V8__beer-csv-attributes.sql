@@ -0,0 +1,17 @@
+-- attributes of the csv catalog, abv is stored in percent
+ALTER TABLE beer
+    ADD COLUMN abv        DECIMAL(4, 2),
+    ADD COLUMN ibu        INTEGER,
+    ADD COLUMN brewery_id INTEGER,
+    ADD COLUMN ounces     DECIMAL(4, 1),
+    ADD COLUMN city       VARCHAR(50),
+    ADD COLUMN state      VARCHAR(2);
+
+-- range and equality filters of the beer listing; id keeps the index entries unique and ordered
+CREATE INDEX beer_abv_idx ON beer (abv, id);
+
+CREATE INDEX beer_ibu_idx ON beer (ibu, id);
+
+CREATE INDEX beer_brewery_idx ON beer (brewery_id, id);
+
+CREATE INDEX beer_state_city_idx ON beer (state, city, id);
@@ -0,0 +1,2 @@
+-- bulk inventory updates and lookups address beers by upc
+CREATE INDEX beer_upc_idx ON beer (upc);
@@ -0,0 +1,64 @@
+package com.springframework.spring6restmvc;
+
+import com.springframework.spring6restmvc.controllers.BeerController;
+import com.springframework.spring6restmvc.controllers.CustomerController;
+import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
+import com.springframework.spring6restmvc.model.Expansion;
+import com.springframework.spring6restmvc.services.BeerService;
+import com.springframework.spring6restmvc.services.BeerServiceImpl;
+import com.springframework.spring6restmvc.services.CustomerService;
+import com.springframework.spring6restmvc.services.CustomerServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("inmemory")
+class InMemoryProfileTests {
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    CustomerService customerService;
+
+    @Autowired
+    BeerController beerController;
+
+    @Autowired
+    CustomerController customerController;
+
+    @Test
+    void startsWithoutADatabase() {
+        assertThat(applicationContext.getBeanNamesForType(DataSource.class)).isEmpty();
+        assertThat(beerService).isInstanceOf(BeerServiceImpl.class);
+        assertThat(customerService).isInstanceOf(CustomerServiceImpl.class);
+    }
+
+    @Test
+    void servesTheInMemoryCatalog() {
+        BeerDTO beer = beerController.listBeers(new BeerSearchCriteria(), false, 1, 25).getContent().get(0);
+
+        assertThat(beerController.getBeerById(beer.getId()).getBeerName()).isEqualTo(beer.getBeerName());
+    }
+
+    @Test
+    void customersComeWithoutExpansions() {
+        UUID customerId = customerController.getAllCustomers().get(0).getId();
+
+        assertThat(customerController.getCustomerById(customerId, Set.of(Expansion.ORDERS)).getBeerOrders())
+                .isNull();
+    }
+}
@@ -1,5 +1,7 @@
 package com.springframework.spring6restmvc.bootstrap;
 
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
 import com.springframework.spring6restmvc.repositories.BeerRepository;
 import com.springframework.spring6restmvc.repositories.CustomerRepository;
 import com.springframework.spring6restmvc.services.BeerCsvService;
@@ -9,6 +11,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -41,4 +47,31 @@ class BootstrapDataTest {
         assertThat(beerRepository.count()).isEqualTo(2413);
         assertThat(customerRepository.count()).isEqualTo(3);
     }
+
+    @Test
+    void runKeepsCsvAttributes() throws Exception {
+        bootstrapData.run(null);
+
+        Page<Beer> coloradoBeers = beerRepository.search(BeerSearchCriteria.builder()
+                .minAbv(new BigDecimal("5"))
+                .maxAbv(new BigDecimal("7"))
+                .state("co")
+                .build(), PageRequest.of(0, 25));
+
+        assertThat(coloradoBeers.getTotalElements()).isEqualTo(152);
+        assertThat(coloradoBeers.getContent()).allSatisfy(beer -> {
+            assertThat(beer.getState()).isEqualTo("CO");
+            assertThat(beer.getAbv()).isBetween(new BigDecimal("5"), new BigDecimal("7"));
+            assertThat(beer.getCity()).isNotBlank();
+            assertThat(beer.getBreweryId()).isNotNull();
+        });
+    }
+
+    @Test
+    void csvValuesAreConverted() {
+        assertThat(BootstrapData.toAbvPercent("0.0279999999999999")).isEqualByComparingTo("2.80");
+        assertThat(BootstrapData.toAbvPercent("NA")).isNull();
+        assertThat(BootstrapData.toIbu("NA")).isNull();
+        assertThat(BootstrapData.toIbu("65")).isEqualTo(65);
+    }
 }
\ No newline at end of file
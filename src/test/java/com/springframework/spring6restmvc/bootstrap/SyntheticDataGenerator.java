@@ -0,0 +1,259 @@
+package com.springframework.spring6restmvc.bootstrap;
+
+import com.springframework.spring6restmvc.model.BeerStyle;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/** Deterministic bulk loader for scaling tests.
+ * Writes straight through JDBC batches (bypassing Hibernate) so that millions of rows can be loaded in seconds.
+ * The same seed always produces the same ids, names, styles and quantities, so runs are comparable across commits.
+ * Calls are incremental: generateUpTo(10_000) after generateUpTo(1_000) only adds the missing 9,000 beers
+ * together with their customers, orders, lines and shipments.
+ */
+@Slf4j
+public class SyntheticDataGenerator {
+
+    public static final long DEFAULT_SEED = 20251018L;
+
+    private static final int BEERS_PER_CUSTOMER = 10;
+    private static final int LINES_PER_ORDER = 10;
+    private static final int CATEGORY_COUNT = 20;
+    private static final int SHIPMENT_EVERY_NTH_ORDER = 2;
+    private static final int BATCH_SIZE = 1000;
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    private static final String[] NAME_PREFIXES = {"Galaxy", "Hazy", "Golden", "Dark", "Crank", "Sunshine",
+            "Hoppy", "Wild", "Old", "Citrus", "Midnight", "River"};
+    private static final String[] NAME_SUFFIXES = {"Cat", "IPA", "Lager", "Stout", "Ale", "City", "Porter",
+            "Pils", "Saison", "Wheat", "Gose", "Bock"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random;
+
+    private final List<UUID> categoryIds = new ArrayList<>();
+    private final List<UUID> beerIds = new ArrayList<>();
+    private final List<UUID> customerIds = new ArrayList<>();
+    private final List<UUID> orderIds = new ArrayList<>();
+
+    @Getter
+    private long lineCount;
+
+    @Getter
+    private long shipmentCount;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, DEFAULT_SEED);
+    }
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.random = new Random(seed);
+    }
+
+    public List<UUID> getBeerIds() {
+        return List.copyOf(beerIds);
+    }
+
+    public List<UUID> getCustomerIds() {
+        return List.copyOf(customerIds);
+    }
+
+    public List<UUID> getOrderIds() {
+        return List.copyOf(orderIds);
+    }
+
+    /** Adds rows until beerCount generated beers exist.
+     * Every beer brings one order with ten lines, every tenth beer one customer
+     * and every second order a shipment, so 1M beers means 10M order lines.
+     */
+    public void generateUpTo(int beerCount) {
+        int missingBeers = beerCount - beerIds.size();
+        if (missingBeers <= 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+
+        if (categoryIds.isEmpty()) {
+            insertCategories();
+        }
+        List<UUID> newBeers = insertBeers(missingBeers);
+        insertBeerCategories(newBeers);
+        insertCustomers(Math.max(1, beerCount / BEERS_PER_CUSTOMER) - customerIds.size());
+        List<UUID> newOrders = insertOrders(missingBeers);
+        insertOrderLines(newOrders);
+        insertShipments(newOrders);
+
+        log.info("Generated {} beers, {} customers, {} orders, {} lines, {} shipments in {} ms",
+                beerIds.size(), customerIds.size(), orderIds.size(), lineCount, shipmentCount,
+                System.currentTimeMillis() - start);
+    }
+
+    private void insertCategories() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < CATEGORY_COUNT; i++) {
+            UUID id = nextUuid();
+            categoryIds.add(id);
+            rows.add(new Object[]{id.toString(), "Category " + i, timestamp(i), timestamp(i), 0});
+        }
+        jdbcTemplate.batchUpdate("insert into category (id, description, created_date, last_modified_date, version) " +
+                "values (?, ?, ?, ?, ?)", rows);
+    }
+
+    private List<UUID> insertBeers(int count) {
+        String sql = "insert into beer (id, beer_name, beer_style, upc, price, quantity_on_hand, " +
+                "created_date, update_date, version) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        BeerStyle[] styles = BeerStyle.values();
+        List<UUID> newBeers = new ArrayList<>(count);
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 0; i < count; i++) {
+            UUID id = nextUuid();
+            int sequence = beerIds.size() + newBeers.size();
+            String name = NAME_PREFIXES[random.nextInt(NAME_PREFIXES.length)] + " "
+                    + NAME_SUFFIXES[random.nextInt(NAME_SUFFIXES.length)] + " " + sequence;
+            Timestamp created = timestamp(sequence);
+
+            rows.add(new Object[]{id.toString(), name, styles[random.nextInt(styles.length)].ordinal(),
+                    "SYN-" + sequence, BigDecimal.valueOf(299 + random.nextInt(2000), 2), random.nextInt(500),
+                    created, created, 0});
+            newBeers.add(id);
+            flushIfFull(sql, rows);
+        }
+        flush(sql, rows);
+        beerIds.addAll(newBeers);
+        return newBeers;
+    }
+
+    private void insertBeerCategories(List<UUID> beers) {
+        String sql = "insert into beer_category (beer_id, category_id) values (?, ?)";
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        for (UUID beerId : beers) {
+            int first = random.nextInt(CATEGORY_COUNT);
+            rows.add(new Object[]{beerId.toString(), categoryIds.get(first).toString()});
+            if (random.nextBoolean()) {
+                int second = (first + 1 + random.nextInt(CATEGORY_COUNT - 1)) % CATEGORY_COUNT;
+                rows.add(new Object[]{beerId.toString(), categoryIds.get(second).toString()});
+            }
+            flushIfFull(sql, rows);
+        }
+        flush(sql, rows);
+    }
+
+    private void insertCustomers(int count) {
+        String sql = "insert into customer (id, name, email, created_date, update_date, version) " +
+                "values (?, ?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 0; i < count; i++) {
+            UUID id = nextUuid();
+            int sequence = customerIds.size();
+            Timestamp created = timestamp(sequence);
+
+            rows.add(new Object[]{id.toString(), "Customer " + sequence, "customer" + sequence + "@example.com",
+                    created, created, 0});
+            customerIds.add(id);
+            flushIfFull(sql, rows);
+        }
+        flush(sql, rows);
+    }
+
+    private List<UUID> insertOrders(int count) {
+        String sql = "insert into beer_order (id, customer_ref, customer_id, created_date, last_modified_date, version) " +
+                "values (?, ?, ?, ?, ?, ?)";
+        List<UUID> newOrders = new ArrayList<>(count);
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 0; i < count; i++) {
+            UUID id = nextUuid();
+            int sequence = orderIds.size() + newOrders.size();
+            UUID customerId = customerIds.get(random.nextInt(customerIds.size()));
+            Timestamp created = timestamp(sequence);
+
+            rows.add(new Object[]{id.toString(), "REF-" + sequence, customerId.toString(), created, created, 0});
+            newOrders.add(id);
+            flushIfFull(sql, rows);
+        }
+        flush(sql, rows);
+        orderIds.addAll(newOrders);
+        return newOrders;
+    }
+
+    private void insertOrderLines(List<UUID> orders) {
+        String sql = "insert into beer_order_line (id, beer_order_id, beer_id, order_quantity, quantity_allocated, " +
+                "created_date, last_modified_date, version) values (?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        for (UUID orderId : orders) {
+            Timestamp created = timestamp(lineCount / LINES_PER_ORDER);
+            for (int i = 0; i < LINES_PER_ORDER; i++) {
+                UUID beerId = beerIds.get(random.nextInt(beerIds.size()));
+                int quantity = 1 + random.nextInt(24);
+
+                rows.add(new Object[]{nextUuid().toString(), orderId.toString(), beerId.toString(), quantity,
+                        random.nextBoolean() ? quantity : 0, created, created, 0});
+                lineCount++;
+                flushIfFull(sql, rows);
+            }
+        }
+        flush(sql, rows);
+    }
+
+    private void insertShipments(List<UUID> orders) {
+        String insertSql = "insert into beer_order_shipment (id, beer_order_id, tracking_number, created_date, " +
+                "last_modified_date, version) values (?, ?, ?, ?, ?, ?)";
+        // beer_order and beer_order_shipment reference each other, so the order side is linked afterwards
+        String linkSql = "update beer_order set beer_order_shipment_id = ? where id = ?";
+        List<Object[]> shipments = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> links = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 0; i < orders.size(); i += SHIPMENT_EVERY_NTH_ORDER) {
+            UUID shipmentId = nextUuid();
+            String orderId = orders.get(i).toString();
+            Timestamp created = timestamp(shipmentCount);
+
+            shipments.add(new Object[]{shipmentId.toString(), orderId, "TRK-" + shipmentCount, created, created, 0});
+            links.add(new Object[]{shipmentId.toString(), orderId});
+            shipmentCount++;
+
+            if (shipments.size() == BATCH_SIZE) {
+                flush(insertSql, shipments);
+                flush(linkSql, links);
+            }
+        }
+        flush(insertSql, shipments);
+        flush(linkSql, links);
+    }
+
+    private void flushIfFull(String sql, List<Object[]> rows) {
+        if (rows.size() >= BATCH_SIZE) {
+            flush(sql, rows);
+        }
+    }
+
+    private void flush(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+
+    private UUID nextUuid() {
+        return new UUID(random.nextLong(), random.nextLong());
+    }
+
+    // spreads rows one minute apart so that date based queries see a realistic range
+    private static Timestamp timestamp(long sequence) {
+        return Timestamp.valueOf(EPOCH.plusMinutes(sequence));
+    }
+}
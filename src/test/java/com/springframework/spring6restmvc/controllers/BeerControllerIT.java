@@ -4,8 +4,15 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.springframework.spring6restmvc.entities.Beer;
 import com.springframework.spring6restmvc.mappers.BeerMapper;
 import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
+import com.springframework.spring6restmvc.model.BeerStats;
 import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.model.BeerStyleStats;
+import com.springframework.spring6restmvc.model.DeltaPage;
+import com.springframework.spring6restmvc.model.InventoryUpdate;
+import com.springframework.spring6restmvc.model.InventoryUpdateRequest;
 import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.stats.BeerStatsSnapshot;
 import org.hamcrest.core.IsNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,9 +29,13 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static com.springframework.spring6restmvc.controllers.BeerController.BEER_PATH;
@@ -32,13 +43,14 @@ import static com.springframework.spring6restmvc.controllers.BeerController.BEER
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.ArgumentMatchers.any;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+// the delta sync tests read changes they have just made, see DeltaSyncLag
+@SpringBootTest(properties = "delta-sync.settle-lag=PT0S")
 class BeerControllerIT {
     @Autowired
     BeerController beerController;
@@ -49,6 +61,9 @@ class BeerControllerIT {
     @Autowired
     BeerMapper beerMapper;
 
+    @Autowired
+    BeerStatsSnapshot beerStatsSnapshot;
+
     @Autowired
     WebApplicationContext wac;
 
@@ -129,6 +144,165 @@ class BeerControllerIT {
                 .andExpect(jsonPath("$.content.size()", is(336)));
     }
 
+    @Test
+    void testListBeersByStyleAndRanges() throws Exception {
+        MvcResult result = mockMvc.perform(get(BEER_PATH)
+                        .queryParam("beerStyle", BeerStyle.IPA.name())
+                        .queryParam("minPrice", "10")
+                        .queryParam("maxPrice", "12")
+                        .queryParam("minQuantityOnHand", "50")
+                        .queryParam("pageSize", "800"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        List<BeerDTO> beers = objectMapper.readerForListOf(BeerDTO.class)
+                .readValue(objectMapper.readTree(result.getResponse().getContentAsString()).get("content"));
+        assertThat(beers).isNotEmpty().allSatisfy(beer -> {
+            assertThat(beer.getBeerStyle()).isEqualTo(BeerStyle.IPA);
+            assertThat(beer.getPrice()).isBetween(new BigDecimal("10"), new BigDecimal("12"));
+            assertThat(beer.getQuantityOnHand()).isGreaterThanOrEqualTo(50);
+        });
+    }
+
+    @Test
+    void testListBeersByAbvAndState() throws Exception {
+        mockMvc.perform(get(BEER_PATH)
+                        .queryParam("minAbv", "5")
+                        .queryParam("maxAbv", "7")
+                        .queryParam("state", "CO")
+                        .queryParam("pageSize", "25"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(152)))
+                .andExpect(jsonPath("$.exact", is(true)))
+                .andExpect(jsonPath("$.content[0].state", is("CO")));
+    }
+
+    @Test
+    void testGetBeerStats() throws Exception {
+        beerStatsSnapshot.refresh();
+        MvcResult result = mockMvc.perform(get(BeerStatsController.BEER_STATS_PATH))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total.count", is((int) beerRepository.count())))
+                .andReturn();
+
+        BeerStats stats = objectMapper.readValue(result.getResponse().getContentAsString(), BeerStats.class);
+        assertThat(stats.getStyles().stream().mapToLong(BeerStyleStats::getCount).sum())
+                .isEqualTo(stats.getTotal().getCount());
+        assertThat(stats.getTotal().getAverageAbv()).isNotNull();
+    }
+
+    @Test
+    void testBeerStatsFollowCommittedChanges() {
+        long lagers = beerStatsSnapshot.getStats().getStyles().stream()
+                .filter(style -> style.getBeerStyle() == BeerStyle.LAGER)
+                .mapToLong(BeerStyleStats::getCount)
+                .sum();
+
+        ResponseEntity responseEntity = beerController.createBear(BeerDTO.builder()
+                .beerName("Stats Lager")
+                .beerStyle(BeerStyle.LAGER)
+                .upc("123123")
+                .price(new BigDecimal("4.99"))
+                .build());
+        String[] locationUUID = responseEntity.getHeaders().getLocation().getPath().split("/");
+        beerStatsSnapshot.refresh();
+
+        assertThat(beerStatsSnapshot.getStats().getStyles())
+                .filteredOn(style -> style.getBeerStyle() == BeerStyle.LAGER)
+                .singleElement()
+                .extracting(BeerStyleStats::getCount)
+                .isEqualTo(lagers + 1);
+
+        beerController.deleteById(UUID.fromString(locationUUID[4]));
+        beerStatsSnapshot.refresh();
+        assertThat(beerStatsSnapshot.getStats().getTotal().getCount()).isEqualTo(beerRepository.count());
+    }
+
+    @Test
+    void testStyleFacetsFollowCommittedChanges() {
+        Map<BeerStyle, Long> before = beerController.getStyleFacets(null);
+        assertThat(before.values().stream().mapToLong(Long::longValue).sum()).isEqualTo(beerRepository.count());
+
+        ResponseEntity responseEntity = beerController.createBear(BeerDTO.builder()
+                .beerName("Facet Porter")
+                .beerStyle(BeerStyle.PORTER)
+                .upc("123123")
+                .price(new BigDecimal("4.99"))
+                .build());
+        UUID beerId = UUID.fromString(responseEntity.getHeaders().getLocation().getPath().split("/")[4]);
+        beerController.updateBeerPatchById(beerId, BeerDTO.builder().beerStyle(BeerStyle.STOUT).build());
+
+        Map<BeerStyle, Long> after = beerController.getStyleFacets(null);
+        assertThat(after.get(BeerStyle.PORTER)).isEqualTo(before.get(BeerStyle.PORTER));
+        assertThat(after.get(BeerStyle.STOUT)).isEqualTo(before.get(BeerStyle.STOUT) + 1);
+        assertThat(beerController.getStyleFacets("facet porter")).containsEntry(BeerStyle.STOUT, 1L);
+
+        beerController.deleteById(beerId);
+        assertThat(beerController.getStyleFacets(null)).isEqualTo(before);
+    }
+
+    @Test
+    void testListBeersSortedByUpdateDate() throws Exception {
+        mockMvc.perform(get(BEER_PATH)
+                        .queryParam("sortBy", "updateDate")
+                        .queryParam("pageSize", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(5)));
+
+        mockMvc.perform(get(BEER_PATH)
+                        .queryParam("sortBy", "upc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testListBeerFields() throws Exception {
+        mockMvc.perform(get(BEER_PATH)
+                        .queryParam("beerStyle", BeerStyle.IPA.name())
+                        .queryParam("fields", "beerName,price,quantityOnHand")
+                        .queryParam("showInventory", "false")
+                        .queryParam("pageSize", "800"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(548)))
+                .andExpect(jsonPath("$.content[0].length()", is(3)))
+                .andExpect(jsonPath("$.content[0].id").value(IsNull.notNullValue()))
+                .andExpect(jsonPath("$.content[0].quantityOnHand").doesNotExist())
+                .andExpect(jsonPath("$.totalElements", is(548)));
+    }
+
+    @Test
+    void testListBeersCompactEnvelope() throws Exception {
+        mockMvc.perform(get(BEER_PATH)
+                        .queryParam("beerName", "IPA")
+                        .queryParam("envelope", "compact")
+                        .queryParam("pageNumber", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(25)))
+                .andExpect(jsonPath("$.pageNumber", is(2)))
+                .andExpect(jsonPath("$.totalElements", is(336)))
+                .andExpect(jsonPath("$.pageable").doesNotExist());
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void testUpdateInventory() throws Exception {
+        Beer beer = beerRepository.findAll().get(0);
+        InventoryUpdateRequest request = InventoryUpdateRequest.builder()
+                .updates(List.of(InventoryUpdate.builder().id(beer.getId()).quantityOnHand(1234).build(),
+                        InventoryUpdate.builder().id(UUID.randomUUID()).quantityOnHand(1).build()))
+                .build();
+
+        mockMvc.perform(patch(BeerInventoryController.BEER_INVENTORY_PATH)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("UPDATED")))
+                .andExpect(jsonPath("$[1].status", is("NOT_FOUND")));
+
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantityOnHand()).isEqualTo(1234);
+    }
+
     @Test
     void patchBeerBadName() throws Exception {
         Beer beer = beerRepository.findAll().get(0);
@@ -226,7 +400,7 @@ class BeerControllerIT {
 
     @Test
     void listBeers() {
-        Page<BeerDTO> dtos = beerController.listBeers(any(), any(), any(), 1, 2413);
+        Page<BeerDTO> dtos = beerController.listBeers(new BeerSearchCriteria(), null, 1, 2413);
         assertThat(dtos.getContent().size()).isEqualTo(1000);
     }
 
@@ -243,7 +417,65 @@ class BeerControllerIT {
     @Test
     void testEmptyList() {
         beerRepository.deleteAll();
-        Page<BeerDTO> dtos = beerController.listBeers(null, null, false, 1, 25);
+        Page<BeerDTO> dtos = beerController.listBeers(new BeerSearchCriteria(), false, 1, 25);
         assertThat(dtos.getContent().size()).isEqualTo(0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamBeerChangesReceivesPatch() throws Exception {
+        MvcResult stream = mockMvc.perform(get(BeerChangeController.BEER_CHANGES_PATH)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // writes the same quantity back, so the data other tests rely on stays unchanged
+        Beer beer = beerRepository.findAll().get(0);
+        Map<String, Object> beerMap = new HashMap<>();
+        beerMap.put("quantityOnHand", beer.getQuantityOnHand());
+        mockMvc.perform(patch(BEER_PATH_ID, beer.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(beerMap)))
+                .andExpect(status().isNoContent());
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!stream.getResponse().getContentAsString().contains(beer.getId().toString())
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(stream.getResponse().getContentAsString())
+                .contains("event:PATCHED")
+                .contains(beer.getId().toString());
+    }
+
+    @Test
+    void listBeerChangesWalksWholeCatalog() {
+        LocalDateTime since = LocalDateTime.of(2000, 1, 1, 0, 0);
+        UUID afterId = null;
+        Set<UUID> seen = new HashSet<>();
+        DeltaPage<BeerDTO> step;
+        do {
+            step = beerController.listBeerChanges(since, afterId, 1000);
+            step.getChanged().forEach(beer -> assertThat(seen.add(beer.getId())).isTrue());
+            since = step.getNextModifiedSince();
+            afterId = step.getNextAfterId();
+        } while (step.isHasMore());
+
+        assertThat(seen).hasSize((int) beerRepository.count());
+        // nothing new after the last watermark
+        assertThat(beerController.listBeerChanges(since, afterId, 1000).getChanged()).isEmpty();
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void listBeerChangesReportsDeletedBeer() {
+        Beer beer = beerRepository.findAll().get(0);
+        LocalDateTime beforeDelete = LocalDateTime.now().minusSeconds(1);
+        beerController.deleteById(beer.getId());
+
+        DeltaPage<BeerDTO> step = beerController.listBeerChanges(beforeDelete, null, 100);
+
+        assertThat(step.getDeleted()).contains(beer.getId());
+        assertThat(step.getChanged()).extracting(BeerDTO::getId).doesNotContain(beer.getId());
+    }
+}
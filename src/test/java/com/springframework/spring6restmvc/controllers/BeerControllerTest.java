@@ -1,7 +1,14 @@
 package com.springframework.spring6restmvc.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springframework.spring6restmvc.config.BinaryFormatsConfig;
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.model.BatchGetRequest;
 import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerField;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
+import com.springframework.spring6restmvc.model.BeerSortField;
+import com.springframework.spring6restmvc.model.BeerStyle;
 import com.springframework.spring6restmvc.services.BeerService;
 import com.springframework.spring6restmvc.services.BeerServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,27 +17,40 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static com.springframework.spring6restmvc.controllers.BeerController.BEER_PATH;
 import static com.springframework.spring6restmvc.controllers.BeerController.BEER_PATH_ID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(BeerController.class)
+@Import(BinaryFormatsConfig.class) // not picked up by the web slice on its own
 class BeerControllerTest {
 
     @Autowired
@@ -39,6 +59,12 @@ class BeerControllerTest {
     @Autowired
     ObjectMapper objectMapper;
 
+    @Autowired
+    MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    MappingJackson2SmileHttpMessageConverter smileConverter;
+
     // A mock is a dummy object that returns null for all methods of the original class.
     // However, for methods that return Optional, Mockito by default returns Optional.empty() instead of null.
     @MockitoBean
@@ -57,9 +83,50 @@ class BeerControllerTest {
         beerServiceImpl = new BeerServiceImpl();
     }
 
+    @Test
+    void getStyleFacets() throws Exception {
+        given(beerService.getStyleCounts("ipa")).willReturn(Map.of(BeerStyle.IPA, 310L, BeerStyle.ALE, 12L));
+
+        mockMvc.perform(get(BeerController.BEER_FACETS_PATH)
+                        .queryParam("beerName", "ipa")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.IPA", is(310)))
+                .andExpect(jsonPath("$.ALE", is(12)));
+    }
+
+    @Test
+    void getBeersByIds() throws Exception {
+        BeerDTO beer = beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent().get(0);
+        UUID unknown = UUID.randomUUID();
+        List<UUID> ids = List.of(beer.getId(), unknown);
+        given(beerService.getBeersByIds(ids)).willReturn(beerServiceImpl.getBeersByIds(ids));
+
+        mockMvc.perform(post(BeerController.BEER_BATCH_GET_PATH)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BatchGetRequest.builder().ids(ids).build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found['" + beer.getId() + "'].beerName", is(beer.getBeerName())))
+                .andExpect(jsonPath("$.notFound[0]", is(unknown.toString())));
+    }
+
+    @Test
+    void getBeersByIdsRejectsTooManyIds() throws Exception {
+        List<UUID> ids = Stream.generate(UUID::randomUUID).limit(BatchGetRequest.MAX_IDS + 1).toList();
+
+        mockMvc.perform(post(BeerController.BEER_BATCH_GET_PATH)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BatchGetRequest.builder().ids(ids).build())))
+                .andExpect(status().isBadRequest());
+
+        verify(beerService, never()).getBeersByIds(any());
+    }
+
     @Test
     void patchBeer() throws Exception {
-        BeerDTO beer = beerServiceImpl.getAllBears(null, null, false, null, null).getContent().get(0);
+        BeerDTO beer = beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, null, null).getContent().get(0);
 
         // create a map with the fields to be updated
         Map<String, Object> beerMap = new HashMap<>();
@@ -79,7 +146,7 @@ class BeerControllerTest {
 
     @Test
     void deleteBeer() throws Exception {
-        BeerDTO beer = beerServiceImpl.getAllBears(null, null, false, 1, 25).getContent().get(0);
+        BeerDTO beer = beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent().get(0);
 
         given(beerService.deleteBeerById(any())).willReturn(true);
 
@@ -97,7 +164,7 @@ class BeerControllerTest {
 
     @Test
     void updateBeerById() throws Exception {
-        BeerDTO beer = beerServiceImpl.getAllBears(null, null, false, 1, 25).getContent().get(0);
+        BeerDTO beer = beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent().get(0);
 
         // Since the controller now throws an exception when the service returns an empty Optional,
         // we need to define what the mock should return explicitly.
@@ -118,7 +185,7 @@ class BeerControllerTest {
 
     @Test
     void updateBeerByIdEmptyBeerName() throws Exception {
-        BeerDTO beer = beerServiceImpl.getAllBears(null, null, false, 1, 25).getContent().get(0);
+        BeerDTO beer = beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent().get(0);
         beer.setBeerName("");
 
         given(beerService.updateBeerById(any(), any())).willReturn(Optional.of(beer));
@@ -134,18 +201,77 @@ class BeerControllerTest {
         System.out.println(mvcResult.getResponse().getContentAsString());
     }
 
+    @Test
+    void updateBeerByIdLosingTheWriteRaceIsAConflict() throws Exception {
+        BeerDTO beer = beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent().get(0);
+
+        given(beerService.updateBeerById(any(), any()))
+                .willThrow(new ObjectOptimisticLockingFailureException(Beer.class, beer.getId()));
+
+        mockMvc.perform(put(BEER_PATH_ID, beer.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(beer)))
+                .andExpect(status().isConflict())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    void updateBeerByIdInvalidCityAndState() throws Exception {
+        BeerDTO beer = beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent().get(0);
+        beer.setCity("C".repeat(51));
+        beer.setState("COL");
+
+        mockMvc.perform(put(BEER_PATH_ID, beer.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(beer)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.length()", is(2)));
+
+        verify(beerService, never()).updateBeerById(any(), any());
+    }
+
+    @Test
+    void patchBeerInvalidState() throws Exception {
+        BeerDTO beer = beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent().get(0);
+
+        mockMvc.perform(patch(BEER_PATH_ID, beer.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("state", "col"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].state").exists());
+
+        verify(beerService, never()).patchBeerById(any(), any());
+    }
+
+    @Test
+    void patchBeerDoesNotRequireUnchangedFields() throws Exception {
+        BeerDTO beer = beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent().get(0);
+
+        mockMvc.perform(patch(BEER_PATH_ID, beer.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("state", "co"))))
+                .andExpect(status().isNoContent());
+
+        verify(beerService).patchBeerById(eq(beer.getId()), beerArgumentCaptor.capture());
+        assertThat(beerArgumentCaptor.getValue().getState()).isEqualTo("co");
+    }
+
     @Test
     void createBear() throws Exception {
         // to simulate a post, we need to send a beer object without id and version
         // because those are generated when saved
-        BeerDTO beer = beerServiceImpl.getAllBears(null, null, false, 1, 25).getContent().get(0);
+        BeerDTO beer = beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent().get(0);
         beer.setVersion(null);
         beer.setId(null);
 
         // mock the service call
         // return the first beer in the list because we changed the id and version from the 0 object by link
         given(beerService.saveBeer(any(BeerDTO.class)))
-                .willReturn(beerServiceImpl.getAllBears(null, null, false, 1, 25).getContent().get(1));
+                .willReturn(beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent().get(1));
 
         mockMvc.perform(post(BEER_PATH)
                         .accept(MediaType.APPLICATION_JSON)
@@ -160,7 +286,7 @@ class BeerControllerTest {
         BeerDTO beer = BeerDTO.builder().build();
 
         given(beerService.saveBeer(any(BeerDTO.class)))
-                .willReturn(beerServiceImpl.getAllBears(null, null, false, 1, 25).getContent().get(1));
+                .willReturn(beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent().get(1));
 
         MvcResult mvcResult = mockMvc.perform(post(BEER_PATH)
                         .accept(MediaType.APPLICATION_JSON)
@@ -175,8 +301,8 @@ class BeerControllerTest {
 
     @Test
     void getAllBears() throws Exception {
-        given(beerService.getAllBears(any(), any(), any(), any(), any()))
-                .willReturn(beerServiceImpl.getAllBears(null, null, false, 1, 25));
+        given(beerService.getAllBears(any(), any(), any(), any()))
+                .willReturn(beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25));
 
         mockMvc.perform(get(BEER_PATH)
                         .accept(MediaType.APPLICATION_JSON))
@@ -185,6 +311,148 @@ class BeerControllerTest {
                 .andExpect(jsonPath("$.content.length()", is(3)));
     }
 
+    @Test
+    void listBeerFields() throws Exception {
+        given(beerService.getAllBeerFields(any(), any(), any(), any(), any()))
+                .willReturn(beerServiceImpl.getAllBeerFields(new BeerSearchCriteria(),
+                        Set.of(BeerField.BEER_NAME, BeerField.PRICE), null, 1, 25));
+
+        mockMvc.perform(get(BEER_PATH)
+                        .queryParam("fields", "beerName,price")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(3)))
+                .andExpect(jsonPath("$.content[0].length()", is(3))) // id is always included
+                .andExpect(jsonPath("$.content[0].upc").doesNotExist())
+                .andExpect(jsonPath("$.totalElements", is(3)))
+                .andExpect(jsonPath("$.pageable").doesNotExist());
+
+        verify(beerService).getAllBeerFields(any(), eq(Set.of(BeerField.BEER_NAME, BeerField.PRICE)),
+                any(), any(), any());
+    }
+
+    @Test
+    void listBeersBindsSearchCriteria() throws Exception {
+        given(beerService.getAllBears(any(), any(), any(), any()))
+                .willReturn(beerServiceImpl.getAllBears(new BeerSearchCriteria(), null, 1, 25));
+        UUID categoryId = UUID.randomUUID();
+
+        mockMvc.perform(get(BEER_PATH)
+                        .queryParam("beerStyle", BeerStyle.IPA.name())
+                        .queryParam("minPrice", "5.50")
+                        .queryParam("maxPrice", "12")
+                        .queryParam("minQuantityOnHand", "10")
+                        .queryParam("categoryId", categoryId.toString())
+                        .queryParam("sortBy", "updateDate")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<BeerSearchCriteria> criteriaCaptor = ArgumentCaptor.forClass(BeerSearchCriteria.class);
+        verify(beerService).getAllBears(criteriaCaptor.capture(), any(), any(), any());
+        assertThat(criteriaCaptor.getValue()).isEqualTo(BeerSearchCriteria.builder()
+                .beerStyle(BeerStyle.IPA)
+                .minPrice(new BigDecimal("5.50"))
+                .maxPrice(new BigDecimal("12"))
+                .minQuantityOnHand(10)
+                .categoryId(categoryId)
+                .sortBy(BeerSortField.UPDATE_DATE)
+                .build());
+    }
+
+    @Test
+    void listBeersSortedByUnindexedField() throws Exception {
+        mockMvc.perform(get(BEER_PATH)
+                        .queryParam("sortBy", "price")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listBeerFieldsUnknownField() throws Exception {
+        mockMvc.perform(get(BEER_PATH)
+                        .queryParam("fields", "beerName,color")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listBeersCompactEnvelope() throws Exception {
+        given(beerService.getAllBears(any(), any(), any(), any()))
+                .willReturn(beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25));
+
+        mockMvc.perform(get(BEER_PATH)
+                        .queryParam("envelope", "compact")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(3)))
+                .andExpect(jsonPath("$.pageNumber", is(1)))
+                .andExpect(jsonPath("$.sort").doesNotExist());
+    }
+
+    @Test
+    void listBeerChanges() throws Exception {
+        LocalDateTime since = LocalDateTime.of(2025, 10, 1, 12, 0);
+        given(beerService.getBeerChanges(any(), any(), any()))
+                .willReturn(beerServiceImpl.getBeerChanges(since, null, null));
+
+        mockMvc.perform(get(BEER_PATH)
+                        .queryParam("modifiedSince", "2025-10-01T12:00:00")
+                        .queryParam("fields", "beerName")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed.length()", is(3)))
+                .andExpect(jsonPath("$.deleted.length()", is(0)))
+                .andExpect(jsonPath("$.hasMore", is(false)));
+
+        verify(beerService).getBeerChanges(eq(since), any(), any());
+    }
+
+    @Test
+    void getBeerByIdCbor() throws Exception {
+        BeerDTO testBeer = beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent().get(0);
+
+        given(beerService.getBeerById(testBeer.getId())).willReturn(Optional.of(testBeer));
+
+        MvcResult mvcResult = mockMvc.perform(get(BEER_PATH_ID, testBeer.getId())
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        BeerDTO decoded = cborConverter.getObjectMapper()
+                .readValue(mvcResult.getResponse().getContentAsByteArray(), BeerDTO.class);
+        assertThat(decoded).isEqualTo(testBeer);
+    }
+
+    // the sizes PayloadFormatBenchmarkIT reports on, checked with the converters the application uses
+    @Test
+    void binaryFormatsAreSmallerThanJson() throws Exception {
+        List<BeerDTO> page = beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent();
+
+        int json = objectMapper.writeValueAsBytes(page).length;
+
+        assertThat(cborConverter.getObjectMapper().writeValueAsBytes(page)).hasSizeLessThan(json);
+        assertThat(smileConverter.getObjectMapper().writeValueAsBytes(page)).hasSizeLessThan(json);
+    }
+
+    @Test
+    void createBeerSmile() throws Exception {
+        BeerDTO beer = beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent().get(0);
+        beer.setVersion(null);
+        beer.setId(null);
+
+        given(beerService.saveBeer(any(BeerDTO.class)))
+                .willReturn(beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent().get(1));
+
+        mockMvc.perform(post(BEER_PATH)
+                        .contentType(new MediaType("application", "x-jackson-smile"))
+                        .content(smileConverter.getObjectMapper().writeValueAsBytes(beer)))
+                .andExpect(status().isCreated());
+
+        verify(beerService).saveBeer(beerArgumentCaptor.capture());
+        assertThat(beerArgumentCaptor.getValue().getBeerName()).isEqualTo(beer.getBeerName());
+    }
+
     @Test
     void getBeerByIdNotFound() throws Exception {
         given(beerService.getBeerById(any(UUID.class))).willReturn(Optional.empty());
@@ -195,7 +463,7 @@ class BeerControllerTest {
 
     @Test
     void getBeerById() throws Exception {
-        BeerDTO testBeer = beerServiceImpl.getAllBears(null, null, false, 1, 25).getContent().get(0);
+        BeerDTO testBeer = beerServiceImpl.getAllBears(new BeerSearchCriteria(), false, 1, 25).getContent().get(0);
 
         given(beerService.getBeerById(testBeer.getId())).willReturn(Optional.of(testBeer));
 
@@ -0,0 +1,235 @@
+package com.springframework.spring6restmvc.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.entities.Customer;
+import com.springframework.spring6restmvc.model.BeerOrderCreateDTO;
+import com.springframework.spring6restmvc.model.BeerOrderLineCreateDTO;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.repositories.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.springframework.spring6restmvc.controllers.BeerOrderController.BEER_ORDER_PATH;
+import static com.springframework.spring6restmvc.controllers.BeerOrderController.BEER_ORDER_PATH_ID;
+import static com.springframework.spring6restmvc.controllers.BeerOrderController.CUSTOMER_ORDERS_PATH;
+import static com.springframework.spring6restmvc.controllers.SalesReportController.SALES_BY_STYLE_PATH;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+class BeerOrderControllerIT {
+
+    @Autowired
+    WebApplicationContext wac;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(wac).build();
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void createOrderAndGetItBack() throws Exception {
+        Customer customer = customerRepository.findAll().get(0);
+        List<Beer> beers = beerRepository.findAll().subList(0, 3);
+        BeerOrderCreateDTO order = BeerOrderCreateDTO.builder()
+                .customerId(customer.getId())
+                .customerRef("IT-ORDER")
+                .beerOrderLines(beers.stream()
+                        .map(beer -> BeerOrderLineCreateDTO.builder().beerId(beer.getId()).orderQuantity(6).build())
+                        .toList())
+                .build();
+
+        String location = mockMvc.perform(post(BEER_ORDER_PATH)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists("Location"))
+                .andReturn().getResponse().getHeader("Location");
+
+        mockMvc.perform(get(location).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerRef", is("IT-ORDER")))
+                .andExpect(jsonPath("$.customerId", is(customer.getId().toString())))
+                .andExpect(jsonPath("$.beerOrderLines.length()", is(3)));
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void allocateOrder() throws Exception {
+        Beer beer = beerRepository.findAll().get(0);
+        BeerOrderCreateDTO order = BeerOrderCreateDTO.builder()
+                .customerId(customerRepository.findAll().get(0).getId())
+                .beerOrderLines(List.of(BeerOrderLineCreateDTO.builder()
+                        .beerId(beer.getId()).orderQuantity(beer.getQuantityOnHand()).build()))
+                .build();
+        String location = mockMvc.perform(post(BEER_ORDER_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader("Location");
+
+        mockMvc.perform(post(location + "/allocation").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.beerOrderLines[0].quantityAllocated", is(beer.getQuantityOnHand())));
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void createOrderWithUnknownBeer() throws Exception {
+        BeerOrderCreateDTO order = BeerOrderCreateDTO.builder()
+                .customerId(customerRepository.findAll().get(0).getId())
+                .beerOrderLines(List.of(BeerOrderLineCreateDTO.builder()
+                        .beerId(UUID.randomUUID()).orderQuantity(1).build()))
+                .build();
+
+        mockMvc.perform(post(BEER_ORDER_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createOrderWithoutLines() throws Exception {
+        BeerOrderCreateDTO order = BeerOrderCreateDTO.builder()
+                .customerId(UUID.randomUUID())
+                .beerOrderLines(List.of())
+                .build();
+
+        mockMvc.perform(post(BEER_ORDER_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getOrderByIdNotFound() throws Exception {
+        mockMvc.perform(get(BEER_ORDER_PATH_ID, UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void pageThroughCustomerOrders() throws Exception {
+        Customer customer = customerRepository.save(Customer.builder().name("IT Order History").build());
+        Beer beer = beerRepository.findAll().get(0);
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post(BEER_ORDER_PATH)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(BeerOrderCreateDTO.builder()
+                                    .customerId(customer.getId())
+                                    .beerOrderLines(List.of(BeerOrderLineCreateDTO.builder()
+                                            .beerId(beer.getId()).orderQuantity(1).build()))
+                                    .build())))
+                    .andExpect(status().isCreated());
+        }
+
+        String first = mockMvc.perform(get(CUSTOMER_ORDERS_PATH, customer.getId())
+                        .queryParam("limit", "2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders", hasSize(2)))
+                .andExpect(jsonPath("$.orders[0].beerOrderLines[0].beerId", is(beer.getId().toString())))
+                .andExpect(jsonPath("$.hasMore", is(true)))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get(CUSTOMER_ORDERS_PATH, customer.getId())
+                        .queryParam("limit", "2")
+                        .queryParam("before", JsonPath.<String>read(first, "$.nextBefore"))
+                        .queryParam("beforeId", JsonPath.<String>read(first, "$.nextBeforeId"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders", hasSize(1)))
+                .andExpect(jsonPath("$.hasMore", is(false)));
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void getOrderWithExpandedBeers() throws Exception {
+        Beer beer = beerRepository.findAll().get(0);
+        String location = mockMvc.perform(post(BEER_ORDER_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BeerOrderCreateDTO.builder()
+                                .customerId(customerRepository.findAll().get(0).getId())
+                                .beerOrderLines(List.of(BeerOrderLineCreateDTO.builder()
+                                        .beerId(beer.getId()).orderQuantity(1).build()))
+                                .build())))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader("Location");
+
+        mockMvc.perform(get(location).queryParam("expand", "beers,categories").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.beerOrderLines[0].beer.upc", is(beer.getUpc())))
+                .andExpect(jsonPath("$.beerOrderLines[0].beer.categories", hasSize(0)));
+    }
+
+    @Test
+    void getOrdersOfUnknownCustomer() throws Exception {
+        mockMvc.perform(get(CUSTOMER_ORDERS_PATH, UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void salesByStyleIncludesPlacedOrders() throws Exception {
+        Beer beer = beerRepository.findAll().get(0);
+        mockMvc.perform(post(BEER_ORDER_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BeerOrderCreateDTO.builder()
+                                .customerId(customerRepository.findAll().get(0).getId())
+                                .beerOrderLines(List.of(BeerOrderLineCreateDTO.builder()
+                                        .beerId(beer.getId()).orderQuantity(7).build()))
+                                .build())))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get(SALES_BY_STYLE_PATH).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.beerStyle == '" + beer.getBeerStyle() + "')].unitsOrdered",
+                        contains(7)));
+    }
+
+    @Test
+    void salesByStyleRejectsLongRanges() throws Exception {
+        mockMvc.perform(get(SALES_BY_STYLE_PATH)
+                        .queryParam("from", "2024-01-01")
+                        .queryParam("to", "2025-12-31"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,8 +1,20 @@
 package com.springframework.spring6restmvc.controllers;
 
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.entities.BeerOrder;
+import com.springframework.spring6restmvc.entities.BeerOrderLine;
+import com.springframework.spring6restmvc.entities.BeerOrderShipment;
 import com.springframework.spring6restmvc.entities.Customer;
 import com.springframework.spring6restmvc.mappers.CustomerMapper;
+import com.springframework.spring6restmvc.model.BatchGetRequest;
+import com.springframework.spring6restmvc.model.BatchGetResult;
 import com.springframework.spring6restmvc.model.CustomerDTO;
+import com.springframework.spring6restmvc.model.CustomerDashboard;
+import com.springframework.spring6restmvc.model.CustomerPurgeStatus;
+import com.springframework.spring6restmvc.model.DeltaPage;
+import com.springframework.spring6restmvc.model.PurgeState;
+import com.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
 import com.springframework.spring6restmvc.repositories.CustomerRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,13 +24,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
-@SpringBootTest
+// the delta sync tests read changes they have just made, see DeltaSyncLag
+@SpringBootTest(properties = "delta-sync.settle-lag=PT0S")
 class CustomerControllerIT {
     @Autowired
     CustomerController customerController;
@@ -29,6 +45,18 @@ class CustomerControllerIT {
     @Autowired
     CustomerMapper customerMapper;
 
+    @Autowired
+    CustomerDashboardController customerDashboardController;
+
+    @Autowired
+    CustomerPurgeController customerPurgeController;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
     @Test
     void deleteCustomerByIdNotFound() {
         assertThrows(NotFoundException.class, () -> {
@@ -47,6 +75,33 @@ class CustomerControllerIT {
         assertThat(customerRepository.findById(customer.getId())).isEmpty();
     }
 
+    @Rollback
+    @Transactional
+    @Test
+    void listCustomerChangesAfterDelete() {
+        Customer customer = customerRepository.findAll().get(0);
+        LocalDateTime beforeDelete = LocalDateTime.now().minusSeconds(1);
+        customerController.deleteById(customer.getId());
+
+        DeltaPage<CustomerDTO> step = customerController.listCustomerChanges(beforeDelete, null, null);
+        assertThat(step.getDeleted()).containsExactly(customer.getId());
+        assertThat(step.getNextAfterId()).isEqualTo(customer.getId());
+    }
+
+    @Test
+    void getCustomersByIds() {
+        List<Customer> customers = customerRepository.findAll();
+        UUID unknown = UUID.randomUUID();
+
+        BatchGetResult<CustomerDTO> result = customerController.getCustomersByIds(BatchGetRequest.builder()
+                .ids(List.of(customers.get(1).getId(), unknown, customers.get(0).getId()))
+                .build());
+
+        assertThat(result.getFound().keySet()).containsExactly(customers.get(1).getId(), customers.get(0).getId());
+        assertThat(result.getFound().get(customers.get(0).getId()).getName()).isEqualTo(customers.get(0).getName());
+        assertThat(result.getNotFound()).containsExactly(unknown);
+    }
+
     @Test
     void updateCustomerByIdNotFound() {
         assertThrows(NotFoundException.class, () -> {
@@ -122,4 +177,74 @@ class CustomerControllerIT {
         assertThat(dtos.size()).isEqualTo(0);
     }
 
-}
\ No newline at end of file
+
+    @Rollback
+    @Transactional
+    @Test
+    void getDashboard() {
+        Customer customer = customerRepository.save(Customer.builder().name("Dashboard Customer").build());
+        Beer beer = beerRepository.findAll().get(0);
+        for (String trackingNumber : new String[]{"TRACK-1", null}) {
+            BeerOrder order = BeerOrder.builder()
+                    .customer(customer)
+                    .beerOrderShipment(BeerOrderShipment.builder().trackingNumber(trackingNumber).build())
+                    .beerOrderLines(new HashSet<>())
+                    .build();
+            order.getBeerOrderLines().add(BeerOrderLine.builder()
+                    .beerOrder(order).beer(beer).orderQuantity(4).quantityAllocated(1).build());
+            beerOrderRepository.saveAndFlush(order);
+        }
+
+        CustomerDashboard dashboard = customerDashboardController.getDashboard(customer.getId());
+
+        assertThat(dashboard.getCustomer().getName()).isEqualTo("Dashboard Customer");
+        assertThat(dashboard.getRecentOrders()).hasSize(2);
+        assertThat(dashboard.getOpenShipments()).singleElement().satisfies(shipment ->
+                assertThat(shipment.getCreatedDate()).isNotNull());
+        assertThat(dashboard.getTotals().getOrderCount()).isEqualTo(2);
+        assertThat(dashboard.getTotals().getOrderedQuantity()).isEqualTo(8);
+        assertThat(dashboard.getTotals().getAllocatedQuantity()).isEqualTo(2);
+        assertThat(dashboard.getUnavailable()).isEmpty();
+    }
+
+    @Test
+    void getDashboardOfUnknownCustomer() {
+        assertThrows(NotFoundException.class, () -> customerDashboardController.getDashboard(UUID.randomUUID()));
+    }
+
+    // not transactional: the purge runs on its own thread and has to see the committed orders
+    @Test
+    void purgeCustomerWithOrders() throws InterruptedException {
+        Customer customer = customerRepository.save(Customer.builder().name("Purged Customer").build());
+        Beer beer = beerRepository.findAll().get(0);
+        for (int i = 0; i < 3; i++) {
+            BeerOrder order = BeerOrder.builder()
+                    .customer(customer)
+                    .beerOrderShipment(BeerOrderShipment.builder().build())
+                    .beerOrderLines(new HashSet<>())
+                    .build();
+            order.getBeerOrderLines().add(BeerOrderLine.builder()
+                    .beerOrder(order).beer(beer).orderQuantity(2).build());
+            beerOrderRepository.save(order);
+        }
+
+        ResponseEntity<CustomerPurgeStatus> started = customerPurgeController.startPurge(customer.getId());
+        assertThat(started.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(202));
+        assertThat(started.getHeaders().getLocation()).hasPath("/api/v1/customer/" + customer.getId() + "/purge");
+
+        CustomerPurgeStatus status = customerPurgeController.getPurge(customer.getId());
+        for (int i = 0; i < 100 && status.getState() == PurgeState.RUNNING; i++) {
+            Thread.sleep(50);
+            status = customerPurgeController.getPurge(customer.getId());
+        }
+        assertThat(status.getState()).isEqualTo(PurgeState.COMPLETED);
+        assertThat(status.getOrdersDeleted()).isEqualTo(3);
+        assertThat(customerRepository.findById(customer.getId())).isEmpty();
+        assertThat(beerOrderRepository.countByCustomerId(customer.getId())).isZero();
+    }
+
+    @Test
+    void purgeUnknownCustomer() {
+        assertThrows(NotFoundException.class, () -> customerPurgeController.startPurge(UUID.randomUUID()));
+    }
+}
@@ -1,20 +1,28 @@
 package com.springframework.spring6restmvc.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springframework.spring6restmvc.config.BinaryFormatsConfig;
 import com.springframework.spring6restmvc.model.CustomerDTO;
+import com.springframework.spring6restmvc.model.Expansion;
 import com.springframework.spring6restmvc.services.CustomerService;
 import com.springframework.spring6restmvc.services.CustomerServiceImpl;
+import com.springframework.spring6restmvc.services.OrderGraphService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,6 +30,9 @@ import java.util.UUID;
 import static com.springframework.spring6restmvc.controllers.CustomerController.CUSTOMER_PATH;
 import static com.springframework.spring6restmvc.controllers.CustomerController.CUSTOMER_PATH_ID;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
@@ -30,6 +41,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CustomerController.class)
+@Import(BinaryFormatsConfig.class)
 class CustomerControllerTest {
 
     @Autowired
@@ -38,9 +50,15 @@ class CustomerControllerTest {
     @Autowired
     ObjectMapper objectMapper;
 
+    @Autowired
+    MappingJackson2CborHttpMessageConverter cborConverter;
+
     @MockitoBean
     CustomerService customerService;
 
+    @MockitoBean
+    OrderGraphService orderGraphService;
+
     CustomerServiceImpl customerServiceImpl;
 
     @Captor
@@ -152,4 +170,67 @@ class CustomerControllerTest {
                 .andExpect(jsonPath("$.id", is(testCustomer.getId().toString())))
                 .andExpect(jsonPath("$.name", is(testCustomer.getName())));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCustomerByIdWithExpand() throws Exception {
+        CustomerDTO testCustomer = customerServiceImpl.getAllCustomers().get(0);
+        testCustomer.setBeerOrders(List.of());
+
+        given(orderGraphService.getCustomer(testCustomer.getId(), EnumSet.of(Expansion.ORDERS, Expansion.BEERS)))
+                .willReturn(Optional.of(testCustomer));
+
+        mockMvc.perform(get(CUSTOMER_PATH_ID, testCustomer.getId())
+                        .queryParam("expand", "orders,beers")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.beerOrders", hasSize(0)));
+    }
+
+    @Test
+    void getCustomerByIdWithUnknownExpand() throws Exception {
+        mockMvc.perform(get(CUSTOMER_PATH_ID, UUID.randomUUID())
+                        .queryParam("expand", "everything"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void unexpandedCustomersHaveNoOrders() throws Exception {
+        CustomerDTO testCustomer = customerServiceImpl.getAllCustomers().get(0);
+        given(customerService.getCustomerById(testCustomer.getId())).willReturn(Optional.of(testCustomer));
+
+        mockMvc.perform(get(CUSTOMER_PATH_ID, testCustomer.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", not(hasKey("beerOrders"))));
+    }
+
+    @Test
+    void getAllCustomersCbor() throws Exception {
+        given(customerService.getAllCustomers()).willReturn(customerServiceImpl.getAllCustomers());
+
+        MvcResult mvcResult = mockMvc.perform(get(CUSTOMER_PATH)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        CustomerDTO[] decoded = cborConverter.getObjectMapper()
+                .readValue(mvcResult.getResponse().getContentAsByteArray(), CustomerDTO[].class);
+        assertThat(decoded).hasSize(3);
+    }
+
+    @Test
+    void createCustomerCbor() throws Exception {
+        CustomerDTO customer = customerServiceImpl.getAllCustomers().get(0);
+        customer.setId(null);
+        customer.setVersion(null);
+
+        given(customerService.saveCustomer(any(CustomerDTO.class)))
+                .willReturn(customerServiceImpl.getAllCustomers().get(1));
+
+        mockMvc.perform(post(CUSTOMER_PATH)
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(cborConverter.getObjectMapper().writeValueAsBytes(customer)))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists("Location"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.springframework.spring6restmvc.events;
+
+import com.springframework.spring6restmvc.model.BeerDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerChangeFeedTest {
+
+    BeerChangeFeed beerChangeFeed;
+
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        beerChangeFeed = new BeerChangeFeed(4, Duration.ofMinutes(1), Duration.ofSeconds(15));
+    }
+
+    @Test
+    void readAfterCoalescesChangesOfTheSameBeer() {
+        change(BeerChangeType.CREATED, first);
+        change(BeerChangeType.CREATED, second);
+        change(BeerChangeType.PATCHED, first);
+
+        BeerChangeFeed.Batch batch = beerChangeFeed.readAfter(0);
+
+        assertThat(batch.missed()).isFalse();
+        assertThat(batch.lastSequence()).isEqualTo(3);
+        assertThat(batch.entries()).extracting(BeerChangeEntry::getBeerId).containsExactly(second, first);
+        assertThat(batch.entries().get(1).getType()).isEqualTo(BeerChangeType.PATCHED);
+        assertThat(batch.entries().get(1).getSequence()).isEqualTo(3);
+    }
+
+    @Test
+    void readAfterResumesFromCursor() {
+        change(BeerChangeType.CREATED, first);
+        change(BeerChangeType.CREATED, second);
+
+        BeerChangeFeed.Batch batch = beerChangeFeed.readAfter(1);
+
+        assertThat(batch.entries()).extracting(BeerChangeEntry::getBeerId).containsExactly(second);
+        assertThat(beerChangeFeed.readAfter(2).entries()).isEmpty();
+    }
+
+    @Test
+    void readAfterReportsCursorThatFellOutOfTheBuffer() {
+        for (int i = 0; i < 6; i++) {
+            change(BeerChangeType.PATCHED, UUID.randomUUID());
+        }
+
+        BeerChangeFeed.Batch batch = beerChangeFeed.readAfter(1);
+
+        assertThat(batch.missed()).isTrue();
+        assertThat(batch.lastSequence()).isEqualTo(6);
+        assertThat(batch.entries()).extracting(BeerChangeEntry::getSequence).containsExactly(3L, 4L, 5L, 6L);
+    }
+
+    @Test
+    void readAfterResetsCursorAheadOfTheFeed() {
+        change(BeerChangeType.CREATED, first);
+        change(BeerChangeType.CREATED, second);
+
+        // an id handed out before a restart, when the feed had got further
+        BeerChangeFeed.Batch batch = beerChangeFeed.readAfter(40);
+
+        assertThat(batch.missed()).isTrue();
+        assertThat(batch.lastSequence()).isEqualTo(2);
+        assertThat(batch.entries()).isEmpty();
+
+        change(BeerChangeType.PATCHED, first);
+        assertThat(beerChangeFeed.readAfter(batch.lastSequence()).entries())
+                .extracting(BeerChangeEntry::getSequence).containsExactly(3L);
+    }
+
+    private void change(BeerChangeType type, UUID beerId) {
+        beerChangeFeed.onBeerChanged(BeerChangedEvent.builder()
+                .type(type)
+                .beerId(beerId)
+                .beer(BeerDTO.builder().id(beerId).beerName("Beer " + beerId).build())
+                .build());
+    }
+}
@@ -0,0 +1,114 @@
+package com.springframework.spring6restmvc.perf;
+
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.entities.Customer;
+import com.springframework.spring6restmvc.model.BeerOrderCreateDTO;
+import com.springframework.spring6restmvc.model.BeerOrderDTO;
+import com.springframework.spring6restmvc.model.BeerOrderLineCreateDTO;
+import com.springframework.spring6restmvc.model.BeerOrderLineDTO;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.repositories.CustomerRepository;
+import com.springframework.spring6restmvc.services.BeerOrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Hundreds of orders competing for one hot beer, allocated from many threads at once.
+ * Every order also takes a second, shared beer, half of them listing it first, so orders lock two rows each and
+ * would deadlock without the beer id ordering. The stock must end up exactly used up: never oversold and
+ * nothing lost to failed allocations.
+ */
+@Slf4j
+@SpringBootTest(properties = "spring.datasource.hikari.maximum-pool-size=20")
+@DirtiesContext // the hot beers and orders stay out of the context the other test classes share
+class AllocationStressIT {
+
+    private static final int ORDERS = 400;
+    private static final int THREADS = 32;
+    private static final int HOT_STOCK = 250;
+
+    @Autowired
+    BeerOrderService beerOrderService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Test
+    void hotBeerIsNeverOversold() throws Exception {
+        Beer hot = beerRepository.save(beer("Hot Beer", HOT_STOCK));
+        Beer shared = beerRepository.save(beer("Shared Beer", ORDERS));
+        Customer customer = customerRepository.findAll().get(0);
+
+        List<UUID> orderIds = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            List<UUID> beerIds = i % 2 == 0 ? List.of(hot.getId(), shared.getId())
+                    : List.of(shared.getId(), hot.getId());
+            orderIds.add(beerOrderService.createOrder(BeerOrderCreateDTO.builder()
+                    .customerId(customer.getId())
+                    .customerRef("stress-" + i)
+                    .beerOrderLines(beerIds.stream()
+                            .map(id -> BeerOrderLineCreateDTO.builder().beerId(id).orderQuantity(1).build())
+                            .toList())
+                    .build()).getId());
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BeerOrderDTO>> results = new ArrayList<>();
+        long started;
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (UUID orderId : orderIds) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return beerOrderService.allocateOrder(orderId).orElseThrow();
+                }));
+            }
+            started = System.nanoTime();
+            start.countDown();
+        }
+        log.info("Allocated {} orders on {} threads in {} ms", ORDERS, THREADS,
+                (System.nanoTime() - started) / 1_000_000);
+
+        int hotAllocated = 0;
+        int sharedAllocated = 0;
+        for (Future<BeerOrderDTO> result : results) {
+            for (BeerOrderLineDTO line : result.get().getBeerOrderLines()) {
+                if (line.getBeerId().equals(hot.getId())) {
+                    hotAllocated += line.getQuantityAllocated();
+                } else {
+                    sharedAllocated += line.getQuantityAllocated();
+                }
+            }
+        }
+        assertThat(hotAllocated).isEqualTo(HOT_STOCK);
+        assertThat(sharedAllocated).isEqualTo(ORDERS);
+        assertThat(beerRepository.findById(hot.getId()).orElseThrow().getQuantityOnHand()).isZero();
+        assertThat(beerRepository.findById(shared.getId()).orElseThrow().getQuantityOnHand()).isZero();
+    }
+
+    private static Beer beer(String name, int stock) {
+        return Beer.builder()
+                .beerName(name)
+                .beerStyle(BeerStyle.IPA)
+                .upc("UPC-" + name)
+                .price(new BigDecimal("7.00"))
+                .quantityOnHand(stock)
+                .build();
+    }
+}
@@ -0,0 +1,323 @@
+package com.springframework.spring6restmvc.perf;
+
+import com.springframework.spring6restmvc.bootstrap.SyntheticDataGenerator;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.springframework.spring6restmvc.controllers.BeerController.BEER_PATH;
+import static com.springframework.spring6restmvc.controllers.CustomerController.CUSTOMER_PATH;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Closed-loop HTTP load generator.
+ * Starts the application on a random port on top of synthetic data and drives a weighted mix of beer and customer
+ * operations from virtual users, each running on its own virtual thread at a fixed intended rate.
+ * Latency is measured from the moment a request was scheduled to be sent, not from when the user got around
+ * to sending it, so a stalled server is charged for the requests it delayed (coordinated omission correction).
+ * The raw service time is recorded as well for comparison.
+ *
+ * Everything is controlled by system properties and seeded, so the same command gives comparable
+ * target/perf/load-report.properties files across commits:
+ * mvn verify -Dit.test=LoadHarnessIT -Dload.users=64 -Dload.durationSeconds=60 -Dload.mix=listBeers=50,patchBeer=50
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("scaling")
+@DirtiesContext
+class LoadHarnessIT {
+
+    private static final int USERS = Integer.getInteger("load.users", 8);
+    private static final int RATE_PER_USER = Integer.getInteger("load.ratePerUser", 20);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmupSeconds", 2);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.durationSeconds", 5);
+    private static final int SEED_BEERS = Integer.getInteger("load.seedBeers", 10_000);
+    private static final long RANDOM_SEED = Long.getLong("load.randomSeed", SyntheticDataGenerator.DEFAULT_SEED);
+    private static final String MIX = System.getProperty("load.mix",
+            "listBeers=35,listBeersByStyle=15,getBeer=25,patchBeer=5,listCustomers=5,getCustomer=15");
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Path REPORT = Path.of("target", "perf", "load-report.properties");
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void runLoad() throws Exception {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(jdbcTemplate, RANDOM_SEED);
+        generator.generateUpTo(SEED_BEERS);
+
+        Map<Operation, Integer> mix = parseMix(MIX);
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Targets targets = new Targets("http://localhost:" + port, generator.getBeerIds(), generator.getCustomerIds());
+
+        runPhase(client, targets, mix, WARMUP_SECONDS);
+        List<UserResult> results = runPhase(client, targets, mix, DURATION_SECONDS);
+
+        Map<Operation, OperationResult> merged = merge(results, mix);
+        writeReport(merged);
+
+        long errors = merged.values().stream().mapToLong(OperationResult::errors).sum();
+        assertThat(errors).isZero();
+    }
+
+    private List<UserResult> runPhase(HttpClient client, Targets targets, Map<Operation, Integer> mix,
+                                      int seconds) throws Exception {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE_PER_USER;
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + TimeUnit.SECONDS.toNanos(seconds);
+
+        List<Future<UserResult>> futures = new ArrayList<>();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < USERS; user++) {
+                Random random = new Random(RANDOM_SEED + user);
+                // users start evenly staggered over one interval instead of all at once
+                long firstSendNanos = startNanos + intervalNanos * user / USERS;
+                futures.add(users.submit(() -> runUser(client, targets, mix, random,
+                        firstSendNanos, intervalNanos, endNanos)));
+            }
+        }
+        List<UserResult> results = new ArrayList<>();
+        for (Future<UserResult> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private UserResult runUser(HttpClient client, Targets targets, Map<Operation, Integer> mix, Random random,
+                               long firstSendNanos, long intervalNanos, long endNanos) {
+        UserResult result = new UserResult(mix.keySet());
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        // a user that fell behind schedule still stops at the end of the phase, like a fixed-duration wrk2 run
+        for (long intended = firstSendNanos; intended < endNanos; intended += intervalNanos) {
+            long now = System.nanoTime();
+            if (now >= endNanos) {
+                break;
+            }
+            if (now < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            Operation operation = pick(mix, totalWeight, random);
+            HttpRequest request = operation.request(targets, random);
+
+            long sent = System.nanoTime();
+            boolean ok;
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                ok = status < 400;
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long done = System.nanoTime();
+
+            result.record(operation, intended, sent, done, ok);
+        }
+        return result;
+    }
+
+    private static Operation pick(Map<Operation, Integer> mix, int totalWeight, Random random) {
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Mix weights do not add up");
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            weights.put(Operation.valueOf(parts[0]), Integer.valueOf(parts[1]));
+        }
+        return weights;
+    }
+
+    private static Map<Operation, OperationResult> merge(List<UserResult> results, Map<Operation, Integer> mix) {
+        Map<Operation, OperationResult> merged = new LinkedHashMap<>();
+        for (Operation operation : mix.keySet()) {
+            Histogram corrected = newHistogram();
+            Histogram service = newHistogram();
+            long errors = 0;
+            for (UserResult result : results) {
+                corrected.add(result.corrected.get(operation));
+                service.add(result.service.get(operation));
+                errors += result.errors.get(operation);
+            }
+            merged.put(operation, new OperationResult(corrected, service, errors));
+        }
+        return merged;
+    }
+
+    private static void writeReport(Map<Operation, OperationResult> results) throws IOException {
+        Files.createDirectories(REPORT.getParent());
+        try (Writer writer = Files.newBufferedWriter(REPORT)) {
+            writer.write("# users=" + USERS + " ratePerUser=" + RATE_PER_USER + " durationSeconds=" + DURATION_SECONDS
+                    + " seedBeers=" + SEED_BEERS + " randomSeed=" + RANDOM_SEED + " mix=" + MIX + "\n");
+            writer.write("# latencies in milliseconds; corrected = from intended send time, service = from actual send time\n");
+
+            for (Map.Entry<Operation, OperationResult> entry : results.entrySet()) {
+                String name = entry.getKey().name();
+                OperationResult result = entry.getValue();
+                Histogram corrected = result.corrected();
+
+                writer.write(name + ".count=" + corrected.getTotalCount() + "\n");
+                writer.write(name + ".errors=" + result.errors() + "\n");
+                writer.write(name + ".throughput=" + corrected.getTotalCount() / DURATION_SECONDS + "\n");
+                for (double percentile : new double[]{50, 90, 99, 99.9}) {
+                    writer.write(name + ".p" + percentile + "=" + millis(corrected.getValueAtPercentile(percentile)) + "\n");
+                }
+                writer.write(name + ".max=" + millis(corrected.getMaxValue()) + "\n");
+                writer.write(name + ".service.p50=" + millis(result.service().getValueAtPercentile(50)) + "\n");
+                writer.write(name + ".service.p99=" + millis(result.service().getValueAtPercentile(99)) + "\n");
+
+                log.info("{}: {} requests, {} errors, p50 {} ms, p99 {} ms, p99.9 {} ms, max {} ms (service p99 {} ms)",
+                        name, corrected.getTotalCount(), result.errors(),
+                        millis(corrected.getValueAtPercentile(50)), millis(corrected.getValueAtPercentile(99)),
+                        millis(corrected.getValueAtPercentile(99.9)), millis(corrected.getMaxValue()),
+                        millis(result.service().getValueAtPercentile(99)));
+            }
+        }
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+    }
+
+    private enum Operation {
+        listBeers {
+            @Override
+            HttpRequest request(Targets targets, Random random) {
+                return targets.get(BEER_PATH + "?pageNumber=" + (1 + random.nextInt(20)) + "&pageSize=25");
+            }
+        },
+        listBeersByStyle {
+            @Override
+            HttpRequest request(Targets targets, Random random) {
+                BeerStyle style = BeerStyle.values()[random.nextInt(BeerStyle.values().length)];
+                return targets.get(BEER_PATH + "?beerStyle=" + style.name() + "&pageSize=25");
+            }
+        },
+        getBeer {
+            @Override
+            HttpRequest request(Targets targets, Random random) {
+                return targets.get(BEER_PATH + "/" + targets.randomBeer(random));
+            }
+        },
+        patchBeer {
+            @Override
+            HttpRequest request(Targets targets, Random random) {
+                return targets.patch(BEER_PATH + "/" + targets.randomBeer(random),
+                        "{\"quantityOnHand\":" + random.nextInt(500) + "}");
+            }
+        },
+        listCustomers {
+            @Override
+            HttpRequest request(Targets targets, Random random) {
+                return targets.get(CUSTOMER_PATH);
+            }
+        },
+        getCustomer {
+            @Override
+            HttpRequest request(Targets targets, Random random) {
+                return targets.get(CUSTOMER_PATH + "/" + targets.randomCustomer(random));
+            }
+        };
+
+        abstract HttpRequest request(Targets targets, Random random);
+    }
+
+    private record Targets(String baseUrl, List<UUID> beerIds, List<UUID> customerIds) {
+
+        UUID randomBeer(Random random) {
+            return beerIds.get(random.nextInt(beerIds.size()));
+        }
+
+        UUID randomCustomer(Random random) {
+            return customerIds.get(random.nextInt(customerIds.size()));
+        }
+
+        HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+        }
+
+        HttpRequest patch(String path, String json) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        }
+    }
+
+    private record OperationResult(Histogram corrected, Histogram service, long errors) {
+    }
+
+    // one per virtual user, so recording never contends
+    private static class UserResult {
+        private final Map<Operation, Histogram> corrected = new LinkedHashMap<>();
+        private final Map<Operation, Histogram> service = new LinkedHashMap<>();
+        private final Map<Operation, Long> errors = new LinkedHashMap<>();
+
+        UserResult(Iterable<Operation> operations) {
+            for (Operation operation : operations) {
+                corrected.put(operation, newHistogram());
+                service.put(operation, newHistogram());
+                errors.put(operation, 0L);
+            }
+        }
+
+        void record(Operation operation, long intended, long sent, long done, boolean ok) {
+            corrected.get(operation).recordValue(Math.min(done - intended, HIGHEST_TRACKABLE_NANOS));
+            service.get(operation).recordValue(Math.min(done - sent, HIGHEST_TRACKABLE_NANOS));
+            if (!ok) {
+                errors.merge(operation, 1L, Long::sum);
+            }
+        }
+    }
+}
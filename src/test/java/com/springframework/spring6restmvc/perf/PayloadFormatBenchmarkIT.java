@@ -0,0 +1,96 @@
+package com.springframework.spring6restmvc.perf;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.model.CompactPage;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Compares JSON, CBOR and Smile on a 1000 row beer page: payload size and encode/decode time.
+ * Both are logged only; that the binary formats are smaller is checked on every build by BeerControllerTest.
+ */
+@Slf4j
+class PayloadFormatBenchmarkIT {
+
+    private static final int ROWS = 1000;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 200;
+
+    private static final TypeReference<CompactPage<BeerDTO>> PAGE_TYPE = new TypeReference<>() {
+    };
+
+    @Test
+    void compareFormats() throws Exception {
+        CompactPage<BeerDTO> page = CompactPage.<BeerDTO>builder()
+                .content(beers())
+                .pageNumber(1)
+                .pageSize(ROWS)
+                .totalElements(2413)
+                .build();
+
+        measure("json", Jackson2ObjectMapperBuilder.json().build(), page);
+        measure("cbor", Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build(), page);
+        measure("smile", Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build(), page);
+    }
+
+    private static Result measure(String name, ObjectMapper mapper, CompactPage<BeerDTO> page) throws Exception {
+        byte[] payload = mapper.writeValueAsBytes(page);
+        assertThat(mapper.readValue(payload, PAGE_TYPE)).isEqualTo(page);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(page), PAGE_TYPE);
+        }
+
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            byte[] encoded = mapper.writeValueAsBytes(page);
+            long encodedAt = System.nanoTime();
+            mapper.readValue(encoded, PAGE_TYPE);
+            decodeNanos += System.nanoTime() - encodedAt;
+            encodeNanos += encodedAt - start;
+        }
+
+        Result result = new Result(payload.length, encodeNanos / MEASURED_ROUNDS / 1000, decodeNanos / MEASURED_ROUNDS / 1000);
+        log.info("{}: {} bytes, encode {} us, decode {} us", name, result.bytes(), result.encodeMicros(),
+                result.decodeMicros());
+        return result;
+    }
+
+    private static List<BeerDTO> beers() {
+        Random random = new Random(42);
+        List<BeerDTO> beers = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            beers.add(BeerDTO.builder()
+                    .id(new UUID(random.nextLong(), random.nextLong()))
+                    .version(random.nextInt(5))
+                    .beerName("Beer number " + i)
+                    .beerStyle(BeerStyle.values()[random.nextInt(BeerStyle.values().length)])
+                    .upc(String.valueOf(100000 + i))
+                    .quantityOnHand(random.nextInt(500))
+                    .price(BigDecimal.valueOf(299 + random.nextInt(2000), 2))
+                    .createdDate(LocalDateTime.of(2025, 1, 1, 12, 0).plusMinutes(i))
+                    .updateDate(LocalDateTime.of(2025, 6, 1, 12, 0).plusMinutes(i))
+                    .build());
+        }
+        return beers;
+    }
+
+    private record Result(int bytes, long encodeMicros, long decodeMicros) {
+    }
+}
@@ -0,0 +1,174 @@
+package com.springframework.spring6restmvc.perf;
+
+import com.springframework.spring6restmvc.bootstrap.SyntheticDataGenerator;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static com.springframework.spring6restmvc.controllers.BeerController.BEER_PATH;
+import static com.springframework.spring6restmvc.controllers.BeerController.BEER_PATH_ID;
+import static com.springframework.spring6restmvc.controllers.CustomerController.CUSTOMER_PATH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** Scaling regression suite.
+ * Loads synthetic data in growing steps (-Dscaling.sizes, in generated beers) and records the median latency
+ * of the main read paths at every step into target/perf/scaling-report.properties.
+ * The run fails when a measurement is slower than src/test/resources/perf/scaling-baseline.properties
+ * by more than -Dscaling.tolerance (0.5 = 50%). Keys missing from the baseline are only reported,
+ * so a new size or endpoint can be baselined by copying its line from the report.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("scaling")
+@DirtiesContext // releases the generated rows, they are far too big to keep for the remaining test classes
+class ScalingIT {
+
+    private static final List<Integer> SIZES = Arrays.stream(System.getProperty("scaling.sizes", "1000,10000,50000")
+            .split(",")).map(String::trim).map(Integer::valueOf).toList();
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("scaling.tolerance", "0.5"));
+
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 25;
+    // sub-millisecond timings are dominated by noise, so every limit gets this much extra room
+    private static final double NOISE_FLOOR_MILLIS = 5.0;
+
+    private static final String BASELINE = "perf/scaling-baseline.properties";
+    private static final Path REPORT = Path.of("target", "perf", "scaling-report.properties");
+
+    @Autowired
+    WebApplicationContext wac;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(wac).build();
+    }
+
+    @Test
+    void latencyStaysWithinBaseline() throws Exception {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(jdbcTemplate);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Map<String, Double> report = new TreeMap<>();
+
+        for (int size : SIZES) {
+            generator.generateUpTo(size);
+            UUID beerId = generator.getBeerIds().get(size / 2);
+            UUID orderId = generator.getOrderIds().get(size / 2);
+
+            report.put(key("beer.list", size), medianMillis(() -> mockMvc.perform(get(BEER_PATH))
+                    .andExpect(status().isOk())));
+            report.put(key("beer.listByStyle", size), medianMillis(() -> mockMvc.perform(get(BEER_PATH)
+                            .queryParam("beerStyle", BeerStyle.IPA.name()))
+                    .andExpect(status().isOk())));
+            report.put(key("beer.listByName", size), medianMillis(() -> mockMvc.perform(get(BEER_PATH)
+                            .queryParam("beerName", "Hazy"))
+                    .andExpect(status().isOk())));
+            report.put(key("beer.listByNameAndStyle", size), medianMillis(() -> mockMvc.perform(get(BEER_PATH)
+                            .queryParam("beerName", "Hazy")
+                            .queryParam("beerStyle", BeerStyle.IPA.name()))
+                    .andExpect(status().isOk())));
+            report.put(key("beer.getById", size), medianMillis(() -> mockMvc.perform(get(BEER_PATH_ID, beerId))
+                    .andExpect(status().isOk())));
+            report.put(key("customer.list", size), medianMillis(() -> mockMvc.perform(get(CUSTOMER_PATH))
+                    .andExpect(status().isOk())));
+            report.put(key("order.findByIdWithLines", size), medianMillis(() -> readOnly.executeWithoutResult(tx ->
+                    assertThat(beerOrderRepository.findById(orderId).orElseThrow().getBeerOrderLines()).isNotEmpty())));
+        }
+
+        writeReport(report);
+        assertThat(regressions(report)).isEmpty();
+    }
+
+    private static String key(String operation, int size) {
+        return operation + "." + size;
+    }
+
+    private static double medianMillis(Operation operation) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.run();
+        }
+        long[] samples = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            operation.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return Math.round(samples[MEASURED_ITERATIONS / 2] / 1_000.0) / 1_000.0;
+    }
+
+    private static void writeReport(Map<String, Double> report) throws IOException {
+        Files.createDirectories(REPORT.getParent());
+        try (Writer writer = Files.newBufferedWriter(REPORT)) {
+            writer.write("# median latency in milliseconds, keyed by operation and generated beer count\n");
+            for (Map.Entry<String, Double> entry : report.entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+                log.info("{} = {} ms", entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static List<String> regressions(Map<String, Double> report) throws IOException {
+        Properties baseline = new Properties();
+        try (InputStream in = new ClassPathResource(BASELINE).getInputStream()) {
+            baseline.load(in);
+        }
+
+        List<String> regressions = new ArrayList<>();
+        report.forEach((key, measured) -> {
+            String expected = baseline.getProperty(key);
+            if (expected == null) {
+                return;
+            }
+            double limit = Double.parseDouble(expected) * (1 + TOLERANCE) + NOISE_FLOOR_MILLIS;
+            if (measured > limit) {
+                regressions.add(key + ": " + measured + " ms exceeds " + limit + " ms (baseline " + expected + " ms)");
+            }
+        });
+        return regressions;
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run() throws Exception;
+    }
+}
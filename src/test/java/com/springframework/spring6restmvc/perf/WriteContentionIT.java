@@ -0,0 +1,123 @@
+package com.springframework.spring6restmvc.perf;
+
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.WriteConflictStats;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.services.BeerService;
+import com.springframework.spring6restmvc.services.WriteRetry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Many clients patching the same beer at once, with and without the server-side retry.
+ * Logs writes per second, failed requests and the conflict counters of both runs. Without the retry every
+ * lost race is a failed request the client has to repeat; with it, requests succeed at the cost of the
+ * backoff pauses.
+ */
+@Slf4j
+@SpringBootTest
+class WriteContentionIT {
+
+    private static final int THREADS = 16;
+    private static final int WRITES_PER_THREAD = 25;
+
+    @Nested
+    @TestPropertySource(properties = "write-retry.max-attempts=1")
+    @DirtiesContext
+    class WithoutRetry {
+
+        @Autowired
+        BeerService beerService;
+
+        @Autowired
+        BeerRepository beerRepository;
+
+        @Autowired
+        WriteRetry writeRetry;
+
+        @Test
+        void contendedPatches() throws Exception {
+            Result result = run("without retry", beerService, beerRepository, writeRetry);
+
+            assertThat(result.succeeded() + result.failed()).isEqualTo(THREADS * WRITES_PER_THREAD);
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "write-retry.max-attempts=20")
+    @DirtiesContext
+    class WithRetry {
+
+        @Autowired
+        BeerService beerService;
+
+        @Autowired
+        BeerRepository beerRepository;
+
+        @Autowired
+        WriteRetry writeRetry;
+
+        @Test
+        void contendedPatches() throws Exception {
+            Result result = run("with retry", beerService, beerRepository, writeRetry);
+
+            assertThat(result.failed()).isZero();
+        }
+    }
+
+    static Result run(String label, BeerService beerService, BeerRepository beerRepository,
+                      WriteRetry writeRetry) throws Exception {
+        Beer hot = beerRepository.findAll().get(0);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> failures = new ArrayList<>();
+        long started;
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int thread = 0; thread < THREADS; thread++) {
+                int quantity = thread;
+                failures.add(executor.submit(() -> {
+                    start.await();
+                    int failed = 0;
+                    for (int i = 0; i < WRITES_PER_THREAD; i++) {
+                        try {
+                            beerService.patchBeerById(hot.getId(), BeerDTO.builder().quantityOnHand(quantity).build());
+                        } catch (OptimisticLockingFailureException e) {
+                            failed++;
+                        }
+                    }
+                    return failed;
+                }));
+            }
+            started = System.nanoTime();
+            start.countDown();
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+        int failed = 0;
+        for (Future<Integer> future : failures) {
+            failed += future.get();
+        }
+        int succeeded = THREADS * WRITES_PER_THREAD - failed;
+        WriteConflictStats stats = writeRetry.getStats().get("beer");
+        log.info("{}: {} writes/s, {} succeeded, {} failed, {}", label, succeeded * 1000L / elapsedMillis,
+                succeeded, failed, stats);
+        return new Result(succeeded, failed);
+    }
+
+    record Result(int succeeded, int failed) {
+    }
+}
@@ -2,6 +2,8 @@ package com.springframework.spring6restmvc.repositories;
 
 import com.springframework.spring6restmvc.bootstrap.BootstrapData;
 import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.entities.Category;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
 import com.springframework.spring6restmvc.model.BeerStyle;
 import com.springframework.spring6restmvc.services.BeerCsvServiceImpl;
 import jakarta.validation.ConstraintViolationException;
@@ -10,6 +12,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -18,19 +22,32 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DataJpaTest
-@Import({ BeerCsvServiceImpl.class, BootstrapData.class}) // Added because @DataJpaTest loads only JPA components (repositories, entities).
+@Import({ BeerCsvServiceImpl.class, BootstrapData.class, TableStatistics.class}) // Added because @DataJpaTest loads only JPA components (repositories, entities).
 class BeerRepositoryTest {
 
     @Autowired
     BeerRepository beerRepository;
 
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    TableStatistics tableStatistics;
+
     @Test
     void testGetBeerListByName() {
-        Page<Beer> beerPage = beerRepository.findAllByBeerNameIsLikeIgnoreCase("%IPA%", null);
+        Page<Beer> beerPage = beerRepository.search(BeerSearchCriteria.builder().beerName("IPA").build(),
+                PageRequest.of(0, 1000, Sort.by("beerName", "id")));
 
         assertThat(beerPage.getContent().size()).isEqualTo(336);
     }
 
+    @Test
+    void testTableStatisticsEstimateRowCount() {
+        assertThat(tableStatistics.estimateRowCount("beer")).isEqualTo(beerRepository.count());
+        assertThat(tableStatistics.estimateRowCount("no_such_table")).isNull();
+    }
+
     @Test
     void testSaveBeerNameTooLong() {
         assertThrows(ConstraintViolationException.class, () -> {
@@ -59,4 +76,40 @@ class BeerRepositoryTest {
         assertThat(savedBeer).isNotNull();
         assertThat(savedBeer.getId()).isNotNull();
     }
+
+    @Test
+    void testSearchCombinesFilters() {
+        Page<Beer> beerPage = beerRepository.search(BeerSearchCriteria.builder()
+                .beerName("ipa")
+                .beerStyle(BeerStyle.IPA)
+                .minPrice(new BigDecimal("10"))
+                .maxQuantityOnHand(100)
+                .build(), PageRequest.of(0, 1000, Sort.by("beerName", "id")));
+
+        assertThat(beerPage.getContent()).isNotEmpty().allSatisfy(beer -> {
+            assertThat(beer.getBeerName()).containsIgnoringCase("ipa");
+            assertThat(beer.getBeerStyle()).isEqualTo(BeerStyle.IPA);
+            assertThat(beer.getPrice()).isGreaterThanOrEqualTo(new BigDecimal("10"));
+            assertThat(beer.getQuantityOnHand()).isLessThanOrEqualTo(100);
+        });
+        assertThat(beerPage.getTotalElements()).isEqualTo(beerPage.getContent().size());
+    }
+
+    @Test
+    void testSearchByCategory() {
+        Category category = categoryRepository.save(Category.builder()
+                .description("Seasonal")
+                .build());
+        List<Beer> beers = beerRepository.findAll(PageRequest.of(0, 3)).getContent();
+        // Beer owns beer_category; adding the beer on the Category side as well would write the row twice
+        beers.forEach(beer -> beer.getCategories().add(category));
+        beerRepository.flush();
+
+        Page<Beer> beerPage = beerRepository.search(BeerSearchCriteria.builder()
+                .categoryId(category.getId())
+                .build(), PageRequest.of(0, 25, Sort.by("beerName", "id")));
+
+        assertThat(beerPage.getContent()).containsExactlyInAnyOrderElementsOf(beers);
+        assertThat(beerPage.getTotalElements()).isEqualTo(3);
+    }
 }
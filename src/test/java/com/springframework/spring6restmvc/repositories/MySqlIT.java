@@ -2,16 +2,21 @@ package com.springframework.spring6restmvc.repositories;
 
 
 import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.model.BeerStyle;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
 import org.testcontainers.containers.MySQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -36,10 +41,43 @@ public class MySqlIT {
     @Autowired
     BeerRepository beerRepository;
 
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
     @Test
     void testListBeers() {
         List<Beer> beers = beerRepository.findAll();
 
         assertThat(beers.size()).isGreaterThan(0);
     }
+
+    // the same check as QueryPlanTest on the real database, where EXPLAIN reports a filesort directly
+    @Test
+    void testStyleListingIsServedByIndexWithoutFilesort() {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("explain select * from beer where beer_style = ? " +
+                "order by beer_name limit 25", BeerStyle.IPA.ordinal());
+
+        assertThat(plan).singleElement().satisfies(row -> {
+            assertThat(row.get("key")).isEqualTo("beer_style_name_idx");
+            assertThat((String) row.get("Extra")).doesNotContain("Using filesort");
+        });
+    }
+
+    @Autowired
+    SalesByStyleRepository salesByStyleRepository;
+
+    // MySQL takes the INSERT ... ON DUPLICATE KEY UPDATE path of the upsert
+    @Test
+    @Transactional
+    void salesSummaryUpsertAccumulatesOnOneRow() {
+        LocalDate day = LocalDate.of(1999, 1, 1);
+
+        salesByStyleRepository.add(day, BeerStyle.LAGER, 2, 1);
+        salesByStyleRepository.add(day, BeerStyle.LAGER, 5, 2);
+
+        assertThat(salesByStyleRepository.findDays(day, day)).singleElement().satisfies(row -> {
+            assertThat(row.getUnitsOrdered()).isEqualTo(7);
+            assertThat(row.getLineCount()).isEqualTo(3);
+        });
+    }
 }
@@ -0,0 +1,254 @@
+package com.springframework.spring6restmvc.repositories;
+
+import com.springframework.spring6restmvc.bootstrap.BootstrapData;
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.model.TombstoneType;
+import com.springframework.spring6restmvc.services.BeerCsvServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Runs EXPLAIN on the SQL that the repository queries actually send and fails on full table scans.
+ * Where H2 can tell, it also checks that the ORDER BY is served by the index ("index sorted") instead of
+ * a separate sort step. H2 only reports that when the ORDER BY columns lead the index, so for
+ * (beer_style, beer_name, id) the test checks that the equality condition on beer_style uses that index.
+ */
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.springframework.spring6restmvc.repositories.CapturingStatementInspector",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import({BeerCsvServiceImpl.class, BootstrapData.class})
+class QueryPlanTest {
+
+    private static final PageRequest PAGE = PageRequest.of(1, 25, Sort.by(Sort.Order.asc("beerName")));
+    private static final PageRequest SEARCH_PAGE = PageRequest.of(1, 25, Sort.by("beerName", "id"));
+    private static final LocalDateTime SINCE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final UUID AFTER_ID = new UUID(0, 0);
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void findAllByIdPadsTheInList() {
+        List<UUID> ids = beerRepository.findAll(PageRequest.of(0, 3)).map(Beer::getId).getContent();
+
+        List<String> plans = explain(() -> beerRepository.findAllById(ids), ids.get(0), ids.get(1), ids.get(2),
+                ids.get(2));
+
+        // three ids are sent as four parameters, the last one repeated
+        assertThat(CapturingStatementInspector.statements()).singleElement()
+                .satisfies(sql -> assertThat(sql.chars().filter(c -> c == '?').count()).isEqualTo(4));
+        assertThat(plans).singleElement().satisfies(plan -> assertThat(plan)
+                .doesNotContain("tableScan")
+                .contains("PRIMARY_KEY"));
+    }
+
+    @Test
+    void findAllByUpcIn() {
+        List<String> plans = explain(() -> beerRepository.findAllByUpcIn(List.of("0631234200036")),
+                "0631234200036");
+
+        assertThat(plans).singleElement().satisfies(plan -> assertThat(plan)
+                .doesNotContain("tableScan")
+                .contains("BEER_UPC_IDX"));
+    }
+
+    @Test
+    void findAllSortedByName() {
+        List<String> plans = explain(() -> beerRepository.findAll(PAGE), 25, 25);
+
+        assertThat(plans.get(0)).contains("BEER_NAME_IDX").contains("index sorted");
+    }
+
+    @Test
+    void searchByStyleAndPrice() {
+        List<String> plans = explain(() -> beerRepository.search(BeerSearchCriteria.builder()
+                        .beerStyle(BeerStyle.IPA)
+                        .minPrice(new BigDecimal("5"))
+                        .build(), SEARCH_PAGE),
+                BeerStyle.IPA.ordinal(), new BigDecimal("5"), 25, 25);
+
+        assertThat(plans).hasSize(2).allSatisfy(plan -> assertThat(plan)
+                .doesNotContain("tableScan")
+                .contains("BEER_STYLE_NAME_IDX: BEER_STYLE = ?1"));
+    }
+
+    @Test
+    void searchByName() {
+        List<String> plans = explain(() -> beerRepository.search(BeerSearchCriteria.builder()
+                        .beerName("ipa")
+                        .build(), SEARCH_PAGE),
+                "%IPA%", 25, 25);
+
+        // a leading wildcard can't seek, but the name index still returns the rows in page order
+        assertThat(plans).hasSize(2).allSatisfy(plan -> assertThat(plan)
+                .doesNotContain("tableScan")
+                .contains("BEER_NAME_IDX"));
+        assertThat(plans.get(0)).contains("index sorted");
+    }
+
+    @Test
+    void searchByNameAndStyle() {
+        List<String> plans = explain(() -> beerRepository.search(BeerSearchCriteria.builder()
+                        .beerName("ipa")
+                        .beerStyle(BeerStyle.IPA)
+                        .build(), SEARCH_PAGE),
+                "%IPA%", BeerStyle.IPA.ordinal(), 25, 25);
+
+        assertThat(plans).hasSize(2).allSatisfy(plan -> assertThat(plan)
+                .doesNotContain("tableScan")
+                .contains("BEER_STYLE_NAME_IDX: BEER_STYLE = ?2"));
+    }
+
+    @Test
+    void searchByAbvRange() {
+        List<String> plans = explain(() -> beerRepository.search(BeerSearchCriteria.builder()
+                        .minAbv(new BigDecimal("9"))
+                        .maxAbv(new BigDecimal("10"))
+                        .build(), SEARCH_PAGE),
+                new BigDecimal("9"), new BigDecimal("10"), 25, 25);
+
+        assertThat(plans).hasSize(2).allSatisfy(plan -> assertThat(plan)
+                .doesNotContain("tableScan")
+                .contains("BEER_ABV_IDX: ABV >= ?1"));
+    }
+
+    @Test
+    void searchByState() {
+        List<String> plans = explain(() -> beerRepository.search(BeerSearchCriteria.builder()
+                        .state("CO")
+                        .build(), SEARCH_PAGE),
+                "CO", 25, 25);
+
+        assertThat(plans).hasSize(2).allSatisfy(plan -> assertThat(plan)
+                .doesNotContain("tableScan")
+                .contains("BEER_STATE_CITY_IDX: STATE = ?1"));
+    }
+
+    @Test
+    void searchByCategory() {
+        List<String> plans = explain(() -> beerRepository.search(BeerSearchCriteria.builder()
+                        .categoryId(AFTER_ID)
+                        .build(), SEARCH_PAGE),
+                AFTER_ID.toString(), 25, 25);
+
+        assertThat(plans).hasSize(2).allSatisfy(plan -> assertThat(plan)
+                .contains("BEER_CATEGORY_CATEGORY_IDX: CATEGORY_ID = ?1"));
+    }
+
+    @Test
+    void searchReusesTheCompiledQueryOfTheSameShape() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        beerRepository.search(BeerSearchCriteria.builder().beerStyle(BeerStyle.IPA).maxPrice(BigDecimal.TEN)
+                .build(), SEARCH_PAGE);
+        long hits = statistics.getQueryPlanCacheHitCount();
+
+        beerRepository.search(BeerSearchCriteria.builder().beerStyle(BeerStyle.LAGER).maxPrice(BigDecimal.ONE)
+                .build(), SEARCH_PAGE);
+
+        assertThat(statistics.getQueryPlanCacheHitCount()).isGreaterThan(hits);
+    }
+
+    @Test
+    void beerFindModifiedAfter() {
+        List<String> plans = explain(() -> beerRepository.findModifiedAfter(SINCE, AFTER_ID, Limit.of(100)),
+                since(), since(), AFTER_ID.toString(), 100);
+
+        assertThat(plans).singleElement().satisfies(plan -> assertThat(plan)
+                .doesNotContain("tableScan")
+                .contains("BEER_UPDATE_DATE_ID_IDX")
+                .contains("index sorted"));
+    }
+
+    @Test
+    void customerFindModifiedAfter() {
+        List<String> plans = explain(() -> customerRepository.findModifiedAfter(SINCE, AFTER_ID, Limit.of(100)),
+                since(), since(), AFTER_ID.toString(), 100);
+
+        assertThat(plans).singleElement().satisfies(plan -> assertThat(plan)
+                .doesNotContain("tableScan")
+                .contains("CUSTOMER_UPDATE_DATE_ID_IDX"));
+    }
+
+    @Test
+    void tombstoneFindDeletedAfter() {
+        List<String> plans = explain(() -> tombstoneRepository.findDeletedAfter(TombstoneType.BEER, SINCE, AFTER_ID,
+                Limit.of(100)), TombstoneType.BEER.name(), since(), since(), AFTER_ID.toString(), 100);
+
+        assertThat(plans).singleElement().satisfies(plan -> assertThat(plan)
+                .doesNotContain("tableScan")
+                .contains("TOMBSTONE_TYPE_DELETED_IDX"));
+    }
+
+    @Test
+    void beerOrderFindOrderKeysBefore() {
+        List<String> plans = explain(() -> beerOrderRepository.findOrderKeysBefore(AFTER_ID, since(), AFTER_ID,
+                Limit.of(21)), AFTER_ID.toString(), since(), since(), AFTER_ID.toString(), 21);
+
+        assertThat(plans).singleElement().satisfies(plan -> assertThat(plan)
+                .doesNotContain("tableScan")
+                .contains("BEER_ORDER_CUSTOMER_CREATED_IDX: CUSTOMER_ID = ?1"));
+    }
+
+    @Test
+    void orderForeignKeysAreIndexed() {
+        String indexes = String.join(",", jdbcTemplate.queryForList("select index_name from " +
+                "information_schema.indexes where table_name in ('BEER_ORDER', 'BEER_ORDER_LINE', 'BEER_CATEGORY')",
+                String.class));
+
+        assertThat(indexes).contains("BEER_ORDER_CUSTOMER_CREATED_IDX", "BEER_ORDER_LINE_ORDER_IDX",
+                "BEER_ORDER_LINE_BEER_IDX", "BEER_CATEGORY_CATEGORY_IDX");
+    }
+
+    private static Timestamp since() {
+        return Timestamp.valueOf(SINCE);
+    }
+
+    // Runs the query, then EXPLAINs every statement it sent. Parameters are given in the order of the
+    // placeholders of the first statement; a following count query uses the leading ones.
+    private List<String> explain(Runnable query, Object... parameters) {
+        CapturingStatementInspector.clear();
+        query.run();
+
+        return CapturingStatementInspector.statements().stream()
+                .map(sql -> {
+                    int placeholders = (int) sql.chars().filter(c -> c == '?').count();
+                    return jdbcTemplate.queryForObject("explain " + sql, String.class,
+                            Arrays.copyOf(parameters, placeholders));
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,173 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.events.BeerChangeType;
+import com.springframework.spring6restmvc.events.BeerChangedEvent;
+import com.springframework.spring6restmvc.mappers.BeerMapperImpl;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.model.InventoryUpdate;
+import com.springframework.spring6restmvc.model.InventoryUpdateResult;
+import com.springframework.spring6restmvc.model.InventoryUpdateStatus;
+import com.springframework.spring6restmvc.repositories.BeerInventoryRepository;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// chunks of two, so the updates below are spread over several chunk transactions
+@DataJpaTest(properties = "beer.inventory.chunk-size=2")
+@Import({BeerInventoryServiceImpl.class, BeerInventoryRepository.class, BeerMapperImpl.class})
+@RecordApplicationEvents
+class BeerInventoryServiceImplTest {
+
+    @Autowired
+    BeerInventoryService beerInventoryService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    ApplicationEvents applicationEvents;
+
+    @Autowired
+    BeerInventoryRepository beerInventoryRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    List<Beer> beers;
+
+    @BeforeEach
+    void setUp() {
+        beers = beerRepository.saveAllAndFlush(List.of(beer("Stock Ale", "UPC-STOCK-1"),
+                beer("Stock Lager", "UPC-STOCK-2"), beer("Stock Lager Can", "UPC-STOCK-2")));
+    }
+
+    @Test
+    void updatesByIdAndUpcAndReportsEveryRow() {
+        UUID unknown = UUID.randomUUID();
+        Integer version = beers.get(0).getVersion();
+
+        List<InventoryUpdateResult> results = beerInventoryService.updateInventory(List.of(
+                InventoryUpdate.builder().id(beers.get(0).getId()).quantityOnHand(7).build(),
+                InventoryUpdate.builder().upc("UPC-STOCK-2").quantityOnHand(40).build(),
+                InventoryUpdate.builder().id(unknown).quantityOnHand(1).build(),
+                InventoryUpdate.builder().upc("UPC-NONE").quantityOnHand(1).build(),
+                InventoryUpdate.builder().id(beers.get(0).getId()).upc("UPC-STOCK-1").quantityOnHand(1).build(),
+                InventoryUpdate.builder().id(beers.get(1).getId()).quantityOnHand(-1).build()));
+
+        assertThat(results).extracting(InventoryUpdateResult::getStatus).containsExactly(
+                InventoryUpdateStatus.UPDATED, InventoryUpdateStatus.UPDATED, InventoryUpdateStatus.NOT_FOUND,
+                InventoryUpdateStatus.NOT_FOUND, InventoryUpdateStatus.INVALID, InventoryUpdateStatus.INVALID);
+        assertThat(results.get(1).getUpdatedRows()).isEqualTo(2);
+        assertThat(results.get(2).getId()).isEqualTo(unknown);
+
+        Beer updated = beerRepository.findById(beers.get(0).getId()).orElseThrow();
+        assertThat(updated.getQuantityOnHand()).isEqualTo(7);
+        assertThat(updated.getVersion()).isEqualTo(version + 1);
+        assertThat(beerRepository.findAllByUpcIn(List.of("UPC-STOCK-2")))
+                .extracting(Beer::getQuantityOnHand).containsOnly(40);
+    }
+
+    @Test
+    void publishesTheLatestStateOfEveryChangedBeer() {
+        UUID id = beers.get(0).getId();
+
+        beerInventoryService.updateInventory(List.of(
+                InventoryUpdate.builder().id(id).quantityOnHand(3).build(),
+                InventoryUpdate.builder().upc("UPC-STOCK-2").quantityOnHand(8).build(),
+                InventoryUpdate.builder().id(id).quantityOnHand(5).build()));
+
+        List<BeerChangedEvent> events = applicationEvents.stream(BeerChangedEvent.class).toList();
+        assertThat(events).extracting(BeerChangedEvent::getType).containsOnly(BeerChangeType.PATCHED);
+        // the first chunk changes all three beers, the second one the first beer again
+        assertThat(events).hasSize(4);
+        Map<UUID, Integer> lastQuantities = events.stream().collect(Collectors.toMap(BeerChangedEvent::getBeerId,
+                event -> event.getBeer().getQuantityOnHand(), (first, second) -> second));
+        assertThat(lastQuantities).containsEntry(id, 5)
+                .containsEntry(beers.get(1).getId(), 8)
+                .containsEntry(beers.get(2).getId(), 8);
+    }
+
+    // without the test transaction, so that the two pushes really run side by side
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentPushesListingTheSameBeersInOppositeOrderDoNotDeadlock() throws Exception {
+        List<Beer> many = beerRepository.saveAll(IntStream.range(0, 100)
+                .mapToObj(i -> beer("Pushed " + i, "UPC-PUSH-" + i)).toList());
+        BeerInventoryServiceImpl service = new BeerInventoryServiceImpl(beerInventoryRepository, beerRepository,
+                new BeerMapperImpl(), entityManager, eventPublisher, transactionManager, 500);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 10; round++) {
+                List<InventoryUpdate> forward = many.stream()
+                        .map(beer -> InventoryUpdate.builder().id(beer.getId()).quantityOnHand(1).build())
+                        .collect(Collectors.toCollection(ArrayList::new));
+                List<InventoryUpdate> backward = new ArrayList<>(forward.reversed());
+                List<InventoryUpdate> byUpc = many.stream()
+                        .map(beer -> InventoryUpdate.builder().upc(beer.getUpc()).quantityOnHand(2).build())
+                        .toList().reversed();
+                backward.addAll(byUpc);
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<List<InventoryUpdateResult>> first = executor.submit(() -> {
+                    start.await();
+                    return service.updateInventory(forward);
+                });
+                Future<List<InventoryUpdateResult>> second = executor.submit(() -> {
+                    start.await();
+                    return service.updateInventory(backward);
+                });
+
+                assertThat(first.get(30, TimeUnit.SECONDS)).extracting(InventoryUpdateResult::getStatus)
+                        .containsOnly(InventoryUpdateStatus.UPDATED);
+                assertThat(second.get(30, TimeUnit.SECONDS)).extracting(InventoryUpdateResult::getStatus)
+                        .containsOnly(InventoryUpdateStatus.UPDATED);
+            }
+        } finally {
+            executor.shutdownNow();
+            beerRepository.deleteAllByIdInBatch(Stream.concat(many.stream(), beers.stream()).map(Beer::getId)
+                    .toList());
+        }
+    }
+
+    private static Beer beer(String name, String upc) {
+        return Beer.builder()
+                .beerName(name)
+                .beerStyle(BeerStyle.LAGER)
+                .upc(upc)
+                .price(new BigDecimal("9.99"))
+                .quantityOnHand(100)
+                .build();
+    }
+}
@@ -0,0 +1,270 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.entities.BeerOrder;
+import com.springframework.spring6restmvc.entities.BeerOrderShipment;
+import com.springframework.spring6restmvc.entities.Customer;
+import com.springframework.spring6restmvc.mappers.BeerMapperImpl;
+import com.springframework.spring6restmvc.mappers.BeerOrderMapperImpl;
+import com.springframework.spring6restmvc.model.BeerOrderCreateDTO;
+import com.springframework.spring6restmvc.model.BeerOrderDTO;
+import com.springframework.spring6restmvc.model.BeerOrderLineCreateDTO;
+import com.springframework.spring6restmvc.model.BeerOrderLineDTO;
+import com.springframework.spring6restmvc.model.BeerOrderPage;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.repositories.BeerInventoryRepository;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.repositories.CustomerRepository;
+import com.springframework.spring6restmvc.repositories.SalesByStyleRepository;
+import com.springframework.spring6restmvc.stats.SalesByStyleSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({BeerOrderServiceImpl.class, BeerOrderMapperImpl.class, BeerMapperImpl.class, BeerInventoryRepository.class,
+        SalesByStyleSummary.class, SalesByStyleRepository.class, OrderArchive.class, OrderDeletion.class})
+class BeerOrderServiceImplTest {
+
+    static final int LINES = 50;
+
+    @Autowired
+    BeerOrderService beerOrderService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    OrderArchive orderArchive;
+
+    Customer customer;
+    List<Beer> beers;
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        customer = customerRepository.save(Customer.builder().name("Order Customer").build());
+        beers = beerRepository.saveAllAndFlush(IntStream.range(0, LINES)
+                .mapToObj(i -> Beer.builder()
+                        .beerName("Order Beer " + i)
+                        .beerStyle(BeerStyle.PALE_ALE)
+                        .upc("UPC-ORDER-" + i)
+                        .price(new BigDecimal("4.50"))
+                        .quantityOnHand(100)
+                        .build())
+                .toList());
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void createsTheOrderWithBatchedLineInserts() {
+        BeerOrderDTO order = beerOrderService.createOrder(orderOf(beers.stream().map(Beer::getId).toList()));
+        entityManager.flush();
+
+        assertThat(order.getId()).isNotNull();
+        assertThat(order.getCustomerId()).isEqualTo(customer.getId());
+        assertThat(order.getBeerOrderLines()).hasSize(LINES)
+                .allSatisfy(line -> assertThat(line.getQuantityAllocated()).isZero());
+        // customer, all beers, the order and one batch with all its lines
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(LINES + 1);
+    }
+
+    @Test
+    void readsTheOrderGraphInOneQuery() {
+        UUID orderId = beerOrderService.createOrder(orderOf(beers.stream().map(Beer::getId).toList())).getId();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        BeerOrderDTO order = beerOrderService.getOrderById(orderId).orElseThrow();
+
+        assertThat(order.getBeerOrderLines()).hasSize(LINES)
+                .extracting(BeerOrderLineDTO::getBeerName).allMatch(name -> name.startsWith("Order Beer "));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void allocatesEveryLineTheStockCovers() {
+        UUID first = beerOrderService.createOrder(orderOf(List.of(beers.get(0).getId(), beers.get(1).getId()),
+                60)).getId();
+        UUID second = beerOrderService.createOrder(orderOf(List.of(beers.get(0).getId(), beers.get(2).getId()),
+                60)).getId();
+
+        BeerOrderDTO firstAllocated = beerOrderService.allocateOrder(first).orElseThrow();
+        BeerOrderDTO secondAllocated = beerOrderService.allocateOrder(second).orElseThrow();
+
+        assertThat(firstAllocated.getBeerOrderLines()).extracting(BeerOrderLineDTO::getQuantityAllocated)
+                .containsOnly(60);
+        // beer 0 has 40 left, beer 2 still has all of its 100
+        assertThat(allocated(secondAllocated, beers.get(0))).isZero();
+        assertThat(allocated(secondAllocated, beers.get(2))).isEqualTo(60);
+        assertThat(beerRepository.findById(beers.get(0).getId()).orElseThrow().getQuantityOnHand()).isEqualTo(40);
+
+        // allocating again only retries what is missing
+        beerOrderService.allocateOrder(second);
+        assertThat(beerRepository.findById(beers.get(0).getId()).orElseThrow().getQuantityOnHand()).isEqualTo(40);
+        assertThat(beerRepository.findById(beers.get(2).getId()).orElseThrow().getQuantityOnHand()).isEqualTo(40);
+    }
+
+    // without the test transaction, so that both allocations see the committed order and run side by side
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void allocatingTheSameOrderTwiceAtOnceReservesTheStockOnce() throws Exception {
+        UUID orderId = beerOrderService.createOrder(orderOf(beers.stream().map(Beer::getId).toList())).getId();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CyclicBarrier start = new CyclicBarrier(2);
+            List<Future<Optional<BeerOrderDTO>>> allocations = IntStream.range(0, 2)
+                    .mapToObj(i -> executor.submit(() -> {
+                        start.await();
+                        return beerOrderService.allocateOrder(orderId);
+                    }))
+                    .toList();
+
+            for (Future<Optional<BeerOrderDTO>> allocation : allocations) {
+                assertThat(allocation.get(30, TimeUnit.SECONDS).orElseThrow().getBeerOrderLines())
+                        .extracting(BeerOrderLineDTO::getQuantityAllocated).containsOnly(2);
+            }
+            assertThat(beerRepository.findAllById(beers.stream().map(Beer::getId).toList()))
+                    .extracting(Beer::getQuantityOnHand).containsOnly(98);
+        } finally {
+            executor.shutdownNow();
+            jdbcTemplate.update("delete from beer_order_line where beer_order_id = ?", orderId.toString());
+            jdbcTemplate.update("delete from beer_order where id = ?", orderId.toString());
+            jdbcTemplate.update("delete from sales_by_style_day");
+            beerRepository.deleteAllByIdInBatch(beers.stream().map(Beer::getId).toList());
+            customerRepository.deleteById(customer.getId());
+        }
+    }
+
+    @Test
+    void unknownBeersAreRejected() {
+        UUID unknown = UUID.randomUUID();
+
+        assertThatThrownBy(() -> beerOrderService.createOrder(orderOf(List.of(beers.get(0).getId(), unknown))))
+                .isInstanceOf(InvalidOrderException.class)
+                .hasMessageContaining(unknown.toString());
+    }
+
+    @Test
+    void archivedOrdersAreStillFoundById() {
+        UUID orderId = beerOrderService.createOrder(orderOf(beers.stream().map(Beer::getId).toList())).getId();
+        BeerOrder order = entityManager.find(BeerOrder.class, orderId);
+        order.setBeerOrderShipment(BeerOrderShipment.builder().trackingNumber("TRACK-ARCHIVE").build());
+        entityManager.flush();
+        jdbcTemplate.update("update beer_order set created_date = ? where id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusYears(2)), orderId.toString());
+        entityManager.clear();
+
+        assertThat(orderArchive.archive()).isEqualTo(1);
+        assertThat(entityManager.find(BeerOrder.class, orderId)).isNull();
+
+        BeerOrderDTO archived = beerOrderService.getOrderById(orderId).orElseThrow();
+        assertThat(archived.getCustomerId()).isEqualTo(customer.getId());
+        assertThat(archived.getBeerOrderLines()).hasSize(LINES);
+    }
+
+    @Test
+    void unknownOrdersAreReportedAsMissing() {
+        assertThat(beerOrderService.getOrderById(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    void pagesThroughTheOrderHistoryNewestFirst() {
+        List<BeerOrderDTO> created = IntStream.range(0, 5)
+                .mapToObj(i -> beerOrderService.createOrder(orderOf(List.of(beers.get(i).getId(),
+                        beers.get(i + 1).getId()))))
+                .toList();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<BeerOrderDTO> seen = new ArrayList<>();
+        BeerOrderPage page = beerOrderService.getCustomerOrders(customer.getId(), null, null, 2).orElseThrow();
+        seen.addAll(page.getOrders());
+        while (page.isHasMore()) {
+            page = beerOrderService.getCustomerOrders(customer.getId(), page.getNextBefore(),
+                    page.getNextBeforeId(), 2).orElseThrow();
+            seen.addAll(page.getOrders());
+        }
+
+        assertThat(seen).extracting(BeerOrderDTO::getId)
+                .containsExactlyInAnyOrderElementsOf(created.stream().map(BeerOrderDTO::getId).toList());
+        // orders created within the same tick are told apart by id
+        assertThat(seen).isSortedAccordingTo(Comparator.comparing(BeerOrderDTO::getCreatedDate)
+                .thenComparing(order -> order.getId().toString()).reversed());
+        assertThat(seen).allSatisfy(order -> assertThat(order.getBeerOrderLines()).hasSize(2));
+        // the keys and then the graphs of just that page, for each of the three pages
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+    }
+
+    @Test
+    void orderHistoryOfUnknownCustomersIsMissing() {
+        assertThat(beerOrderService.getCustomerOrders(UUID.randomUUID(), null, null, null)).isEmpty();
+        assertThat(beerOrderService.getCustomerOrders(customer.getId(), null, null, null)).hasValueSatisfying(
+                page -> assertThat(page.getOrders()).isEmpty());
+    }
+
+    private static int allocated(BeerOrderDTO order, Beer beer) {
+        return order.getBeerOrderLines().stream()
+                .filter(line -> line.getBeerId().equals(beer.getId()))
+                .findFirst().orElseThrow()
+                .getQuantityAllocated();
+    }
+
+    private BeerOrderCreateDTO orderOf(List<UUID> beerIds) {
+        return orderOf(beerIds, 2);
+    }
+
+    private BeerOrderCreateDTO orderOf(List<UUID> beerIds, int quantity) {
+        return BeerOrderCreateDTO.builder()
+                .customerId(customer.getId())
+                .customerRef("REF-1")
+                .beerOrderLines(beerIds.stream()
+                        .map(id -> BeerOrderLineCreateDTO.builder().beerId(id).orderQuantity(quantity).build())
+                        .toList())
+                .build();
+    }
+}
@@ -0,0 +1,287 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.BatchGetResult;
+import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
+import com.springframework.spring6restmvc.model.BeerSortField;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Behaviour every BeerService implementation has to share: filtering, sorting, paging and the write results.
+ * Subclasses provide an empty service; the fixture then adds the same 30 beers to it.
+ */
+// Spring looks for @Transactional on the class that declares the test method, so the rollback of the
+// JPA subclass needs it here; plain JUnit subclasses ignore it
+@Transactional
+abstract class BeerServiceContractTest {
+
+    // distinct names with the same capitalization, so case-sensitive and case-insensitive orderings agree
+    private static final String[] NAMES = {"Amber", "Bock", "Citra", "Dunkel", "Export", "Festbier", "Gose",
+            "Helles", "Imperial", "Juniper", "Kolsch", "Lager", "Maibock", "Nitro", "Oatmeal", "Porter", "Quad",
+            "Rauchbier", "Saison", "Tripel", "Urbock", "Vienna", "Witbier", "Xmas", "Yuzu", "Zwickel",
+            "Altbier", "Barleywine", "Cream", "Doppelbock"};
+
+    BeerService beerService;
+
+    List<BeerDTO> savedBeers;
+
+    abstract BeerService createEmptyService();
+
+    @BeforeEach
+    void setUpFixture() {
+        beerService = createEmptyService();
+        savedBeers = new ArrayList<>();
+        for (int i = 0; i < NAMES.length; i++) {
+            savedBeers.add(beerService.saveBeer(BeerDTO.builder()
+                    .beerName(NAMES[i] + (i % 3 == 0 ? " IPA" : " Ale"))
+                    .beerStyle(i % 3 == 0 ? BeerStyle.IPA : BeerStyle.ALE)
+                    .upc("UPC-" + i)
+                    .price(BigDecimal.valueOf(500 + 50 * i, 2)) // 5.00, 5.50, ... 19.50
+                    .quantityOnHand(i)
+                    .build()));
+        }
+    }
+
+    @Test
+    void listsAllBeersSortedByNameAndPaged() {
+        Page<BeerDTO> page = beerService.getAllBears(criteria(null, null), null, 2, 10);
+
+        assertThat(page.getTotalElements()).isEqualTo(30);
+        assertThat(page.getTotalPages()).isEqualTo(3);
+        assertThat(page.getNumber()).isEqualTo(1);
+        assertThat(names(page)).containsExactlyElementsOf(sortedNames().subList(10, 20));
+    }
+
+    @Test
+    void defaultsToFirstPageOf25() {
+        Page<BeerDTO> page = beerService.getAllBears(criteria(null, null), null, null, null);
+
+        assertThat(page.getNumber()).isZero();
+        assertThat(page.getContent()).hasSize(25);
+        assertThat(names(page)).containsExactlyElementsOf(sortedNames().subList(0, 25));
+    }
+
+    @Test
+    void pageAfterTheLastIsEmpty() {
+        Page<BeerDTO> page = beerService.getAllBears(criteria(null, null), null, 5, 10);
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isEqualTo(30);
+    }
+
+    @Test
+    void filtersByStyle() {
+        Page<BeerDTO> page = beerService.getAllBears(criteria(null, BeerStyle.IPA), null, 1, 25);
+
+        assertThat(page.getTotalElements()).isEqualTo(10);
+        assertThat(page.getContent()).allSatisfy(beer -> assertThat(beer.getBeerStyle()).isEqualTo(BeerStyle.IPA));
+        assertThat(names(page)).isSorted();
+    }
+
+    @Test
+    void filtersByNameIgnoringCase() {
+        Page<BeerDTO> page = beerService.getAllBears(criteria("bOcK", null), null, 1, 25);
+
+        assertThat(names(page)).containsExactly("Bock Ale", "Doppelbock Ale", "Maibock IPA", "Urbock Ale");
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void filtersByNameAndStyle() {
+        Page<BeerDTO> page = beerService.getAllBears(criteria("bock", BeerStyle.ALE), null, 1, 2);
+
+        assertThat(names(page)).containsExactly("Bock Ale", "Doppelbock Ale");
+        assertThat(page.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void filtersByPriceAndInventoryRanges() {
+        BeerSearchCriteria criteria = BeerSearchCriteria.builder()
+                .minPrice(new BigDecimal("8.00"))
+                .maxPrice(new BigDecimal("12.00"))
+                .maxQuantityOnHand(10)
+                .build();
+
+        // beers 6 to 10 of the fixture
+        assertThat(names(beerService.getAllBears(criteria, null, 1, 25)))
+                .containsExactly("Gose IPA", "Helles Ale", "Imperial Ale", "Juniper IPA", "Kolsch Ale");
+
+        criteria.setBeerStyle(BeerStyle.IPA);
+        Page<BeerDTO> page = beerService.getAllBears(criteria, null, 1, 1);
+        assertThat(names(page)).containsExactly("Gose IPA");
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void unknownCategoryMatchesNothing() {
+        Page<BeerDTO> page = beerService.getAllBears(BeerSearchCriteria.builder()
+                .categoryId(UUID.randomUUID())
+                .build(), null, 1, 25);
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isZero();
+    }
+
+    @Test
+    void countsStylesScopedByName() {
+        assertThat(beerService.getStyleCounts("bock"))
+                .containsEntry(BeerStyle.ALE, 3L)
+                .containsEntry(BeerStyle.IPA, 1L)
+                .containsEntry(BeerStyle.LAGER, 0L);
+        assertThat(beerService.getStyleCounts("ipa"))
+                .containsEntry(BeerStyle.IPA, 10L)
+                .containsEntry(BeerStyle.ALE, 0L);
+    }
+
+    @Test
+    void sortsByUpdateDate() throws InterruptedException {
+        BeerSearchCriteria byUpdateDate = BeerSearchCriteria.builder().sortBy(BeerSortField.UPDATE_DATE).build();
+        beerService.getAllBears(byUpdateDate, null, 1, 1); // writes the fixture before the patch below
+        Thread.sleep(10);
+        BeerDTO beer = savedBeers.get(0);
+        beerService.patchBeerById(beer.getId(), BeerDTO.builder().quantityOnHand(42).build());
+
+        Page<BeerDTO> page = beerService.getAllBears(byUpdateDate, null, 1, 30);
+
+        assertThat(page.getContent()).extracting(BeerDTO::getUpdateDate).isSorted();
+        assertThat(page.getContent().get(29).getId()).isEqualTo(beer.getId());
+    }
+
+    @Test
+    void hidesInventoryOnlyWhenAskedTo() {
+        assertThat(beerService.getAllBears(criteria(null, null), false, 1, 25).getContent())
+                .allSatisfy(beer -> assertThat(beer.getQuantityOnHand()).isNull());
+        assertThat(beerService.getAllBears(criteria(null, null), true, 1, 25).getContent())
+                .allSatisfy(beer -> assertThat(beer.getQuantityOnHand()).isNotNull());
+        assertThat(beerService.getAllBears(criteria(null, null), null, 1, 25).getContent())
+                .allSatisfy(beer -> assertThat(beer.getQuantityOnHand()).isNotNull());
+    }
+
+    @Test
+    void capsPageSizeAt1000() {
+        assertThat(beerService.getAllBears(criteria(null, null), null, 1, 5000).getSize()).isEqualTo(1000);
+    }
+
+    @Test
+    void savedBeerCanBeReadBack() {
+        BeerDTO saved = savedBeers.get(4);
+
+        BeerDTO found = beerService.getBeerById(saved.getId()).orElseThrow();
+
+        assertThat(found.getBeerName()).isEqualTo(saved.getBeerName());
+        assertThat(found.getBeerStyle()).isEqualTo(saved.getBeerStyle());
+        assertThat(found.getPrice()).isEqualByComparingTo(saved.getPrice());
+        assertThat(found.getQuantityOnHand()).isEqualTo(saved.getQuantityOnHand());
+    }
+
+    @Test
+    void changingAReturnedBeerDoesNotChangeTheStoredOne() {
+        BeerDTO found = beerService.getBeerById(savedBeers.get(0).getId()).orElseThrow();
+        found.setBeerName("Changed Outside");
+
+        assertThat(beerService.getBeerById(found.getId()).orElseThrow().getBeerName())
+                .isEqualTo(savedBeers.get(0).getBeerName());
+    }
+
+    @Test
+    void updateMovesBeerBetweenStyleAndNameListings() {
+        BeerDTO beer = savedBeers.get(0);
+        beer.setBeerName("Zzz Renamed");
+        beer.setBeerStyle(BeerStyle.STOUT);
+
+        assertThat(beerService.updateBeerById(beer.getId(), beer)).isPresent();
+
+        assertThat(beerService.getAllBears(criteria(null, BeerStyle.IPA), null, 1, 25).getTotalElements()).isEqualTo(9);
+        assertThat(names(beerService.getAllBears(criteria(null, BeerStyle.STOUT), null, 1, 25))).containsExactly("Zzz Renamed");
+        assertThat(names(beerService.getAllBears(criteria("renamed", null), null, 1, 25))).containsExactly("Zzz Renamed");
+        assertThat(beerService.getAllBears(criteria(null, null), null, 1, 25).getTotalElements()).isEqualTo(30);
+    }
+
+    @Test
+    void patchChangesOnlyGivenFields() {
+        BeerDTO beer = savedBeers.get(1);
+
+        BeerDTO patched = beerService.patchBeerById(beer.getId(), BeerDTO.builder().quantityOnHand(500).build())
+                .orElseThrow();
+
+        assertThat(patched.getQuantityOnHand()).isEqualTo(500);
+        assertThat(patched.getBeerName()).isEqualTo(beer.getBeerName());
+        assertThat(beerService.getBeerById(beer.getId()).orElseThrow().getQuantityOnHand()).isEqualTo(500);
+    }
+
+    @Test
+    void stateCodesAreStoredUpperCase() {
+        BeerDTO saved = beerService.saveBeer(BeerDTO.builder()
+                .beerName("State Lager").beerStyle(BeerStyle.LAGER).upc("UPC-S").price(BigDecimal.TEN)
+                .state("co").build());
+        assertThat(beerService.getBeerById(saved.getId()).orElseThrow().getState()).isEqualTo("CO");
+
+        BeerDTO beer = savedBeers.get(2);
+        beer.setState("tx");
+        beerService.updateBeerById(beer.getId(), beer);
+        assertThat(beerService.getBeerById(beer.getId()).orElseThrow().getState()).isEqualTo("TX");
+
+        beerService.patchBeerById(beer.getId(), BeerDTO.builder().state("wa").build());
+        assertThat(beerService.getBeerById(beer.getId()).orElseThrow().getState()).isEqualTo("WA");
+    }
+
+    @Test
+    void deleteRemovesBeerFromListings() {
+        BeerDTO beer = savedBeers.get(3);
+
+        assertThat(beerService.deleteBeerById(beer.getId())).isTrue();
+
+        assertThat(beerService.getBeerById(beer.getId())).isEmpty();
+        assertThat(beerService.getAllBears(criteria(null, beer.getBeerStyle()), null, 1, 25).getTotalElements()).isEqualTo(9);
+        assertThat(names(beerService.getAllBears(criteria(null, null), null, 1, 100))).doesNotContain(beer.getBeerName());
+    }
+
+    @Test
+    void batchGetReturnsFoundBeersByIdAndListsMissingIds() {
+        UUID unknown = UUID.randomUUID();
+        List<UUID> ids = List.of(savedBeers.get(5).getId(), unknown, savedBeers.get(2).getId(),
+                savedBeers.get(5).getId());
+
+        BatchGetResult<BeerDTO> result = beerService.getBeersByIds(ids);
+
+        assertThat(result.getFound().keySet()).containsExactly(savedBeers.get(5).getId(), savedBeers.get(2).getId());
+        assertThat(result.getFound().get(savedBeers.get(2).getId()).getBeerName())
+                .isEqualTo(savedBeers.get(2).getBeerName());
+        assertThat(result.getNotFound()).containsExactly(unknown);
+    }
+
+    @Test
+    void unknownIdsAreReportedAsMissing() {
+        UUID unknown = UUID.randomUUID();
+
+        assertThat(beerService.getBeerById(unknown)).isEmpty();
+        assertThat(beerService.updateBeerById(unknown, savedBeers.get(0))).isEmpty();
+        assertThat(beerService.patchBeerById(unknown, BeerDTO.builder().build())).isEmpty();
+        assertThat(beerService.deleteBeerById(unknown)).isFalse();
+    }
+
+    static BeerSearchCriteria criteria(String beerName, BeerStyle beerStyle) {
+        return BeerSearchCriteria.builder()
+                .beerName(beerName)
+                .beerStyle(beerStyle)
+                .build();
+    }
+
+    private static List<String> names(Page<BeerDTO> page) {
+        return page.getContent().stream().map(BeerDTO::getBeerName).toList();
+    }
+
+    private List<String> sortedNames() {
+        return savedBeers.stream().map(BeerDTO::getBeerName).sorted().toList();
+    }
+}
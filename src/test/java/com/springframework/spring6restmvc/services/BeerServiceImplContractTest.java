@@ -0,0 +1,56 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerServiceImplContractTest extends BeerServiceContractTest {
+
+    @Override
+    BeerService createEmptyService() {
+        return new BeerServiceImpl(List.of());
+    }
+
+    @Test
+    void indexesStayConsistentUnderConcurrentWrites() throws Exception {
+        BeerStyle[] styles = BeerStyle.values();
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int writer = 0; writer < 8; writer++) {
+                int offset = writer;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        BeerDTO beer = savedBeers.get((offset + i) % savedBeers.size());
+                        beerService.patchBeerById(beer.getId(), BeerDTO.builder()
+                                .beerStyle(styles[(offset + i) % styles.length])
+                                .beerName("Beer " + offset + "-" + i)
+                                .build());
+                        beerService.getAllBears(criteria(null, styles[i % styles.length]), null, 1, 10);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        long perStyle = Arrays.stream(styles)
+                .mapToLong(style -> beerService.getAllBears(criteria(null, style), null, 1, 1000).getContent().size())
+                .sum();
+        long counted = Arrays.stream(styles)
+                .mapToLong(style -> beerService.getAllBears(criteria(null, style), null, 1, 1).getTotalElements())
+                .sum();
+        assertThat(perStyle).isEqualTo(30);
+        assertThat(counted).isEqualTo(30);
+        assertThat(beerService.getAllBears(criteria(null, null), null, 1, 1000).getContent()).hasSize(30);
+    }
+}
@@ -0,0 +1,23 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.mappers.BeerMapperImpl;
+import com.springframework.spring6restmvc.repositories.TableStatistics;
+import com.springframework.spring6restmvc.stats.BeerStyleFacets;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+// no BootstrapData here, the database starts empty and every test is rolled back
+@DataJpaTest
+@Import({BeerServiceJPA.class, BeerMapperImpl.class, BeerStyleFacets.class, BeerTotals.class, TableStatistics.class,
+        ParallelPageQueries.class, WriteRetry.class, DeltaSyncLag.class})
+class BeerServiceJPAContractTest extends BeerServiceContractTest {
+
+    @Autowired
+    BeerServiceJPA beerServiceJPA;
+
+    @Override
+    BeerService createEmptyService() {
+        return beerServiceJPA;
+    }
+}
@@ -0,0 +1,115 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.events.BeerChangeType;
+import com.springframework.spring6restmvc.events.BeerChangedEvent;
+import com.springframework.spring6restmvc.model.BeerSearchCriteria;
+import com.springframework.spring6restmvc.model.BeerSortField;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.model.CountedPage;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.repositories.TableStatistics;
+import com.springframework.spring6restmvc.stats.BeerStyleFacets;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class BeerTotalsTest {
+
+    static final PageRequest SECOND_PAGE = PageRequest.of(1, 2);
+    static final List<String> FULL_PAGE = List.of("a", "b");
+
+    BeerRepository beerRepository = mock(BeerRepository.class);
+    BeerStyleFacets beerStyleFacets = mock(BeerStyleFacets.class);
+    TableStatistics tableStatistics = mock(TableStatistics.class);
+
+    ParallelPageQueries parallelPageQueries = mock(ParallelPageQueries.class);
+
+    BeerTotals beerTotals = new BeerTotals(beerRepository, beerStyleFacets, tableStatistics, parallelPageQueries,
+            1000, Duration.ofMinutes(1));
+
+    @Test
+    void countsAreCachedPerNormalizedFilterUntilTheNextWrite() {
+        given(beerRepository.countMatching(any())).willReturn(42L);
+
+        CountedPage<String> page = beerTotals.page(FULL_PAGE, SECOND_PAGE, BeerSearchCriteria.builder()
+                .beerName("ipa").minPrice(new BigDecimal("5")).build());
+        beerTotals.page(FULL_PAGE, SECOND_PAGE, BeerSearchCriteria.builder()
+                .beerName("IPA").minPrice(new BigDecimal("5.00")).sortBy(BeerSortField.UPDATE_DATE).build());
+
+        assertThat(page.getTotalElements()).isEqualTo(42);
+        assertThat(page.isExact()).isTrue();
+        verify(beerRepository, times(1)).countMatching(any());
+
+        beerTotals.onBeerChanged(BeerChangedEvent.builder().type(BeerChangeType.CREATED).build());
+        beerTotals.page(FULL_PAGE, SECOND_PAGE, BeerSearchCriteria.builder().beerName("ipa")
+                .minPrice(BigDecimal.valueOf(5)).build());
+
+        verify(beerRepository, times(2)).countMatching(any());
+    }
+
+    @Test
+    void incompletePagesNeedNoCount() {
+        CountedPage<String> page = beerTotals.page(List.of("a"), SECOND_PAGE, new BeerSearchCriteria());
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.isExact()).isTrue();
+        verify(beerRepository, never()).countMatching(any());
+        verify(tableStatistics, never()).estimateRowCount(any());
+    }
+
+    @Test
+    void largeTablesUseEstimatesForUnfilteredAndStyleOnlyListings() {
+        given(tableStatistics.estimateRowCount("beer")).willReturn(5000L);
+        given(beerStyleFacets.getCounts()).willReturn(Map.of(BeerStyle.IPA, 700L));
+        given(beerRepository.countMatching(any())).willReturn(12L);
+
+        CountedPage<String> all = beerTotals.page(FULL_PAGE, SECOND_PAGE, new BeerSearchCriteria());
+        CountedPage<String> ipa = beerTotals.page(FULL_PAGE, SECOND_PAGE, BeerSearchCriteria.builder()
+                .beerStyle(BeerStyle.IPA).build());
+        CountedPage<String> named = beerTotals.page(FULL_PAGE, SECOND_PAGE, BeerSearchCriteria.builder()
+                .beerStyle(BeerStyle.IPA).beerName("hazy").build());
+
+        assertThat(all.getTotalElements()).isEqualTo(5000);
+        assertThat(all.isExact()).isFalse();
+        assertThat(ipa.getTotalElements()).isEqualTo(700);
+        assertThat(ipa.isExact()).isFalse();
+        assertThat(named.getTotalElements()).isEqualTo(12);
+        assertThat(named.isExact()).isTrue();
+        verify(tableStatistics, times(1)).estimateRowCount("beer");
+    }
+
+    @Test
+    void knownTotalsAreNotCountedInParallel() {
+        given(tableStatistics.estimateRowCount("beer")).willReturn(5000L);
+
+        CountedPage<String> page = beerTotals.page(() -> FULL_PAGE, SECOND_PAGE, new BeerSearchCriteria());
+
+        assertThat(page.isExact()).isFalse();
+        verify(parallelPageQueries, never()).page(any(), any(), any());
+    }
+
+    @Test
+    void smallTablesAreCountedExactly() {
+        given(tableStatistics.estimateRowCount("beer")).willReturn(500L);
+        given(beerRepository.countMatching(any())).willReturn(498L);
+
+        CountedPage<String> page = beerTotals.page(Collections.nCopies(2, "a"), SECOND_PAGE,
+                new BeerSearchCriteria());
+
+        assertThat(page.getTotalElements()).isEqualTo(498);
+        assertThat(page.isExact()).isTrue();
+    }
+}
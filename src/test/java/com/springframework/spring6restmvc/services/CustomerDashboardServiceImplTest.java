@@ -0,0 +1,185 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.BeerOrderDTO;
+import com.springframework.spring6restmvc.model.BeerOrderPage;
+import com.springframework.spring6restmvc.model.CustomerDTO;
+import com.springframework.spring6restmvc.model.CustomerDashboard;
+import com.springframework.spring6restmvc.model.CustomerOrderTotals;
+import com.springframework.spring6restmvc.model.OpenShipmentDTO;
+import com.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import com.springframework.spring6restmvc.repositories.BeerOrderShipmentRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class CustomerDashboardServiceImplTest {
+
+    static final UUID CUSTOMER_ID = UUID.randomUUID();
+    static final Duration SLOW = Duration.ofMillis(300);
+
+    CustomerService customerService = mock(CustomerService.class);
+    BeerOrderService beerOrderService = mock(BeerOrderService.class);
+    BeerOrderRepository beerOrderRepository = mock(BeerOrderRepository.class);
+    BeerOrderShipmentRepository beerOrderShipmentRepository = mock(BeerOrderShipmentRepository.class);
+
+    HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+    DataSource dataSource = hikariDataSource(pool);
+
+    CustomerDashboardServiceImpl dashboardService = dashboardService(Duration.ofSeconds(1), 4);
+
+    @BeforeEach
+    void setUp() {
+        given(pool.getIdleConnections()).willReturn(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardService.shutdown();
+    }
+
+    @Test
+    void sectionsAreReadAtTheSameTime() {
+        given(customerService.getCustomerById(CUSTOMER_ID)).willAnswer(invocation -> slowly(Optional.of(
+                CustomerDTO.builder().id(CUSTOMER_ID).build())));
+        given(beerOrderService.getCustomerOrders(eq(CUSTOMER_ID), any(), any(), any())).willAnswer(invocation ->
+                slowly(Optional.of(BeerOrderPage.builder().orders(List.of(BeerOrderDTO.builder().build())).build())));
+        given(beerOrderShipmentRepository.findOpenByCustomerId(eq(CUSTOMER_ID), any())).willAnswer(invocation ->
+                slowly(List.of(OpenShipmentDTO.builder().build())));
+        given(beerOrderRepository.getTotalsByCustomerId(CUSTOMER_ID)).willAnswer(invocation ->
+                slowly(new CustomerOrderTotals(1, 6, 6)));
+
+        long start = System.nanoTime();
+        CustomerDashboard dashboard = dashboardService.getDashboard(CUSTOMER_ID).orElseThrow();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(dashboard.getCustomer().getId()).isEqualTo(CUSTOMER_ID);
+        assertThat(dashboard.getRecentOrders()).hasSize(1);
+        assertThat(dashboard.getOpenShipments()).hasSize(1);
+        assertThat(dashboard.getTotals().getOrderedQuantity()).isEqualTo(6);
+        assertThat(dashboard.getUnavailable()).isEmpty();
+        // four sections one after the other would take at least 4 * SLOW
+        assertThat(elapsed).isLessThan(SLOW.multipliedBy(3));
+    }
+
+    @Test
+    void failedAndLateSectionsAreLeftOut() {
+        CustomerDashboardServiceImpl impatient = dashboardService(Duration.ofMillis(100), 4);
+        given(customerService.getCustomerById(CUSTOMER_ID)).willReturn(Optional.of(
+                CustomerDTO.builder().id(CUSTOMER_ID).build()));
+        given(beerOrderService.getCustomerOrders(eq(CUSTOMER_ID), any(), any(), any())).willAnswer(invocation ->
+                slowly(Optional.of(BeerOrderPage.builder().orders(List.of()).build())));
+        given(beerOrderShipmentRepository.findOpenByCustomerId(eq(CUSTOMER_ID), any()))
+                .willThrow(new QueryTimeoutException("too slow"));
+        given(beerOrderRepository.getTotalsByCustomerId(CUSTOMER_ID)).willReturn(new CustomerOrderTotals(0, 0, 0));
+
+        CustomerDashboard dashboard = impatient.getDashboard(CUSTOMER_ID).orElseThrow();
+        impatient.shutdown();
+
+        assertThat(dashboard.getCustomer()).isNotNull();
+        assertThat(dashboard.getTotals()).isNotNull();
+        assertThat(dashboard.getRecentOrders()).isNull();
+        assertThat(dashboard.getOpenShipments()).isNull();
+        assertThat(dashboard.getUnavailable()).containsExactly("recentOrders", "openShipments");
+    }
+
+    @Test
+    void lateSectionsAreInterrupted() throws InterruptedException {
+        CustomerDashboardServiceImpl impatient = dashboardService(Duration.ofMillis(100), 4);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        given(customerService.getCustomerById(CUSTOMER_ID)).willReturn(Optional.of(
+                CustomerDTO.builder().id(CUSTOMER_ID).build()));
+        given(beerOrderRepository.getTotalsByCustomerId(CUSTOMER_ID)).willAnswer(invocation -> {
+            try {
+                Thread.sleep(Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+
+        CustomerDashboard dashboard = impatient.getDashboard(CUSTOMER_ID).orElseThrow();
+
+        assertThat(dashboard.getUnavailable()).containsExactly("totals");
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        impatient.shutdown();
+    }
+
+    @Test
+    void sectionsRunOnTheCallingThreadWithoutIdleConnections() {
+        given(pool.getIdleConnections()).willReturn(3);
+        assertThat(sectionThread(dashboardService)).isSameAs(Thread.currentThread());
+    }
+
+    @Test
+    void sectionsRunOnTheCallingThreadWhenTooManyDashboardsAreReadInParallel() {
+        CustomerDashboardServiceImpl capped = dashboardService(Duration.ofSeconds(1), 0);
+        assertThat(sectionThread(capped)).isSameAs(Thread.currentThread());
+        capped.shutdown();
+    }
+
+    @Test
+    void sectionsRunOnTheirOwnThreadsWhenThePoolCanSpareConnections() {
+        assertThat(sectionThread(dashboardService)).isNotSameAs(Thread.currentThread());
+    }
+
+    @Test
+    void unknownCustomersHaveNoDashboard() {
+        given(customerService.getCustomerById(CUSTOMER_ID)).willReturn(Optional.empty());
+
+        assertThat(dashboardService.getDashboard(CUSTOMER_ID)).isEmpty();
+    }
+
+    private Thread sectionThread(CustomerDashboardServiceImpl service) {
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        given(customerService.getCustomerById(CUSTOMER_ID)).willAnswer(invocation -> {
+            thread.set(Thread.currentThread());
+            return Optional.of(CustomerDTO.builder().id(CUSTOMER_ID).build());
+        });
+        service.getDashboard(CUSTOMER_ID);
+        return thread.get();
+    }
+
+    private CustomerDashboardServiceImpl dashboardService(Duration sectionTimeout, int maxConcurrent) {
+        return new CustomerDashboardServiceImpl(customerService, beerOrderService, beerOrderRepository,
+                beerOrderShipmentRepository, mock(PlatformTransactionManager.class), dataSource, sectionTimeout, 4,
+                maxConcurrent);
+    }
+
+    private static DataSource hikariDataSource(HikariPoolMXBean pool) {
+        HikariDataSource hikari = mock(HikariDataSource.class);
+        given(hikari.getHikariPoolMXBean()).willReturn(pool);
+        DataSource dataSource = mock(DataSource.class);
+        try {
+            given(dataSource.isWrapperFor(HikariDataSource.class)).willReturn(true);
+            given(dataSource.unwrap(HikariDataSource.class)).willReturn(hikari);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return dataSource;
+    }
+
+    private static <T> T slowly(T result) throws InterruptedException {
+        Thread.sleep(SLOW);
+        return result;
+    }
+}
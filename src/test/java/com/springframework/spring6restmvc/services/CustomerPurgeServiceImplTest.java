@@ -0,0 +1,202 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.entities.BeerOrder;
+import com.springframework.spring6restmvc.entities.BeerOrderArchive;
+import com.springframework.spring6restmvc.entities.BeerOrderLine;
+import com.springframework.spring6restmvc.entities.BeerOrderShipment;
+import com.springframework.spring6restmvc.entities.Customer;
+import com.springframework.spring6restmvc.mappers.CustomerMapperImpl;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.model.CustomerPurgeStatus;
+import com.springframework.spring6restmvc.model.PurgeState;
+import com.springframework.spring6restmvc.model.TombstoneType;
+import com.springframework.spring6restmvc.repositories.BeerOrderArchiveRepository;
+import com.springframework.spring6restmvc.repositories.BeerOrderLineRepository;
+import com.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import com.springframework.spring6restmvc.repositories.BeerOrderShipmentRepository;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.repositories.CustomerRepository;
+import com.springframework.spring6restmvc.repositories.SalesByStyleRepository;
+import com.springframework.spring6restmvc.repositories.TombstoneRepository;
+import com.springframework.spring6restmvc.stats.SalesByStyleSummary;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({OrderDeletion.class, CustomerServiceJPA.class, CustomerMapperImpl.class, WriteRetry.class,
+        DeltaSyncLag.class, SalesByStyleSummary.class, SalesByStyleRepository.class})
+class CustomerPurgeServiceImplTest {
+
+    static final int ORDERS = 5;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    CustomerService customerService;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    BeerOrderLineRepository beerOrderLineRepository;
+
+    @Autowired
+    BeerOrderShipmentRepository beerOrderShipmentRepository;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    OrderDeletion orderDeletion;
+
+    @Autowired
+    BeerOrderArchiveRepository beerOrderArchiveRepository;
+
+    @Autowired
+    SalesByStyleSummary salesByStyleSummary;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManager entityManager;
+
+    // runs the purge on the calling thread, inside the test transaction
+    CustomerPurgeServiceImpl purgeService;
+    Beer beer;
+    Customer customer;
+    Customer otherCustomer;
+
+    @BeforeEach
+    void setUp() {
+        purgeService = new CustomerPurgeServiceImpl(customerRepository, customerService, beerOrderRepository,
+                orderDeletion, beerOrderArchiveRepository, salesByStyleSummary, transactionManager, Runnable::run, 2,
+                1.0);
+        beer = beerRepository.save(Beer.builder()
+                .beerName("Purged Pils")
+                .beerStyle(BeerStyle.PILSNER)
+                .upc("UPC-PURGE")
+                .price(new BigDecimal("4.00"))
+                .quantityOnHand(100)
+                .build());
+        customer = customerRepository.save(Customer.builder().name("Purged Customer").build());
+        otherCustomer = customerRepository.save(Customer.builder().name("Kept Customer").build());
+        IntStream.range(0, ORDERS).forEach(i -> order(customer));
+        order(otherCustomer);
+        IntStream.range(0, 3).forEach(i -> archived(customer));
+        archived(otherCustomer);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void deletesTheOrdersInChunksAndThenTheCustomer() {
+        CustomerPurgeStatus status = purgeService.startPurge(customer.getId()).orElseThrow();
+
+        assertThat(status.getState()).isEqualTo(PurgeState.COMPLETED);
+        assertThat(status.getTotalOrders()).isEqualTo(ORDERS);
+        assertThat(status.getOrdersDeleted()).isEqualTo(ORDERS);
+        assertThat(status.getLinesDeleted()).isEqualTo(2 * ORDERS);
+        assertThat(status.getShipmentsDeleted()).isEqualTo(ORDERS);
+        assertThat(status.getFinishedDate()).isNotNull();
+
+        assertThat(customerRepository.findById(customer.getId())).isEmpty();
+        assertThat(beerOrderRepository.countByCustomerId(customer.getId())).isZero();
+        assertThat(tombstoneRepository.findAll()).anySatisfy(tombstone -> {
+            assertThat(tombstone.getEntityType()).isEqualTo(TombstoneType.CUSTOMER);
+            assertThat(tombstone.getEntityId()).isEqualTo(customer.getId());
+        });
+        assertThat(purgeService.getPurge(customer.getId())).contains(status);
+    }
+
+    @Test
+    void otherCustomersKeepTheirOrders() {
+        purgeService.startPurge(customer.getId());
+
+        assertThat(customerRepository.findById(otherCustomer.getId())).isPresent();
+        assertThat(beerOrderRepository.countByCustomerId(otherCustomer.getId())).isEqualTo(1);
+        assertThat(beerOrderLineRepository.count()).isEqualTo(2);
+        assertThat(beerOrderShipmentRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void deletesTheArchivedOrdersOfTheCustomerOnly() {
+        CustomerPurgeStatus status = purgeService.startPurge(customer.getId()).orElseThrow();
+
+        assertThat(status.getArchivedOrdersDeleted()).isEqualTo(3);
+        assertThat(beerOrderArchiveRepository.findAll()).singleElement()
+                .satisfies(archive -> assertThat(archive.getCustomerId()).isEqualTo(otherCustomer.getId()));
+    }
+
+    @Test
+    void takesThePurgedLinesOutOfTheSalesSummary() {
+        LocalDate today = LocalDate.now();
+        salesByStyleSummary.reconcile(today, today.plusDays(1));
+        assertThat(salesByStyleSummary.getSales(today, today)).singleElement()
+                .satisfies(day -> assertThat(day.getUnitsOrdered()).isEqualTo(3 * (ORDERS + 1)));
+
+        purgeService.startPurge(customer.getId());
+
+        assertThat(salesByStyleSummary.getSales(today, today)).singleElement().satisfies(day -> {
+            assertThat(day.getUnitsOrdered()).isEqualTo(3);
+            assertThat(day.getLineCount()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void unknownCustomersAreNotPurged() {
+        assertThat(purgeService.startPurge(UUID.randomUUID())).isEmpty();
+        assertThat(purgeService.getPurge(customer.getId())).isEmpty();
+    }
+
+    @Test
+    void pausesInProportionToTheLoadBudget() {
+        assertThat(CustomerPurgeServiceImpl.pauseNanos(100, 1.0)).isZero();
+        assertThat(CustomerPurgeServiceImpl.pauseNanos(100, 0.25)).isEqualTo(300);
+        assertThatThrownBy(() -> new CustomerPurgeServiceImpl(customerRepository, customerService,
+                beerOrderRepository, orderDeletion, beerOrderArchiveRepository, salesByStyleSummary,
+                transactionManager, Runnable::run, 2, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void order(Customer orderCustomer) {
+        BeerOrder order = BeerOrder.builder()
+                .customer(orderCustomer)
+                .beerOrderShipment(BeerOrderShipment.builder().build())
+                .beerOrderLines(new HashSet<>())
+                .build();
+        List.of(1, 2).forEach(quantity -> order.getBeerOrderLines().add(BeerOrderLine.builder()
+                .beerOrder(order).beer(beer).orderQuantity(quantity).build()));
+        beerOrderRepository.save(order);
+    }
+
+    private void archived(Customer orderCustomer) {
+        beerOrderArchiveRepository.save(BeerOrderArchive.builder()
+                .id(UUID.randomUUID())
+                .customerId(orderCustomer.getId())
+                .archivedDate(LocalDateTime.now())
+                .document("{}")
+                .build());
+    }
+}
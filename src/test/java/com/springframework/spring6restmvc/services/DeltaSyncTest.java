@@ -0,0 +1,64 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.CustomerDTO;
+import com.springframework.spring6restmvc.model.DeltaPage;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeltaSyncTest {
+
+    static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 18, 12, 0);
+    static final LocalDateTime SINCE = NOW.minusMinutes(1);
+
+    @Test
+    void unsettledChangesAreHeldBack() {
+        CustomerDTO settled = customer(NOW.minusSeconds(30));
+        CustomerDTO recent = customer(NOW.minusSeconds(1));
+
+        DeltaPage<CustomerDTO> step = merge(SINCE, null, List.of(settled, recent), NOW.minusSeconds(5));
+
+        assertThat(step.getChanged()).containsExactly(settled);
+        assertThat(step.getNextModifiedSince()).isEqualTo(settled.getUpdateDate());
+        assertThat(step.isHasMore()).isFalse();
+    }
+
+    @Test
+    void aChangeThatCommitsLateIsNotSkipped() {
+        CustomerDTO first = customer(NOW.minusSeconds(30));
+        CustomerDTO recent = customer(NOW.minusSeconds(2));
+        DeltaPage<CustomerDTO> step = merge(SINCE, null, List.of(first, recent), NOW.minusSeconds(5));
+
+        // flushed before recent but committed only after the step above was read
+        CustomerDTO late = customer(NOW.minusSeconds(3));
+        LocalDateTime later = NOW.plusSeconds(10);
+        DeltaPage<CustomerDTO> next = merge(step.getNextModifiedSince(), step.getNextAfterId(),
+                List.of(late, recent), later.minusSeconds(5));
+
+        assertThat(next.getChanged()).containsExactly(late, recent);
+    }
+
+    @Test
+    void withoutCutoffEverythingIsReturned() {
+        CustomerDTO recent = customer(LocalDateTime.now());
+
+        DeltaPage<CustomerDTO> step = DeltaSync.merge(SINCE, DeltaSync.MIN_ID, DeltaSync.DEFAULT_LIMIT,
+                List.of(recent), CustomerDTO::getUpdateDate, CustomerDTO::getId, List.of());
+
+        assertThat(step.getChanged()).containsExactly(recent);
+    }
+
+    private static DeltaPage<CustomerDTO> merge(LocalDateTime since, UUID afterId, List<CustomerDTO> changed,
+                                                LocalDateTime settledBefore) {
+        return DeltaSync.merge(since, DeltaSync.afterId(afterId), DeltaSync.DEFAULT_LIMIT, changed,
+                CustomerDTO::getUpdateDate, CustomerDTO::getId, List.of(), settledBefore);
+    }
+
+    private static CustomerDTO customer(LocalDateTime updateDate) {
+        return CustomerDTO.builder().id(UUID.randomUUID()).updateDate(updateDate).build();
+    }
+}
@@ -0,0 +1,158 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.entities.BeerOrder;
+import com.springframework.spring6restmvc.entities.BeerOrderLine;
+import com.springframework.spring6restmvc.entities.BeerOrderShipment;
+import com.springframework.spring6restmvc.entities.Customer;
+import com.springframework.spring6restmvc.mappers.BeerMapperImpl;
+import com.springframework.spring6restmvc.mappers.BeerOrderMapper;
+import com.springframework.spring6restmvc.mappers.BeerOrderMapperImpl;
+import com.springframework.spring6restmvc.model.BeerOrderDTO;
+import com.springframework.spring6restmvc.model.BeerOrderLineDTO;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.repositories.BeerOrderArchiveRepository;
+import com.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import com.springframework.spring6restmvc.repositories.BeerOrderShipmentRepository;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.repositories.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {"order.archive.retention=P30D", "order.archive.chunk-size=2"})
+@Import({OrderArchive.class, OrderDeletion.class, BeerOrderMapperImpl.class, BeerMapperImpl.class})
+class OrderArchiveTest {
+
+    static final int OLD_SHIPPED = 5;
+
+    @Autowired
+    OrderArchive orderArchive;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    BeerOrderShipmentRepository beerOrderShipmentRepository;
+
+    @Autowired
+    BeerOrderArchiveRepository beerOrderArchiveRepository;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    BeerOrderMapper beerOrderMapper;
+
+    @Autowired
+    OrderDeletion orderDeletion;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Customer customer;
+    Beer beer;
+    List<UUID> oldShipped;
+    UUID oldUnshipped;
+    UUID recentShipped;
+
+    @BeforeEach
+    void setUp() {
+        customer = customerRepository.save(Customer.builder().name("Archive Customer").build());
+        beer = beerRepository.save(Beer.builder()
+                .beerName("Archived Ale")
+                .beerStyle(BeerStyle.ALE)
+                .upc("UPC-ARCHIVE")
+                .price(new BigDecimal("5.00"))
+                .quantityOnHand(100)
+                .build());
+        oldShipped = IntStream.range(0, OLD_SHIPPED).mapToObj(i -> order("TRACK-" + i, 40 + i)).toList();
+        oldUnshipped = order(null, 60);
+        recentShipped = order("TRACK-NEW", 1);
+        entityManager.clear();
+    }
+
+    @Test
+    void oldShippedOrdersMoveToTheArchiveInChunks() {
+        BeerOrderDTO before = new BeerOrderMapperImpl().beerOrderToBeerOrderDto(
+                beerOrderRepository.findWithLinesById(oldShipped.get(0)).orElseThrow());
+        entityManager.clear();
+
+        assertThat(orderArchive.archive()).isEqualTo(OLD_SHIPPED);
+
+        assertThat(beerOrderRepository.findAllById(oldShipped)).isEmpty();
+        assertThat(beerOrderRepository.findById(oldUnshipped)).isPresent();
+        assertThat(beerOrderRepository.findById(recentShipped)).isPresent();
+        assertThat(beerOrderShipmentRepository.count()).isEqualTo(2);
+        assertThat(beerOrderArchiveRepository.findAllById(oldShipped)).hasSize(OLD_SHIPPED);
+
+        BeerOrderDTO archived = orderArchive.find(oldShipped.get(0)).orElseThrow();
+        assertThat(archived).isEqualTo(before);
+        assertThat(archived.getBeerOrderLines()).singleElement()
+                .extracting(BeerOrderLineDTO::getBeerName).isEqualTo(beer.getBeerName());
+    }
+
+    @Test
+    void aSecondRunHasNothingLeftToDo() {
+        orderArchive.archive();
+
+        assertThat(orderArchive.archive()).isZero();
+    }
+
+    @Test
+    void liveOrdersAreNotInTheArchive() {
+        assertThat(orderArchive.find(recentShipped)).isEmpty();
+    }
+
+    @Test
+    void theRetentionMustOutlastTheSalesReconciliation() {
+        assertThatThrownBy(() -> archive(Duration.ofDays(7), 7))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("sales.summary.reconcile-days");
+        assertThat(archive(Duration.ofDays(8), 7)).isNotNull();
+    }
+
+    private OrderArchive archive(Duration retention, int reconcileDays) {
+        return new OrderArchive(beerOrderRepository, beerOrderArchiveRepository, beerOrderMapper, orderDeletion,
+                entityManager, transactionManager, retention, 2, reconcileDays);
+    }
+
+    private UUID order(String trackingNumber, int daysAgo) {
+        BeerOrder order = BeerOrder.builder()
+                .customer(customer)
+                .beerOrderShipment(BeerOrderShipment.builder().trackingNumber(trackingNumber).build())
+                .beerOrderLines(new HashSet<>())
+                .build();
+        order.getBeerOrderLines().add(BeerOrderLine.builder().beerOrder(order).beer(beer).orderQuantity(3).build());
+        UUID id = beerOrderRepository.saveAndFlush(order).getId();
+        jdbcTemplate.update("update beer_order set created_date = ? where id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(daysAgo)), id.toString());
+        return id;
+    }
+}
@@ -0,0 +1,150 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.entities.BeerOrder;
+import com.springframework.spring6restmvc.entities.BeerOrderLine;
+import com.springframework.spring6restmvc.entities.Category;
+import com.springframework.spring6restmvc.entities.Customer;
+import com.springframework.spring6restmvc.mappers.BeerMapperImpl;
+import com.springframework.spring6restmvc.mappers.BeerOrderMapperImpl;
+import com.springframework.spring6restmvc.mappers.CustomerMapperImpl;
+import com.springframework.spring6restmvc.model.BeerOrderDTO;
+import com.springframework.spring6restmvc.model.BeerOrderLineDTO;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.model.CategoryDTO;
+import com.springframework.spring6restmvc.model.CustomerDTO;
+import com.springframework.spring6restmvc.model.Expansion;
+import com.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.repositories.CategoryRepository;
+import com.springframework.spring6restmvc.repositories.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({OrderGraphServiceImpl.class, CustomerMapperImpl.class, BeerOrderMapperImpl.class, BeerMapperImpl.class,
+        OrderArchive.class, OrderDeletion.class})
+class OrderGraphServiceImplTest {
+
+    static final int ORDERS = 6;
+
+    @Autowired
+    OrderGraphService orderGraphService;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Customer customer;
+    List<Beer> beers;
+    List<UUID> orderIds;
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Category seasonal = categoryRepository.save(Category.builder().description("Graph Seasonal").build());
+        customer = customerRepository.save(Customer.builder().name("Graph Customer").build());
+        beers = beerRepository.saveAll(IntStream.range(0, 3)
+                .mapToObj(i -> Beer.builder()
+                        .beerName("Graph Beer " + i)
+                        .beerStyle(BeerStyle.LAGER)
+                        .upc("UPC-GRAPH-" + i)
+                        .price(new BigDecimal("3.50"))
+                        .categories(i == 0 ? new HashSet<>(Set.of(seasonal)) : new HashSet<>())
+                        .build())
+                .toList());
+        // every order has lines for the first two beers, so the beers repeat across orders
+        orderIds = IntStream.range(0, ORDERS)
+                .mapToObj(i -> {
+                    BeerOrder order = BeerOrder.builder().customer(customer).beerOrderLines(new HashSet<>()).build();
+                    beers.subList(0, 2).forEach(beer -> order.getBeerOrderLines().add(BeerOrderLine.builder()
+                            .beerOrder(order).beer(beer).orderQuantity(i + 1).build()));
+                    return beerOrderRepository.save(order).getId();
+                })
+                .toList();
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void everyLevelIsReadWithOneQuery() {
+        CustomerDTO expanded = orderGraphService.getCustomer(customer.getId(),
+                EnumSet.of(Expansion.ORDERS, Expansion.BEERS, Expansion.CATEGORIES)).orElseThrow();
+
+        assertThat(expanded.getBeerOrders()).hasSize(ORDERS)
+                .allSatisfy(order -> assertThat(order.getBeerOrderLines()).hasSize(2));
+        List<BeerOrderLineDTO> lines = expanded.getBeerOrders().stream()
+                .flatMap(order -> order.getBeerOrderLines().stream())
+                .toList();
+        // one BeerDTO per beer, shared by all of its lines
+        assertThat(lines.stream().map(BeerOrderLineDTO::getBeer).distinct()).hasSize(2);
+        assertThat(lines).filteredOn(line -> line.getBeerId().equals(beers.get(0).getId()))
+                .allSatisfy(line -> assertThat(line.getBeer().getCategories())
+                        .extracting(CategoryDTO::getDescription).containsExactly("Graph Seasonal"));
+        assertThat(lines).filteredOn(line -> line.getBeerId().equals(beers.get(1).getId()))
+                .allSatisfy(line -> assertThat(line.getBeer().getCategories()).isEmpty());
+        // customer, orders, lines, beers, categories
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+    }
+
+    @Test
+    void ordersWithoutBeers() {
+        CustomerDTO expanded = orderGraphService.getCustomer(customer.getId(), EnumSet.of(Expansion.ORDERS))
+                .orElseThrow();
+
+        assertThat(expanded.getBeerOrders()).hasSize(ORDERS)
+                .flatExtracting(BeerOrderDTO::getBeerOrderLines)
+                .allSatisfy(line -> assertThat(line.getBeer()).isNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void orderWithBeers() {
+        BeerOrderDTO order = orderGraphService.getOrder(orderIds.get(0), EnumSet.of(Expansion.BEERS)).orElseThrow();
+
+        assertThat(order.getCustomerId()).isEqualTo(customer.getId());
+        assertThat(order.getBeerOrderLines()).extracting(line -> line.getBeer().getBeerName())
+                .containsExactlyInAnyOrder("Graph Beer 0", "Graph Beer 1");
+        assertThat(order.getBeerOrderLines()).allSatisfy(line -> assertThat(line.getBeer().getCategories()).isNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void unknownIdsAreMissing() {
+        assertThat(orderGraphService.getOrder(UUID.randomUUID(), EnumSet.of(Expansion.BEERS))).isEmpty();
+        assertThat(orderGraphService.getCustomer(UUID.randomUUID(), EnumSet.of(Expansion.ORDERS))).isEmpty();
+    }
+}
@@ -0,0 +1,82 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.CountedPage;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ParallelPageQueriesTest {
+
+    static final PageRequest FIRST_PAGE = PageRequest.of(0, 2);
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    ParallelPageQueries parallelPageQueries;
+
+    @AfterEach
+    void tearDown() {
+        if (parallelPageQueries != null) {
+            parallelPageQueries.shutdown();
+        }
+    }
+
+    @Test
+    void countRunsOnAnotherThread() {
+        parallelPageQueries = new ParallelPageQueries(transactionManager, dataSource, true, 0, 4);
+        AtomicReference<Thread> countThread = new AtomicReference<>();
+
+        CountedPage<String> page = parallelPageQueries.page(() -> List.of("a", "b"), () -> {
+            countThread.set(Thread.currentThread());
+            return beerRepository.count();
+        }, FIRST_PAGE);
+
+        assertThat(page).isNotNull();
+        assertThat(page.getTotalElements()).isEqualTo(beerRepository.count());
+        assertThat(page.isExact()).isTrue();
+        assertThat(countThread.get()).isNotSameAs(Thread.currentThread());
+        assertThat(countThread.get().isVirtual()).isTrue();
+    }
+
+    @Test
+    void notUsedInsideATransaction() {
+        parallelPageQueries = new ParallelPageQueries(transactionManager, dataSource, true, 0, 4);
+
+        CountedPage<String> page = new TransactionTemplate(transactionManager).execute(status ->
+                parallelPageQueries.page(() -> List.of("a", "b"), () -> 2, FIRST_PAGE));
+
+        assertThat(page).isNull();
+    }
+
+    @Test
+    void notUsedWithoutEnoughIdleConnections() {
+        parallelPageQueries = new ParallelPageQueries(transactionManager, dataSource, true, Integer.MAX_VALUE, 4);
+
+        assertThat(parallelPageQueries.<String>page(() -> List.of("a", "b"), () -> 2, FIRST_PAGE)).isNull();
+    }
+
+    @Test
+    void notUsedUnlessEnabled() {
+        parallelPageQueries = new ParallelPageQueries(transactionManager, dataSource, false, 0, 4);
+
+        assertThat(parallelPageQueries.<String>page(() -> List.of("a", "b"), () -> 2, FIRST_PAGE)).isNull();
+    }
+}
@@ -0,0 +1,61 @@
+package com.springframework.spring6restmvc.services;
+
+import com.springframework.spring6restmvc.model.WriteConflictStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class WriteRetryTest {
+
+    WriteRetry writeRetry = new WriteRetry(mock(PlatformTransactionManager.class), 3, Duration.ofMillis(1),
+            Duration.ofMillis(4));
+
+    @Test
+    void conflictsAreRetriedUntilTheWriteGoesThrough() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = writeRetry.execute("beer", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Beer", "id");
+            }
+            return "written";
+        });
+
+        assertThat(result).isEqualTo("written");
+        assertThat(writeRetry.getStats().get("beer")).isEqualTo(WriteConflictStats.builder()
+                .writes(1).conflicts(2).retries(2).exhausted(0).build());
+    }
+
+    @Test
+    void theLastConflictIsRethrown() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> writeRetry.execute("customer", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Customer", "id");
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(attempts).hasValue(3);
+        assertThat(writeRetry.getStats().get("customer")).isEqualTo(WriteConflictStats.builder()
+                .writes(0).conflicts(3).retries(2).exhausted(1).build());
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> writeRetry.execute("beer", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("broken");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(attempts).hasValue(1);
+    }
+}
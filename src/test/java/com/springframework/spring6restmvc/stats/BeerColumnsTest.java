@@ -0,0 +1,62 @@
+package com.springframework.spring6restmvc.stats;
+
+import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerColumnsTest {
+
+    UUID ipa = UUID.randomUUID();
+    UUID secondIpa = UUID.randomUUID();
+    UUID stout = UUID.randomUUID();
+
+    BeerColumns columns = BeerColumns.builder(0)
+            .add(ipa, BeerStyle.IPA, new BigDecimal("10.00"), 5, new BigDecimal("6.50"))
+            .add(stout, BeerStyle.STOUT, new BigDecimal("8.99"), null, null)
+            .add(secondIpa, BeerStyle.IPA, new BigDecimal("12.51"), 7, null)
+            .build();
+
+    @Test
+    void totalsGroupByStyle() {
+        BeerColumns.Totals ipaTotals = columns.totals(BeerStyle.IPA);
+
+        assertThat(ipaTotals.count()).isEqualTo(2);
+        assertThat(ipaTotals.averagePrice()).isEqualByComparingTo("11.26");
+        assertThat(ipaTotals.quantityOnHand()).isEqualTo(12);
+        assertThat(ipaTotals.averageAbv()).isEqualByComparingTo("6.50");
+
+        assertThat(columns.totals(BeerStyle.STOUT).averageAbv()).isNull();
+        assertThat(columns.totals(BeerStyle.LAGER).count()).isZero();
+        assertThat(columns.totals().count()).isEqualTo(3);
+        assertThat(columns.totals().priceCents()).isEqualTo(3150);
+    }
+
+    @Test
+    void applyReplacesChangedAndRemovesDeletedBeers() {
+        Map<UUID, BeerDTO> changes = new HashMap<>();
+        changes.put(secondIpa, BeerDTO.builder()
+                .beerStyle(BeerStyle.STOUT)
+                .price(new BigDecimal("9.01"))
+                .quantityOnHand(1)
+                .abv(new BigDecimal("8.00"))
+                .build());
+        changes.put(ipa, null);
+
+        BeerColumns changed = columns.apply(changes);
+
+        assertThat(changed.size()).isEqualTo(2);
+        assertThat(changed.totals(BeerStyle.IPA).count()).isZero();
+        assertThat(changed.totals(BeerStyle.STOUT).count()).isEqualTo(2);
+        assertThat(changed.totals(BeerStyle.STOUT).averagePrice()).isEqualByComparingTo("9.00");
+        assertThat(changed.totals(BeerStyle.STOUT).averageAbv()).isEqualByComparingTo("8.00");
+        // the previous snapshot is left as it was
+        assertThat(columns.totals(BeerStyle.IPA).count()).isEqualTo(2);
+    }
+}
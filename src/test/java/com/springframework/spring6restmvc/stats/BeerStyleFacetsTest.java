@@ -0,0 +1,80 @@
+package com.springframework.spring6restmvc.stats;
+
+import com.springframework.spring6restmvc.events.BeerChangeType;
+import com.springframework.spring6restmvc.events.BeerChangedEvent;
+import com.springframework.spring6restmvc.model.BeerDTO;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.repositories.BeerStyleCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class BeerStyleFacetsTest {
+
+    BeerRepository beerRepository = mock(BeerRepository.class);
+
+    BeerStyleFacets beerStyleFacets;
+
+    @BeforeEach
+    void setUp() {
+        given(beerRepository.countByBeerStyle()).willReturn(List.of(count(BeerStyle.IPA, 3), count(BeerStyle.ALE, 2)));
+        beerStyleFacets = new BeerStyleFacets(beerRepository);
+        beerStyleFacets.reconcile();
+    }
+
+    @Test
+    void writesMoveTheCounters() {
+        change(BeerChangeType.CREATED, BeerStyle.LAGER, null);
+        change(BeerChangeType.PATCHED, BeerStyle.ALE, BeerStyle.IPA);
+        change(BeerChangeType.UPDATED, BeerStyle.ALE, BeerStyle.ALE);
+        change(BeerChangeType.DELETED, BeerStyle.ALE, BeerStyle.ALE);
+
+        assertThat(beerStyleFacets.getCounts())
+                .containsEntry(BeerStyle.LAGER, 1L)
+                .containsEntry(BeerStyle.IPA, 2L)
+                .containsEntry(BeerStyle.ALE, 2L)
+                .containsEntry(BeerStyle.STOUT, 0L);
+    }
+
+    @Test
+    void reconcileReplacesDriftedCounters() {
+        change(BeerChangeType.CREATED, BeerStyle.LAGER, null);
+
+        beerStyleFacets.reconcile();
+
+        assertThat(beerStyleFacets.getCounts())
+                .containsEntry(BeerStyle.LAGER, 0L)
+                .containsEntry(BeerStyle.IPA, 3L)
+                .containsEntry(BeerStyle.ALE, 2L);
+    }
+
+    private void change(BeerChangeType type, BeerStyle style, BeerStyle previousStyle) {
+        beerStyleFacets.onBeerChanged(BeerChangedEvent.builder()
+                .type(type)
+                .beerId(UUID.randomUUID())
+                .beer(BeerDTO.builder().beerStyle(style).build())
+                .previousBeerStyle(previousStyle)
+                .build());
+    }
+
+    private static BeerStyleCount count(BeerStyle style, long count) {
+        return new BeerStyleCount() {
+            @Override
+            public BeerStyle getBeerStyle() {
+                return style;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+}
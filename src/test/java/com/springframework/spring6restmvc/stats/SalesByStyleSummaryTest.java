@@ -0,0 +1,166 @@
+package com.springframework.spring6restmvc.stats;
+
+import com.springframework.spring6restmvc.entities.Beer;
+import com.springframework.spring6restmvc.entities.BeerOrder;
+import com.springframework.spring6restmvc.entities.BeerOrderLine;
+import com.springframework.spring6restmvc.entities.Customer;
+import com.springframework.spring6restmvc.mappers.BeerMapperImpl;
+import com.springframework.spring6restmvc.mappers.BeerOrderMapperImpl;
+import com.springframework.spring6restmvc.model.BeerOrderCreateDTO;
+import com.springframework.spring6restmvc.model.BeerOrderLineCreateDTO;
+import com.springframework.spring6restmvc.model.BeerStyle;
+import com.springframework.spring6restmvc.model.StyleSalesDay;
+import com.springframework.spring6restmvc.repositories.BeerInventoryRepository;
+import com.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import com.springframework.spring6restmvc.repositories.BeerRepository;
+import com.springframework.spring6restmvc.repositories.CustomerRepository;
+import com.springframework.spring6restmvc.repositories.SalesByStyleRepository;
+import com.springframework.spring6restmvc.services.BeerOrderService;
+import com.springframework.spring6restmvc.services.BeerOrderServiceImpl;
+import com.springframework.spring6restmvc.services.OrderArchive;
+import com.springframework.spring6restmvc.services.OrderDeletion;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({SalesByStyleSummary.class, SalesByStyleRepository.class, BeerOrderServiceImpl.class,
+        BeerOrderMapperImpl.class, BeerMapperImpl.class, BeerInventoryRepository.class, OrderArchive.class,
+        OrderDeletion.class})
+class SalesByStyleSummaryTest {
+
+    static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    SalesByStyleSummary salesByStyleSummary;
+
+    @Autowired
+    SalesByStyleRepository salesByStyleRepository;
+
+    @Autowired
+    BeerOrderService beerOrderService;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    Customer customer;
+    Beer stout;
+    Beer porter;
+    Beer otherStout;
+
+    @BeforeEach
+    void setUp() {
+        customer = customerRepository.save(Customer.builder().name("Sales Customer").build());
+        stout = beer("Sales Stout", BeerStyle.STOUT);
+        otherStout = beer("Sales Stout 2", BeerStyle.STOUT);
+        porter = beer("Sales Porter", BeerStyle.PORTER);
+    }
+
+    @Test
+    void placedOrdersAreAddedToTheirDay() {
+        beerOrderService.createOrder(orderOf(Map.of(stout, 3, porter, 2)));
+        beerOrderService.createOrder(orderOf(Map.of(stout, 1, otherStout, 4)));
+
+        assertThat(salesByStyleSummary.getSales(TODAY, TODAY)).containsExactly(
+                day(BeerStyle.STOUT, 8, 3),
+                day(BeerStyle.PORTER, 2, 1));
+    }
+
+    @Test
+    void placedOrdersAreAddedToTheDayTheReconciliationCountsThemOn() {
+        beerOrderService.createOrder(orderOf(Map.of(stout, 3, porter, 2)));
+        LocalDate created = beerOrderRepository.findAll().get(0).getCreatedDate().toLocalDateTime().toLocalDate();
+        List<StyleSalesDay> written = salesByStyleSummary.getSales(created, created);
+        entityManager.flush();
+
+        salesByStyleSummary.reconcile(created, created.plusDays(1));
+
+        assertThat(written).isNotEmpty();
+        assertThat(salesByStyleSummary.getSales(created, created)).isEqualTo(written);
+    }
+
+    @Test
+    void repeatedAddsAccumulateOnOneRow() {
+        salesByStyleRepository.add(TODAY, BeerStyle.LAGER, 2, 1);
+        salesByStyleRepository.add(TODAY, BeerStyle.LAGER, 5, 2);
+
+        assertThat(salesByStyleSummary.getSales(TODAY, TODAY)).containsExactly(day(BeerStyle.LAGER, 7, 3));
+    }
+
+    @Test
+    void reconciliationRecomputesTheDaysFromTheOrderLines() {
+        beerOrderService.createOrder(orderOf(Map.of(stout, 3)));
+        // written around the service, and a summary row that does not match any order
+        saveOrderDirectly(porter, 5);
+        salesByStyleRepository.add(TODAY.minusDays(1), BeerStyle.LAGER, 7, 1);
+        entityManager.flush();
+
+        salesByStyleSummary.reconcile(TODAY.minusDays(1), TODAY.plusDays(1));
+
+        assertThat(salesByStyleSummary.getSales(TODAY.minusDays(1), TODAY)).containsExactly(
+                day(BeerStyle.STOUT, 3, 1),
+                day(BeerStyle.PORTER, 5, 1));
+    }
+
+    @Test
+    void theNightlyReconciliationLeavesTodayAlone() {
+        saveOrderDirectly(porter, 5);
+
+        salesByStyleSummary.reconcile();
+
+        assertThat(salesByStyleSummary.getSales(TODAY, TODAY)).isEmpty();
+    }
+
+    private void saveOrderDirectly(Beer beer, int quantity) {
+        BeerOrder order = BeerOrder.builder().customer(customer).beerOrderLines(new HashSet<>()).build();
+        order.getBeerOrderLines().add(BeerOrderLine.builder().beerOrder(order).beer(beer).orderQuantity(quantity)
+                .build());
+        beerOrderRepository.saveAndFlush(order);
+    }
+
+    private Beer beer(String name, BeerStyle style) {
+        return beerRepository.save(Beer.builder()
+                .beerName(name)
+                .beerStyle(style)
+                .upc("UPC-" + name)
+                .price(new BigDecimal("5.00"))
+                .quantityOnHand(100)
+                .build());
+    }
+
+    private BeerOrderCreateDTO orderOf(Map<Beer, Integer> quantities) {
+        return BeerOrderCreateDTO.builder()
+                .customerId(customer.getId())
+                .beerOrderLines(quantities.entrySet().stream()
+                        .map(entry -> BeerOrderLineCreateDTO.builder()
+                                .beerId(entry.getKey().getId())
+                                .orderQuantity(entry.getValue())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    private static StyleSalesDay day(BeerStyle style, long units, long lines) {
+        return StyleSalesDay.builder().salesDate(TODAY).beerStyle(style).unitsOrdered(units).lineCount(lines).build();
+    }
+}